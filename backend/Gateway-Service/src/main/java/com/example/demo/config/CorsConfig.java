@@ -29,7 +29,7 @@ public class CorsConfig {
         corsConfig.setAllowCredentials(true);
         
         // Headers exposés au client
-        corsConfig.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        corsConfig.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "ETag", "Last-Modified", "Content-Range", "Accept-Ranges"));
         
         // Temps de cache pour la requête preflight
         corsConfig.setMaxAge(3600L);
@@ -30,6 +30,8 @@ public class RouteValidator {
             // Consultation publique des avis
             "/reviews/product",       // GET avis d'un produit
             "/reviews/images",        // GET images des avis
+            "/reviews/stats",         // POST résumés de notes groupés (grilles produits)
+            "/reviews/search",        // GET recherche plein texte dans les avis
             
             // ============ PAYMENT SERVICE ============
             // Webhooks et callbacks (appelés par services externes)
@@ -45,6 +47,17 @@ public class RouteValidator {
             "/actuator/health"
     );
 
+    /**
+     * Endpoints d'administration situés sous un préfixe public : ils exigent un JWT
+     * et sont vérifiés avant la liste publique
+     */
+    public static final List<String> securedApiEndpoints = List.of(
+            // ============ PRODUCT SERVICE ============
+            "/products/moderation",   // POST approbation / rejet groupés
+            "/products/search/rebuild", // POST reconstruction de l'index de recherche
+            "/products/import"        // POST import CSV + GET suivi des imports
+    );
+
     /**
      * Prédicat pour vérifier si une route nécessite une authentification
      * Retourne TRUE si la route est SÉCURISÉE (JWT requis)
@@ -54,6 +67,13 @@ public class RouteValidator {
             request -> {
                 String path = request.getURI().getPath();
                 
+                // Les endpoints d'administration restent sécurisés malgré le préfixe public
+                boolean isAdmin = securedApiEndpoints.stream()
+                        .anyMatch(uri -> path.contains(uri));
+                if (isAdmin) {
+                    return true;
+                }
+                
                 // Vérifie si le chemin commence par un endpoint public
                 boolean isPublic = openApiEndpoints.stream()
                         .anyMatch(uri -> path.contains(uri) || path.startsWith(uri));
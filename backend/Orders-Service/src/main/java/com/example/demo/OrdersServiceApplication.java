@@ -4,7 +4,9 @@ package com.example.demo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 @EnableDiscoveryClient
+@EnableScheduling
 @SpringBootApplication
 public class OrdersServiceApplication {
 
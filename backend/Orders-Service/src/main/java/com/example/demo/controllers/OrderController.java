@@ -11,11 +11,15 @@ import org.springframework.web.bind.annotation.*;
 
 import com.example.demo.dtos.AdminStatsDTO;
 import com.example.demo.dtos.BulkStatusUpdateRequest;
+import com.example.demo.dtos.CatalogReplicaStatsDTO;
 import com.example.demo.dtos.CreateOrderRequest;
+import com.example.demo.dtos.DeliveredPurchaseDTO;
 import com.example.demo.dtos.OrderDTO;
 import com.example.demo.dtos.SellerStatsDTO;
 import com.example.demo.enums.OrderStatus;
+import com.example.demo.services.OrderArchiveService;
 import com.example.demo.services.OrderService;
+import com.example.demo.services.ProductCatalogReplica;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,6 +33,12 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private ProductCatalogReplica productCatalogReplica;
+    
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    
     // ==================== CRUD BASIQUE ====================
     
     @PostMapping
@@ -189,4 +199,47 @@ public class OrderController {
         log.info("PUT request for bulk status update");
         return ResponseEntity.ok(orderService.bulkUpdateStatus(request));
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/admin/archive")
+    public ResponseEntity<Map<String, Object>> archiveTerminalOrders() {
+        log.info("POST request to archive terminal orders");
+        return ResponseEntity.ok(Map.of("archivedCount", orderArchiveService.archiveTerminalOrders()));
+    }
+    
+    /**
+     * Export paginé des achats livrés (archived=true pour la table d'archive), parcours par afterId
+     */
+    @GetMapping("/admin/export/delivered")
+    public ResponseEntity<List<DeliveredPurchaseDTO>> exportDeliveredPurchases(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "1000") int size,
+            @RequestParam(defaultValue = "false") boolean archived) {
+        log.info("GET request to export delivered purchases after {} (archived: {})", afterId, archived);
+        if (size <= 0 || size > 5000) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(archived
+                ? orderArchiveService.exportDeliveredPurchases(afterId, size)
+                : orderService.exportDeliveredPurchases(afterId, size));
+    }
+    
+    @GetMapping("/client/{clientId}/archived")
+    public ResponseEntity<List<OrderDTO>> getArchivedClientOrders(@PathVariable Long clientId) {
+        log.info("GET request to fetch archived orders for client: {}", clientId);
+        return ResponseEntity.ok(orderArchiveService.getArchivedClientOrders(clientId));
+    }
+    
+    // ==================== CATALOGUE RÉPLIQUÉ ====================
+    
+    @GetMapping("/admin/catalog/stats")
+    public ResponseEntity<CatalogReplicaStatsDTO> getCatalogReplicaStats() {
+        log.info("GET request for catalog replica stats");
+        return ResponseEntity.ok(productCatalogReplica.getStats());
+    }
+    
+    @PostMapping("/admin/catalog/resync")
+    public ResponseEntity<CatalogReplicaStatsDTO> resyncCatalogReplica() {
+        log.info("POST request to resync catalog replica");
+        return ResponseEntity.ok(productCatalogReplica.resync());
+    }
+}
@@ -17,4 +17,5 @@ public class AdminStatsDTO {
     private BigDecimal monthRevenue;
     private Long pendingOrders;
     private Long cancelledOrders;
+    private Long archivedOrders; // déjà inclus dans les totaux ci-dessus
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Sous-ensemble du ProductDTO de Products-Service utilisé pour la resynchronisation
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogProductDTO {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Long sellerId;
+    private String status;
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogReplicaStatsDTO {
+    private Integer size;
+    private Long eventsApplied;
+    private Long lagMillis;
+    private LocalDateTime lastEventAt;
+    private LocalDateTime lastSnapshotAt;
+    private LocalDateTime lastResyncAt;
+    private Boolean resyncInProgress;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Export des achats livrés (reconstruction de l'index de vérification d'achat de Reviews-Service)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveredPurchaseDTO {
+    private Long orderId;
+    private Long clientId;
+    private List<Long> productIds;
+}
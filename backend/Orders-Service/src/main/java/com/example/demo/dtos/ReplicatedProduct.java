@@ -0,0 +1,27 @@
+package com.example.demo.dtos;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Copie locale (immuable) des champs d'un produit dont Orders-Service a besoin
+ * pour valoriser et valider une commande sans appeler Products-Service.
+ */
+@Value
+public class ReplicatedProduct {
+    Long id;
+    String name;
+    BigDecimal price;
+    String status;
+    Long sellerId;
+    long updatedAt; // timestamp Kafka du dernier événement appliqué
+
+    public boolean isOrderable() {
+        return "APPROVED".equals(status);
+    }
+
+    public ReplicatedProduct withStatus(String newStatus, long timestamp) {
+        return new ReplicatedProduct(id, name, price, newStatus, sellerId, timestamp);
+    }
+}
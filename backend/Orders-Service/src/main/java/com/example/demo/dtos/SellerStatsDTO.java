@@ -17,4 +17,5 @@ public class SellerStatsDTO {
     private Long cancelledOrders;
     private BigDecimal totalRevenue;
     private BigDecimal monthlyRevenue;
+    private Long archivedOrders; // déjà inclus dans les totaux ci-dessus
 }
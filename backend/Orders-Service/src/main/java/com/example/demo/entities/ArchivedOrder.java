@@ -0,0 +1,65 @@
+package com.example.demo.entities;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import com.example.demo.enums.OrderStatus;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Commande terminée (DELIVERED, CANCELLED, REJECTED) déplacée hors de la table orders.
+ * L'id est celui de la commande d'origine ; les lignes sont stockées en JSON compressé (GZIP).
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+    @Index(name = "idx_orders_archive_month", columnList = "archive_month"),
+    @Index(name = "idx_orders_archive_client", columnList = "client_id"),
+    @Index(name = "idx_orders_archive_seller", columnList = "seller_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedOrder {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+    
+    @Column(name = "seller_id", nullable = false)
+    private Long sellerId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+    
+    @Column(nullable = false)
+    private BigDecimal totalPrice;
+    
+    @Column(length = 500)
+    private String shippingAddress;
+    
+    private LocalDateTime createdAt;
+    
+    // Mois de création (yyyy-MM) : sert de clé de "partition" logique
+    @Column(name = "archive_month", nullable = false, length = 7)
+    private String archiveMonth;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+    
+    @Column(nullable = false)
+    private byte[] itemsPayload;
+}
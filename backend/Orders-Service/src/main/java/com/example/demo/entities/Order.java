@@ -17,6 +17,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
@@ -25,7 +26,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_status_created", columnList = "status, created_at"),
+    @Index(name = "idx_orders_seller_created", columnList = "seller_id, created_at"),
+    @Index(name = "idx_orders_client_created", columnList = "client_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
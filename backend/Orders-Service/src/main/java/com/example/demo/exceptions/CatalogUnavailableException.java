@@ -0,0 +1,7 @@
+package com.example.demo.exceptions;
+
+public class CatalogUnavailableException extends RuntimeException {
+    public CatalogUnavailableException(String message) {
+        super(message);
+    }
+}
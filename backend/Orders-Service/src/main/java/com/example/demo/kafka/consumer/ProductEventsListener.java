@@ -0,0 +1,66 @@
+package com.example.demo.kafka.consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.events.ProductApprovedEvent;
+import com.example.demo.events.ProductCreatedEvent;
+import com.example.demo.events.ProductDeletedEvent;
+import com.example.demo.events.ProductRejectedEvent;
+import com.example.demo.events.ProductUpdatedEvent;
+import com.example.demo.services.ProductCatalogReplica;
+
+/**
+ * Alimente le réplica local du catalogue.
+ * Chaque instance a son propre groupId : tous les événements sont reçus par toutes les instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventsListener {
+
+    private static final String GROUP_ID = "${catalog.replica.group-id:orders-catalog-replica-${HOSTNAME:local}}";
+
+    private final ProductCatalogReplica productCatalogReplica;
+
+    @KafkaListener(topics = "product-created", groupId = GROUP_ID)
+    public void handleProductCreated(ProductCreatedEvent event,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("📬 Product created received: {}", event.getProductId());
+        productCatalogReplica.applyUpsert(event.getProductId(), event.getProductName(), event.getPrice(),
+                "PENDING", event.getSellerId(), timestamp);
+    }
+
+    @KafkaListener(topics = "product-updated", groupId = GROUP_ID)
+    public void handleProductUpdated(ProductUpdatedEvent event,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("📬 Product updated received: {}", event.getProductId());
+        productCatalogReplica.applyUpsert(event.getProductId(), event.getProductName(), event.getPrice(),
+                event.getStatus(), event.getSellerId(), timestamp);
+    }
+
+    @KafkaListener(topics = "product-approved", groupId = GROUP_ID)
+    public void handleProductApproved(ProductApprovedEvent event,
+                                      @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("📬 Product approved received: {}", event.getProductId());
+        productCatalogReplica.applyStatus(event.getProductId(), "APPROVED", timestamp);
+    }
+
+    @KafkaListener(topics = "product-rejected", groupId = GROUP_ID)
+    public void handleProductRejected(ProductRejectedEvent event,
+                                      @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("📬 Product rejected received: {}", event.getProductId());
+        productCatalogReplica.applyStatus(event.getProductId(), "REJECTED", timestamp);
+    }
+
+    @KafkaListener(topics = "product-deleted", groupId = GROUP_ID)
+    public void handleProductDeleted(ProductDeletedEvent event,
+                                     @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        log.debug("📬 Product deleted received: {}", event.getProductId());
+        productCatalogReplica.applyDelete(event.getProductId(), timestamp);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.kafka.producer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.events.OrderDeliveredEvent;
+import com.example.demo.events.OrderPlacedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publication des événements de commande (clé = orderId).
+ * Envoyés après commit : une commande annulée par un rollback n'est jamais annoncée.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventsProducer {
+
+    public static final String ORDER_PLACED_TOPIC = "order-placed";
+    public static final String ORDER_DELIVERED_TOPIC = "order-delivered";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    public void sendOrderPlacedAfterCommit(Order order) {
+        OrderPlacedEvent event = OrderPlacedEvent.builder()
+                .orderId(order.getId())
+                .clientId(order.getClientId())
+                .sellerId(order.getSellerId())
+                .productIds(productIds(order))
+                .placedAt(LocalDateTime.now())
+                .build();
+        afterCommit(() -> send(ORDER_PLACED_TOPIC, order.getId(), event));
+    }
+
+    public void sendOrderDeliveredAfterCommit(Order order) {
+        OrderDeliveredEvent event = OrderDeliveredEvent.builder()
+                .orderId(order.getId())
+                .clientId(order.getClientId())
+                .sellerId(order.getSellerId())
+                .productIds(productIds(order))
+                .deliveredAt(LocalDateTime.now())
+                .build();
+        afterCommit(() -> send(ORDER_DELIVERED_TOPIC, order.getId(), event));
+    }
+
+    private List<Long> productIds(Order order) {
+        return order.getItems() != null
+                ? order.getItems().stream().map(OrderItem::getProductId).distinct().toList()
+                : List.of();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void send(String topic, Long orderId, Object event) {
+        log.info("📤 Sending {} for orderId: {}", event.getClass().getSimpleName(), orderId);
+        kafkaTemplate.send(topic, orderId.toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("❌ Failed to send {} for orderId {}: {}",
+                                event.getClass().getSimpleName(), orderId, ex.getMessage(), ex);
+                    }
+                });
+    }
+}
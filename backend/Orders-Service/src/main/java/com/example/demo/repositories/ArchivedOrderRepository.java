@@ -0,0 +1,47 @@
+package com.example.demo.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.ArchivedOrder;
+import com.example.demo.enums.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+    List<ArchivedOrder> findByClientId(Long clientId);
+    List<ArchivedOrder> findBySellerId(Long sellerId);
+    List<ArchivedOrder> findByStatus(OrderStatus status);
+    List<ArchivedOrder> findByArchiveMonthBetweenAndCreatedAtBetween(String fromMonth, String toMonth,
+                                                                     LocalDateTime startDate, LocalDateTime endDate);
+    List<ArchivedOrder> findByArchiveMonth(String archiveMonth);
+    long countByArchiveMonth(String archiveMonth);
+    List<ArchivedOrder> findByStatusAndIdGreaterThanOrderById(OrderStatus status, Long afterId, Pageable pageable);
+    
+    // Statistiques : [status, nombre, montant total, montant depuis :since] par statut, sans décompresser les lignes
+    @Query("SELECT a.status, COUNT(a), COALESCE(SUM(a.totalPrice), 0), " +
+           "COALESCE(SUM(CASE WHEN a.createdAt >= :since THEN a.totalPrice ELSE 0 END), 0) " +
+           "FROM ArchivedOrder a WHERE a.sellerId = :sellerId GROUP BY a.status")
+    List<Object[]> aggregateBySeller(@Param("sellerId") Long sellerId, @Param("since") LocalDateTime since);
+    
+    // [status, nombre, montant total, montant du jour, montant du mois]
+    @Query("SELECT a.status, COUNT(a), COALESCE(SUM(a.totalPrice), 0), " +
+           "COALESCE(SUM(CASE WHEN a.createdAt >= :dayStart THEN a.totalPrice ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN a.createdAt >= :monthStart THEN a.totalPrice ELSE 0 END), 0) " +
+           "FROM ArchivedOrder a GROUP BY a.status")
+    List<Object[]> aggregateAll(@Param("dayStart") LocalDateTime dayStart, @Param("monthStart") LocalDateTime monthStart);
+    
+    // Clients et vendeurs distincts sur les deux tables (une commande n'est jamais dans les deux)
+    @Query(value = "SELECT COUNT(*) FROM (SELECT client_id FROM orders UNION SELECT client_id FROM orders_archive) c",
+           nativeQuery = true)
+    long countDistinctClientsWithArchive();
+    
+    @Query(value = "SELECT COUNT(*) FROM (SELECT seller_id FROM orders UNION SELECT seller_id FROM orders_archive) s",
+           nativeQuery = true)
+    long countDistinctSellersWithArchive();
+}
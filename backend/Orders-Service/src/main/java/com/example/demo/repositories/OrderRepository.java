@@ -1,6 +1,9 @@
 package com.example.demo.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entities.Order;
@@ -9,6 +12,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -29,4 +33,28 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     // Recherche par date
     List<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Archivage : ids des commandes terminées plus anciennes que la date limite, par lots
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.createdAt < :before ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<OrderStatus> statuses,
+                                 @Param("before") LocalDateTime before,
+                                 Pageable pageable);
+    
+    // Commandes et lignes en une requête (items est EAGER : sinon un SELECT par commande)
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Export des achats livrés : parcours par clé (id), produits chargés ensuite pour la page
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsByStatusAfter(@Param("status") OrderStatus status,
+                                    @Param("afterId") Long afterId,
+                                    Pageable pageable);
+    
+    // [orderId, clientId, productId]
+    @Query("SELECT o.id, o.clientId, i.productId FROM Order o JOIN o.items i WHERE o.id IN :ids")
+    List<Object[]> findPurchaseRows(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,338 @@
+package com.example.demo.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dtos.AdminStatsDTO;
+import com.example.demo.dtos.DeliveredPurchaseDTO;
+import com.example.demo.dtos.OrderDTO;
+import com.example.demo.dtos.OrderItemDTO;
+import com.example.demo.dtos.SellerStatsDTO;
+import com.example.demo.entities.ArchivedOrder;
+import com.example.demo.entities.Order;
+import com.example.demo.enums.OrderStatus;
+import com.example.demo.repositories.ArchivedOrderRepository;
+import com.example.demo.repositories.OrderItemRepository;
+import com.example.demo.repositories.OrderRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archivage à froid des commandes terminées.
+ *
+ * Les commandes DELIVERED / CANCELLED / REJECTED plus anciennes que la rétention
+ * sont copiées dans orders_archive (lignes en JSON GZIP) puis supprimées des tables
+ * chaudes, par lots et chaque lot dans sa propre transaction. Les index de orders
+ * ne contiennent ainsi que les commandes récentes ou encore actives.
+ */
+@Service
+@Slf4j
+public class OrderArchiveService {
+    
+    private static final Set<OrderStatus> TERMINAL_STATUSES =
+        EnumSet.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED, OrderStatus.REJECTED);
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final TypeReference<List<OrderItemDTO>> ITEMS_TYPE = new TypeReference<>() {};
+    
+    // Insertion directe : l'id est celui de la commande, un saveAll ferait un merge (SELECT) par ligne
+    private static final String INSERT_ARCHIVE_SQL =
+        "INSERT INTO orders_archive (id, client_id, seller_id, status, total_price, shipping_address, " +
+        "created_at, archive_month, archived_at, items_payload) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (id) DO NOTHING";
+    
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    
+    @Value("${orders.archive.retention-days:90}")
+    private int retentionDays;
+    
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+    
+    public OrderArchiveService(OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               ArchivedOrderRepository archivedOrderRepository,
+                               JdbcTemplate jdbcTemplate,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.archivedOrderRepository = archivedOrderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("orders.archive.archived")
+            .description("Commandes déplacées vers orders_archive")
+            .register(meterRegistry);
+    }
+    
+    // ==================== ARCHIVAGE ====================
+    
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void archiveScheduled() {
+        archiveTerminalOrders();
+    }
+    
+    public int archiveTerminalOrders() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        log.info("Archiving terminal orders created before {}", before);
+        
+        int total = 0;
+        while (true) {
+            Integer archived = transactionTemplate.execute(status -> archiveBatch(before));
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+            archivedCounter.increment(archived);
+            if (archived < batchSize) {
+                break;
+            }
+        }
+        
+        log.info("Archived {} orders", total);
+        return total;
+    }
+    
+    private int archiveBatch(LocalDateTime before) {
+        List<Long> ids = orderRepository.findArchivableIds(TERMINAL_STATUSES, before, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Order> batch = orderRepository.findWithItemsByIdIn(ids);
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedOrder> archived = batch.stream()
+            .map(order -> toArchive(order, now))
+            .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_ARCHIVE_SQL, archived, archived.size(), (ps, order) -> {
+            ps.setLong(1, order.getId());
+            ps.setLong(2, order.getClientId());
+            ps.setLong(3, order.getSellerId());
+            ps.setString(4, order.getStatus().name());
+            ps.setBigDecimal(5, order.getTotalPrice());
+            ps.setString(6, order.getShippingAddress());
+            ps.setTimestamp(7, order.getCreatedAt() != null ? Timestamp.valueOf(order.getCreatedAt()) : null);
+            ps.setString(8, order.getArchiveMonth());
+            ps.setTimestamp(9, Timestamp.valueOf(order.getArchivedAt()));
+            ps.setBytes(10, order.getItemsPayload());
+        });
+        
+        orderItemRepository.deleteByOrderIdIn(ids);
+        orderRepository.deleteByIdIn(ids);
+        return ids.size();
+    }
+    
+    // ==================== LECTURE ====================
+    
+    public Optional<OrderDTO> findArchivedOrder(Long id) {
+        return archivedOrderRepository.findById(id).map(this::mapToDTO);
+    }
+    
+    public List<OrderDTO> getArchivedClientOrders(Long clientId) {
+        return archivedOrderRepository.findByClientId(clientId)
+            .stream()
+            .map(this::mapToDTO)
+            .collect(Collectors.toList());
+    }
+    
+    public List<OrderDTO> getArchivedSellerOrders(Long sellerId) {
+        return archivedOrderRepository.findBySellerId(sellerId)
+            .stream()
+            .map(this::mapToDTO)
+            .collect(Collectors.toList());
+    }
+    
+    // Bornes de mois d'abord (index archive_month), puis dates exactes
+    public List<OrderDTO> getArchivedOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return archivedOrderRepository.findByArchiveMonthBetweenAndCreatedAtBetween(
+                startDate.format(MONTH_FORMAT), endDate.format(MONTH_FORMAT), startDate, endDate)
+            .stream()
+            .map(this::mapToDTO)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Recherche dans l'archive : le filtre le plus sélectif passe par un index, les autres
+     * sont appliqués en mémoire comme pour les tables actives.
+     */
+    public List<OrderDTO> searchArchivedOrders(Long orderId, Long clientId, Long sellerId,
+                                               OrderStatus status, String productName) {
+        List<ArchivedOrder> candidates;
+        if (orderId != null) {
+            candidates = archivedOrderRepository.findById(orderId).map(List::of).orElse(List.of());
+        } else if (clientId != null) {
+            candidates = archivedOrderRepository.findByClientId(clientId);
+        } else if (sellerId != null) {
+            candidates = archivedOrderRepository.findBySellerId(sellerId);
+        } else if (status != null) {
+            candidates = archivedOrderRepository.findByStatus(status);
+        } else {
+            candidates = archivedOrderRepository.findAll();
+        }
+        
+        return candidates.stream()
+            .filter(a -> clientId == null || a.getClientId().equals(clientId))
+            .filter(a -> sellerId == null || a.getSellerId().equals(sellerId))
+            .filter(a -> status == null || a.getStatus() == status)
+            .map(this::mapToDTO)
+            .filter(o -> productName == null || o.getItems().stream()
+                .anyMatch(item -> item.getProductName() != null
+                    && item.getProductName().toLowerCase().contains(productName.toLowerCase())))
+            .collect(Collectors.toList());
+    }
+    
+    // ==================== STATISTIQUES ====================
+    
+    /**
+     * Ajoute aux statistiques du vendeur (calculées sur orders) les commandes archivées,
+     * en une seule agrégation sur orders_archive.
+     */
+    public void addArchivedSellerStats(SellerStatsDTO stats, Long sellerId, LocalDateTime startOfMonth) {
+        long archivedOrders = 0L;
+        for (Object[] row : archivedOrderRepository.aggregateBySeller(sellerId, startOfMonth)) {
+            OrderStatus status = (OrderStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            archivedOrders += count;
+            if (status == OrderStatus.DELIVERED) {
+                stats.setDeliveredOrders(stats.getDeliveredOrders() + count);
+            } else if (status == OrderStatus.CANCELLED) {
+                stats.setCancelledOrders(stats.getCancelledOrders() + count);
+                continue;
+            }
+            stats.setTotalRevenue(stats.getTotalRevenue().add(toBigDecimal(row[2])));
+            stats.setMonthlyRevenue(stats.getMonthlyRevenue().add(toBigDecimal(row[3])));
+        }
+        stats.setTotalOrders(stats.getTotalOrders() + archivedOrders);
+        stats.setArchivedOrders(archivedOrders);
+    }
+    
+    public void addArchivedAdminStats(AdminStatsDTO stats, LocalDateTime startOfDay, LocalDateTime startOfMonth) {
+        long archivedOrders = 0L;
+        for (Object[] row : archivedOrderRepository.aggregateAll(startOfDay, startOfMonth)) {
+            OrderStatus status = (OrderStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            archivedOrders += count;
+            if (status == OrderStatus.CANCELLED) {
+                stats.setCancelledOrders(stats.getCancelledOrders() + count);
+                continue;
+            }
+            stats.setTotalRevenue(stats.getTotalRevenue().add(toBigDecimal(row[2])));
+            stats.setTodayRevenue(stats.getTodayRevenue().add(toBigDecimal(row[3])));
+            stats.setMonthRevenue(stats.getMonthRevenue().add(toBigDecimal(row[4])));
+        }
+        stats.setTotalOrders(stats.getTotalOrders() + archivedOrders);
+        stats.setArchivedOrders(archivedOrders);
+        if (archivedOrders > 0) {
+            stats.setTotalClients(archivedOrderRepository.countDistinctClientsWithArchive());
+            stats.setTotalSellers(archivedOrderRepository.countDistinctSellersWithArchive());
+        }
+    }
+    
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+    
+    /**
+     * Achats des commandes livrées archivées, par pages d'id croissants (afterId exclu).
+     */
+    public List<DeliveredPurchaseDTO> exportDeliveredPurchases(Long afterId, int size) {
+        return archivedOrderRepository.findByStatusAndIdGreaterThanOrderById(
+                OrderStatus.DELIVERED, afterId, PageRequest.of(0, size))
+            .stream()
+            .map(archived -> new DeliveredPurchaseDTO(
+                archived.getId(),
+                archived.getClientId(),
+                decompressItems(archived.getItemsPayload()).stream()
+                    .map(OrderItemDTO::getProductId)
+                    .distinct()
+                    .collect(Collectors.toList())))
+            .collect(Collectors.toList());
+    }
+    
+    // ==================== MAPPING ====================
+    
+    private ArchivedOrder toArchive(Order order, LocalDateTime archivedAt) {
+        List<OrderItemDTO> items = order.getItems() == null ? List.of() : order.getItems().stream()
+            .map(item -> new OrderItemDTO(item.getProductId(), item.getProductName(), item.getQuantity(), item.getPrice()))
+            .collect(Collectors.toList());
+        
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : archivedAt;
+        return new ArchivedOrder(
+            order.getId(),
+            order.getClientId(),
+            order.getSellerId(),
+            order.getStatus(),
+            order.getTotalPrice(),
+            order.getShippingAddress(),
+            order.getCreatedAt(),
+            createdAt.format(MONTH_FORMAT),
+            archivedAt,
+            compressItems(items)
+        );
+    }
+    
+    private OrderDTO mapToDTO(ArchivedOrder archived) {
+        return new OrderDTO(
+            archived.getId(),
+            archived.getClientId(),
+            archived.getSellerId(),
+            archived.getStatus(),
+            archived.getTotalPrice(),
+            archived.getShippingAddress(),
+            archived.getCreatedAt(),
+            decompressItems(archived.getItemsPayload())
+        );
+    }
+    
+    private byte[] compressItems(List<OrderItemDTO> items) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            objectMapper.writeValue(gzip, items);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress order items", e);
+        }
+        return buffer.toByteArray();
+    }
+    
+    private List<OrderItemDTO> decompressItems(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return List.of();
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return objectMapper.readValue(gzip, ITEMS_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived order items", e);
+        }
+    }
+}
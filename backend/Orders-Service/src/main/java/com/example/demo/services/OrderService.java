@@ -12,12 +12,16 @@ import org.springframework.transaction.annotation.Transactional;
 import com.example.demo.dtos.AdminStatsDTO;
 import com.example.demo.dtos.BulkStatusUpdateRequest;
 import com.example.demo.dtos.CreateOrderRequest;
+import com.example.demo.dtos.DeliveredPurchaseDTO;
 import com.example.demo.dtos.OrderDTO;
 import com.example.demo.dtos.OrderItemDTO;
+import com.example.demo.dtos.ReplicatedProduct;
 import com.example.demo.dtos.SellerStatsDTO;
 import com.example.demo.entities.Order;
 import com.example.demo.entities.OrderItem;
 import com.example.demo.enums.OrderStatus;
+import com.example.demo.exceptions.CatalogUnavailableException;
+import com.example.demo.kafka.producer.OrderEventsProducer;
 import com.example.demo.repositories.OrderItemRepository;
 import com.example.demo.repositories.OrderRepository;
 
@@ -37,6 +41,15 @@ public class OrderService {
     @Autowired
     private OrderItemRepository orderItemRepository;
     
+    @Autowired
+    private ProductCatalogReplica productCatalogReplica;
+    
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+    
+    @Autowired
+    private OrderEventsProducer orderEventsProducer;
+    
     // ==================== CRUD BASIQUE ====================
     
     public OrderDTO createOrder(CreateOrderRequest request) {
@@ -52,6 +65,9 @@ public class OrderService {
         order.setStatus(OrderStatus.PENDING);
         order.setShippingAddress(request.getShippingAddress());
         
+        // Prix et nom issus du réplica local du catalogue (Products-Service seulement en cas d'absence)
+        request.getItems().forEach(item -> applyCatalogData(item, request.getSellerId()));
+        
         BigDecimal total = request.getItems()
             .stream()
             .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
@@ -74,6 +90,7 @@ public class OrderService {
         
         orderItemRepository.saveAll(items);
         savedOrder.setItems(items);
+        orderEventsProducer.sendOrderPlacedAfterCommit(savedOrder);
         
         log.info("Order created successfully with id: {}", savedOrder.getId());
         return mapToDTO(savedOrder);
@@ -81,27 +98,35 @@ public class OrderService {
     
     public OrderDTO getOrderById(Long id) {
         log.info("Fetching order with id: {}", id);
-        Order order = orderRepository.findById(id)
+        return orderRepository.findById(id)
+            .map(this::mapToDTO)
+            // Commande terminée depuis longtemps : déplacée dans orders_archive
+            .or(() -> orderArchiveService.findArchivedOrder(id))
             .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
-        return mapToDTO(order);
     }
     
+    // Commandes actives puis commandes archivées (plus anciennes)
     public List<OrderDTO> getClientOrders(Long clientId) {
         log.info("Fetching orders for client: {}", clientId);
-        return orderRepository.findByClientId(clientId)
+        List<OrderDTO> orders = orderRepository.findByClientId(clientId)
             .stream()
             .map(this::mapToDTO)
             .collect(Collectors.toList());
+        orders.addAll(orderArchiveService.getArchivedClientOrders(clientId));
+        return orders;
     }
     
     public List<OrderDTO> getSellerOrders(Long sellerId) {
         log.info("Fetching orders for seller: {}", sellerId);
-        return orderRepository.findBySellerId(sellerId)
+        List<OrderDTO> orders = orderRepository.findBySellerId(sellerId)
             .stream()
             .map(this::mapToDTO)
             .collect(Collectors.toList());
+        orders.addAll(orderArchiveService.getArchivedSellerOrders(sellerId));
+        return orders;
     }
     
+    // Tables actives uniquement (commandes en cours et terminées récemment), comme les listes par statut ci-dessous
     public List<OrderDTO> getOrdersByStatus(OrderStatus status) {
         log.info("Fetching orders with status: {}", status);
         return orderRepository.findByStatus(status)
@@ -136,6 +161,9 @@ public class OrderService {
         
         order.setStatus(newStatus);
         orderRepository.save(order);
+        if (newStatus == OrderStatus.DELIVERED) {
+            orderEventsProducer.sendOrderDeliveredAfterCommit(order);
+        }
         
         log.info("Order status updated successfully");
         return mapToDTO(order);
@@ -241,6 +269,8 @@ public class OrderService {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         stats.setMonthlyRevenue(monthlyRevenue);
         
+        // Commandes terminées plus anciennes que la rétention : dans orders_archive
+        orderArchiveService.addArchivedSellerStats(stats, sellerId, startOfMonth);
         return stats;
     }
     
@@ -257,10 +287,15 @@ public class OrderService {
         
         order.setStatus(OrderStatus.DELIVERED);
         orderRepository.save(order);
+        orderEventsProducer.sendOrderDeliveredAfterCommit(order);
         log.info("Order {} marked as delivered", orderId);
         return mapToDTO(order);
     }
     
+    /**
+     * Historique paginé sur les tables actives ; les commandes archivées sont servies par
+     * GET /orders/client/{clientId}/archived.
+     */
     public Page<OrderDTO> getClientOrderHistory(Long clientId, int page, int size, String sortBy, String sortDir) {
         log.info("Fetching order history for client: {}", clientId);
         Sort.Direction direction = sortDir.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC;
@@ -272,6 +307,7 @@ public class OrderService {
     
     // ==================== ADMIN METHODS ====================
     
+    // Tables actives uniquement : les commandes archivées restent accessibles par /admin/search et par id
     public Page<OrderDTO> getAllOrdersFiltered(int page, int size, String sortBy, String sortDir, 
                                                OrderStatus status, Long clientId, Long sellerId) {
         log.info("Fetching all orders with filters");
@@ -297,6 +333,31 @@ public class OrderService {
         return orderPage.map(this::mapToDTO);
     }
     
+    /**
+     * Achats des commandes livrées (tables actives), par pages d'id croissants (afterId exclu).
+     */
+    @Transactional(readOnly = true)
+    public List<DeliveredPurchaseDTO> exportDeliveredPurchases(Long afterId, int size) {
+        List<Long> ids = orderRepository.findIdsByStatusAfter(OrderStatus.DELIVERED, afterId, PageRequest.of(0, size));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, DeliveredPurchaseDTO> byOrder = new LinkedHashMap<>();
+        ids.forEach(id -> byOrder.put(id, null));
+        for (Object[] row : orderRepository.findPurchaseRows(ids)) {
+            Long orderId = (Long) row[0];
+            DeliveredPurchaseDTO purchase = byOrder.get(orderId);
+            if (purchase == null) {
+                purchase = new DeliveredPurchaseDTO(orderId, (Long) row[1], new ArrayList<>());
+                byOrder.put(orderId, purchase);
+            }
+            if (!purchase.getProductIds().contains((Long) row[2])) {
+                purchase.getProductIds().add((Long) row[2]);
+            }
+        }
+        return byOrder.values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+    
     public AdminStatsDTO getAdminStats() {
         log.info("Calculating admin statistics");
         List<Order> allOrders = orderRepository.findAll();
@@ -330,15 +391,18 @@ public class OrderService {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         stats.setMonthRevenue(monthRevenue);
         
+        orderArchiveService.addArchivedAdminStats(stats, startOfDay, startOfMonth);
         return stats;
     }
     
     public List<OrderDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Fetching orders between {} and {}", startDate, endDate);
-        return orderRepository.findByCreatedAtBetween(startDate, endDate)
+        List<OrderDTO> orders = orderRepository.findByCreatedAtBetween(startDate, endDate)
             .stream()
             .map(this::mapToDTO)
             .collect(Collectors.toList());
+        orders.addAll(orderArchiveService.getArchivedOrdersByDateRange(startDate, endDate));
+        return orders;
     }
     
     public List<OrderDTO> searchOrders(Long orderId, Long clientId, Long sellerId, 
@@ -346,7 +410,7 @@ public class OrderService {
         log.info("Searching orders with advanced filters");
         List<Order> orders = orderRepository.findAll();
         
-        return orders.stream()
+        List<OrderDTO> results = orders.stream()
             .filter(o -> orderId == null || o.getId().equals(orderId))
             .filter(o -> clientId == null || o.getClientId().equals(clientId))
             .filter(o -> sellerId == null || o.getSellerId().equals(sellerId))
@@ -355,6 +419,8 @@ public class OrderService {
                 .anyMatch(item -> item.getProductName().toLowerCase().contains(productName.toLowerCase())))
             .map(this::mapToDTO)
             .collect(Collectors.toList());
+        results.addAll(orderArchiveService.searchArchivedOrders(orderId, clientId, sellerId, status, productName));
+        return results;
     }
     
     public Map<String, Object> bulkUpdateStatus(BulkStatusUpdateRequest request) {
@@ -384,6 +450,29 @@ public class OrderService {
     
     // ==================== VALIDATION PRIVÉE ====================
     
+    private void applyCatalogData(OrderItemDTO item, Long sellerId) {
+        if (item.getQuantity() == null || item.getQuantity() <= 0) {
+            throw new IllegalArgumentException("Invalid quantity for product " + item.getProductId());
+        }
+        
+        // Jamais le prix envoyé par le client : réplica, sinon lecture directe de Products-Service
+        ReplicatedProduct product = productCatalogReplica.findOrFetch(item.getProductId())
+            .orElseThrow(() -> new IllegalArgumentException("Unknown product: " + item.getProductId()));
+        if (product.getPrice() == null) {
+            throw new CatalogUnavailableException("Catalog not ready for product " + item.getProductId() + ", please retry");
+        }
+        if (!product.isOrderable()) {
+            throw new IllegalArgumentException("Product " + item.getProductId() + " is not available for ordering");
+        }
+        if (sellerId != null && product.getSellerId() != null && !sellerId.equals(product.getSellerId())) {
+            throw new IllegalArgumentException("Product " + item.getProductId() + " does not belong to seller " + sellerId);
+        }
+        item.setPrice(product.getPrice());
+        if (product.getName() != null) {
+            item.setProductName(product.getName());
+        }
+    }
+    
     private void validateStatusTransition(OrderStatus currentStatus, OrderStatus newStatus) {
         boolean isValid = false;
         String errorMessage = "";
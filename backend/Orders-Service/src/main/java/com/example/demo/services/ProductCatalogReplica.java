@@ -0,0 +1,377 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.demo.dtos.CatalogProductDTO;
+import com.example.demo.dtos.CatalogReplicaStatsDTO;
+import com.example.demo.dtos.ReplicatedProduct;
+import com.example.demo.exceptions.CatalogUnavailableException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Réplica local du catalogue produits, alimenté par les événements Kafka de Products-Service.
+ *
+ * Chaque entrée est immuable et remplacée atomiquement : la lecture depuis createOrder
+ * est un simple get sur une ConcurrentHashMap, sans appel réseau. Les événements sont
+ * appliqués en "last writer wins" sur le timestamp Kafka, ce qui rend l'ordre d'arrivée
+ * entre topics sans importance. Une suppression laisse une pierre tombale datée : un
+ * événement de création ou de mise à jour plus ancien, arrivé en retard, ne fait pas
+ * réapparaître le produit. Le contenu est sauvegardé sur disque pour un redémarrage
+ * rapide et peut être entièrement resynchronisé depuis Products-Service.
+ */
+@Service
+@Slf4j
+public class ProductCatalogReplica {
+
+    private static final int SNAPSHOT_MAGIC = 0x4F524350;
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final String PRODUCTS_URL = "http://PRODUCTS-SERVICE/products?page={page}&size={size}";
+    private static final String PRODUCT_URL = "http://PRODUCTS-SERVICE/products/{id}";
+
+    private final Map<Long, ReplicatedProduct> products = new ConcurrentHashMap<>();
+    // productId -> timestamp de suppression ; écrit et lu sous le verrou de products.compute
+    private final Map<Long, Long> tombstones = new ConcurrentHashMap<>();
+    private final RestTemplate restTemplate;
+    private final Path snapshotFile;
+    private final int resyncPageSize;
+    private final boolean resyncOnEmptyStart;
+    private final long tombstoneRetentionMs;
+
+    private final AtomicLong eventsApplied = new AtomicLong();
+    private final AtomicLong lastEventTimestamp = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean resyncInProgress = new AtomicBoolean();
+    private final Counter misses;
+    private final Counter fallbackLookups;
+
+    private volatile LocalDateTime lastSnapshotAt;
+    private volatile LocalDateTime lastResyncAt;
+
+    public ProductCatalogReplica(RestTemplate restTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${catalog.replica.snapshot-file:data/catalog-replica.bin}") String snapshotFile,
+                                 @Value("${catalog.replica.resync-page-size:500}") int resyncPageSize,
+                                 @Value("${catalog.replica.resync-on-empty-start:true}") boolean resyncOnEmptyStart,
+                                 @Value("${catalog.replica.tombstone-retention-ms:86400000}") long tombstoneRetentionMs) {
+        this.restTemplate = restTemplate;
+        this.snapshotFile = Paths.get(snapshotFile).toAbsolutePath().normalize();
+        this.resyncPageSize = resyncPageSize;
+        this.resyncOnEmptyStart = resyncOnEmptyStart;
+        this.tombstoneRetentionMs = tombstoneRetentionMs;
+
+        Gauge.builder("orders.catalog.replica.size", products, Map::size)
+                .description("Nombre de produits dans le réplica local")
+                .register(meterRegistry);
+        Gauge.builder("orders.catalog.replica.lag", lagMillis, AtomicLong::get)
+                .description("Délai entre la production du dernier événement et son application")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("orders.catalog.replica.events", eventsApplied, AtomicLong::get)
+                .description("Événements produits appliqués au réplica")
+                .register(meterRegistry);
+        this.misses = Counter.builder("orders.catalog.replica.misses")
+                .description("Produits demandés absents du réplica")
+                .register(meterRegistry);
+        this.fallbackLookups = Counter.builder("orders.catalog.replica.fallback.lookups")
+                .description("Produits absents du réplica chargés directement depuis Products-Service")
+                .register(meterRegistry);
+    }
+
+    // ==================== LECTURE ====================
+
+    public Optional<ReplicatedProduct> find(Long productId) {
+        ReplicatedProduct product = productId != null ? products.get(productId) : null;
+        if (product == null) {
+            misses.increment();
+        }
+        return Optional.ofNullable(product);
+    }
+
+    /**
+     * Lecture du réplica avec repli synchrone sur Products-Service en cas d'absence
+     * (produit créé juste avant, événement pas encore appliqué). Le produit chargé est
+     * ajouté au réplica avec un timestamp nul : tout événement ultérieur le remplace.
+     *
+     * @return vide si Products-Service ne connaît pas le produit
+     * @throws CatalogUnavailableException si Products-Service ne répond pas
+     */
+    public Optional<ReplicatedProduct> findOrFetch(Long productId) {
+        Optional<ReplicatedProduct> replicated = find(productId);
+        if (replicated.isPresent() || productId == null || tombstones.containsKey(productId)) {
+            return replicated;
+        }
+        fallbackLookups.increment();
+        CatalogProductDTO product;
+        try {
+            product = restTemplate.getForObject(PRODUCT_URL, CatalogProductDTO.class, productId);
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        } catch (RestClientException e) {
+            log.warn("Catalog lookup failed for product {}: {}", productId, e.getMessage());
+            throw new CatalogUnavailableException("Catalog not ready for product " + productId + ", please retry");
+        }
+        if (product == null) {
+            return Optional.empty();
+        }
+        ReplicatedProduct fetched = new ReplicatedProduct(productId, product.getName(), product.getPrice(),
+                product.getStatus(), product.getSellerId(), 0L);
+        return Optional.ofNullable(products.compute(productId, (id, existing) ->
+                existing != null || tombstones.containsKey(id) ? existing : fetched));
+    }
+
+    // ==================== APPLICATION DES ÉVÉNEMENTS ====================
+
+    public void applyUpsert(Long productId, String name, BigDecimal price, String status,
+                            Long sellerId, long timestamp) {
+        products.compute(productId, (id, existing) -> {
+            if (existing != null && existing.getUpdatedAt() > timestamp) {
+                return existing;
+            }
+            Long deletedAt = tombstones.get(id);
+            if (deletedAt != null && deletedAt >= timestamp) {
+                // Création ou mise à jour antérieure à la suppression, arrivée en retard
+                return existing;
+            }
+            return new ReplicatedProduct(
+                    id,
+                    name != null ? name : (existing != null ? existing.getName() : null),
+                    price != null ? price : (existing != null ? existing.getPrice() : null),
+                    status != null ? status : (existing != null ? existing.getStatus() : null),
+                    sellerId != null ? sellerId : (existing != null ? existing.getSellerId() : null),
+                    timestamp);
+        });
+        recordApplied(timestamp);
+    }
+
+    public void applyStatus(Long productId, String status, long timestamp) {
+        ReplicatedProduct updated = products.computeIfPresent(productId, (id, existing) ->
+                existing.getUpdatedAt() > timestamp ? existing : existing.withStatus(status, timestamp));
+        if (updated == null) {
+            // Produit inconnu (événement de création perdu) : sera rattrapé par une resynchronisation
+            log.warn("Status {} received for unknown product {} - replica may need a resync", status, productId);
+        }
+        recordApplied(timestamp);
+    }
+
+    public void applyDelete(Long productId, long timestamp) {
+        products.compute(productId, (id, existing) -> {
+            tombstones.merge(id, timestamp, Math::max);
+            return existing != null && existing.getUpdatedAt() > timestamp ? existing : null;
+        });
+        recordApplied(timestamp);
+    }
+
+    private void recordApplied(long timestamp) {
+        eventsApplied.incrementAndGet();
+        lastEventTimestamp.accumulateAndGet(timestamp, Math::max);
+        lagMillis.set(Math.max(0, System.currentTimeMillis() - timestamp));
+        dirty.set(true);
+    }
+
+    // ==================== RESYNCHRONISATION ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resyncIfEmpty() {
+        if (resyncOnEmptyStart && products.isEmpty()) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    resync();
+                } catch (Exception e) {
+                    log.warn("Initial catalog resync failed, replica will be filled by events: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Recharge l'intégralité du catalogue depuis Products-Service.
+     * Les événements plus récents que le début de la resynchronisation restent prioritaires.
+     */
+    public CatalogReplicaStatsDTO resync() {
+        if (!resyncInProgress.compareAndSet(false, true)) {
+            log.info("Catalog resync already in progress");
+            return getStats();
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            Set<Long> seen = new HashSet<>();
+            int page = 0;
+            log.info("Starting full catalog resync from Products-Service");
+
+            while (true) {
+                CatalogProductDTO[] batch = restTemplate.getForObject(
+                        PRODUCTS_URL, CatalogProductDTO[].class, page, resyncPageSize);
+                if (batch == null || batch.length == 0) {
+                    break;
+                }
+                for (CatalogProductDTO product : batch) {
+                    seen.add(product.getId());
+                    products.compute(product.getId(), (id, existing) -> {
+                        Long deletedAt = tombstones.get(id);
+                        if (existing != null && existing.getUpdatedAt() > startedAt
+                                || deletedAt != null && deletedAt > startedAt) {
+                            return existing;
+                        }
+                        return new ReplicatedProduct(id, product.getName(), product.getPrice(),
+                                product.getStatus(), product.getSellerId(), startedAt);
+                    });
+                }
+                if (batch.length < resyncPageSize) {
+                    break;
+                }
+                page++;
+            }
+
+            products.entrySet().removeIf(e ->
+                    !seen.contains(e.getKey()) && e.getValue().getUpdatedAt() < startedAt);
+            dirty.set(true);
+            lastResyncAt = LocalDateTime.now();
+            log.info("Catalog resync completed: {} products", products.size());
+            return getStats();
+        } catch (RestClientException e) {
+            throw new IllegalStateException("Catalog resync failed: " + e.getMessage(), e);
+        } finally {
+            resyncInProgress.set(false);
+        }
+    }
+
+    public CatalogReplicaStatsDTO getStats() {
+        long lastEvent = lastEventTimestamp.get();
+        return new CatalogReplicaStatsDTO(
+                products.size(),
+                eventsApplied.get(),
+                lagMillis.get(),
+                lastEvent > 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(lastEvent), ZoneId.systemDefault()) : null,
+                lastSnapshotAt,
+                lastResyncAt,
+                resyncInProgress.get());
+    }
+
+    // ==================== SNAPSHOT DISQUE ====================
+
+    @PostConstruct
+    public void loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            log.info("No catalog snapshot found at {}", snapshotFile);
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            int version;
+            if (in.readInt() != SNAPSHOT_MAGIC || (version = in.readInt()) < 1 || version > SNAPSHOT_VERSION) {
+                log.warn("Ignoring catalog snapshot with unknown format: {}", snapshotFile);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                String name = in.readUTF();
+                String price = in.readUTF();
+                String status = in.readUTF();
+                long sellerId = in.readLong();
+                long updatedAt = in.readLong();
+                products.put(id, new ReplicatedProduct(id, name,
+                        price.isEmpty() ? null : new BigDecimal(price),
+                        status.isEmpty() ? null : status,
+                        sellerId >= 0 ? sellerId : null,
+                        updatedAt));
+                lastEventTimestamp.accumulateAndGet(updatedAt, Math::max);
+            }
+            // Version 1 : pas de pierres tombales
+            int deleted = version >= 2 ? in.readInt() : 0;
+            for (int i = 0; i < deleted; i++) {
+                tombstones.put(in.readLong(), in.readLong());
+            }
+            log.info("Loaded {} products and {} tombstones from catalog snapshot", count, deleted);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load catalog snapshot, starting empty: {}", e.getMessage());
+            products.clear();
+            tombstones.clear();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.replica.snapshot-interval-ms:300000}")
+    public void snapshotIfDirty() {
+        // Au-delà de la rétention, plus aucun événement antérieur n'est attendu
+        long expiredBefore = System.currentTimeMillis() - tombstoneRetentionMs;
+        if (tombstones.values().removeIf(deletedAt -> deletedAt < expiredBefore)) {
+            dirty.set(true);
+        }
+        if (dirty.compareAndSet(true, false)) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        List<ReplicatedProduct> entries = new ArrayList<>(products.values());
+        List<Map.Entry<Long, Long>> deleted = new ArrayList<>(tombstones.entrySet());
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(entries.size());
+                for (ReplicatedProduct p : entries) {
+                    out.writeLong(p.getId());
+                    out.writeUTF(p.getName() != null ? p.getName() : "");
+                    out.writeUTF(p.getPrice() != null ? p.getPrice().toPlainString() : "");
+                    out.writeUTF(p.getStatus() != null ? p.getStatus() : "");
+                    out.writeLong(p.getSellerId() != null ? p.getSellerId() : -1L);
+                    out.writeLong(p.getUpdatedAt());
+                }
+                out.writeInt(deleted.size());
+                for (Map.Entry<Long, Long> tombstone : deleted) {
+                    out.writeLong(tombstone.getKey());
+                    out.writeLong(tombstone.getValue());
+                }
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            lastSnapshotAt = LocalDateTime.now();
+            log.debug("Catalog snapshot written: {} products", entries.size());
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Failed to write catalog snapshot to {}", snapshotFile, e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ProductImportConfig {
+
+    /**
+     * Imports en masse exécutés un par un (par défaut) : chaque job sature déjà
+     * la base avec ses lots JDBC, paralléliser n'apporterait que de la contention.
+     */
+    @Bean(name = "productImportExecutor")
+    public ThreadPoolTaskExecutor productImportExecutor(
+            @Value("${product.import.pool-size:1}") int poolSize,
+            @Value("${product.import.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.config;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index que Hibernate (ddl-auto) ne sait pas déclarer : index partiels notamment.
+ * Créés au démarrage s'ils manquent, en CONCURRENTLY pour ne pas bloquer les écritures,
+ * après le remplissage des colonnes ajoutées depuis (idempotent : lignes NULL seulement).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProductIndexInitializer implements ApplicationRunner {
+
+    private static final List<String> BACKFILLS = List.of(
+            // in_stock : estimation initiale depuis la quantité déclarée, corrigée par les événements stock-changed
+            "UPDATE products SET in_stock = (stock > 0) WHERE in_stock IS NULL",
+            // Chemin matérialisé : les catégories antérieures à l'arborescence sont toutes des racines
+            "UPDATE categories SET path = '/' || id || '/' WHERE path IS NULL AND parent_id IS NULL"
+    );
+
+    private static final List<String> INDEXES = List.of(
+            // File de modération : seules les lignes PENDING sont indexées, parcours par id décroissant
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_pending ON products (id) WHERE status = 'PENDING'",
+            // Listing des produits disponibles : un seul parcours de plage, déjà trié par date
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_status_in_stock_created ON products (status, in_stock, created_at)",
+            // Listing d'un sous-arbre de catégories : category_id IN (ids du sous-arbre en cache)
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_category_status_created ON products (category_id, status, created_at)",
+            // Déplacement d'une catégorie : réécriture des chemins par préfixe (LIKE '/1/5/%')
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_categories_path ON categories (path text_pattern_ops)",
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_categories_parent ON categories (parent_id)"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String sql : BACKFILLS) {
+            try {
+                int rows = jdbcTemplate.update(sql);
+                if (rows > 0) {
+                    log.info("{} lignes mises à jour ({})", rows, sql);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Remplissage impossible ({}): {}", sql, e.getMessage());
+            }
+        }
+        for (String ddl : INDEXES) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (DataAccessException e) {
+                log.warn("Création d'index impossible ({}): {}", ddl, e.getMessage());
+            }
+        }
+        log.info("{} index produits vérifiés", INDEXES.size());
+    }
+}
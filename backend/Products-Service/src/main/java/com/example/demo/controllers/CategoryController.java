@@ -3,6 +3,7 @@ package com.example.demo.controllers;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -15,9 +16,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.example.demo.dtos.CategoryDTO;
 import com.example.demo.dtos.CategoryRequestDTO;
+import com.example.demo.dtos.CategoryTreeDTO;
 import com.example.demo.services.CategoryService;
 
 import jakarta.validation.Valid;
@@ -59,20 +62,62 @@ public class CategoryController {
     @GetMapping
     public ResponseEntity<List<CategoryDTO>> getAllCategories(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest webRequest) {
         log.info("Récupération de toutes les catégories - page: {}, size: {}", page, size);
+        String etag = categoryService.getCategoryListETag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
         List<CategoryDTO> categories = categoryService.getAllCategories(page, size);
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(categories);
     }
 
     /**
      * PUBLIC - Récupérer toutes les catégories sans pagination (utile pour les dropdowns)
      */
     @GetMapping("/all")
-    public ResponseEntity<List<CategoryDTO>> getAllCategoriesNoPagination() {
+    public ResponseEntity<List<CategoryDTO>> getAllCategoriesNoPagination(WebRequest webRequest) {
         log.info("Récupération de toutes les catégories sans pagination");
+        String etag = categoryService.getCategoryListETag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
         List<CategoryDTO> categories = categoryService.getAllCategoriesNoPagination();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(categories);
+    }
+
+    /**
+     * PUBLIC - Arborescence complète des catégories (racines triées par nom, enfants imbriqués)
+     */
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryTreeDTO>> getCategoryTree(WebRequest webRequest) {
+        log.info("Récupération de l'arborescence des catégories");
+        String etag = categoryService.getCategoryListETag();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        List<CategoryTreeDTO> tree = categoryService.getCategoryTree();
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(tree);
+    }
+
+    /**
+     * PUBLIC - Sous-arbre d'une catégorie (elle-même et toutes ses sous-catégories)
+     */
+    @GetMapping("/{id}/subtree")
+    public ResponseEntity<CategoryTreeDTO> getCategorySubtree(@PathVariable Long id) {
+        log.info("Récupération du sous-arbre de la catégorie {}", id);
+        return ResponseEntity.ok(categoryService.getCategorySubtree(id));
+    }
+
+    /**
+     * ADMIN ONLY - Forcer le rechargement du cache des catégories
+     */
+    @PostMapping("/cache/invalidate")
+    public ResponseEntity<Void> invalidateCache() {
+        log.info("Invalidation du cache des catégories");
+        categoryService.invalidateCache();
+        return ResponseEntity.noContent().build();
     }
 
     /**
@@ -1,19 +1,33 @@
 package com.example.demo.controllers;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.demo.dtos.BulkModerationRequestDTO;
+import com.example.demo.dtos.BulkModerationResultDTO;
 import com.example.demo.dtos.CreateProductDTO;
 import com.example.demo.dtos.ProductDTO;
+import com.example.demo.dtos.ProductImportJobDTO;
+import com.example.demo.dtos.ProductSearchResultDTO;
 import com.example.demo.dtos.UpdateProductDTO;
 import com.example.demo.enums.ProductStatus;
+import com.example.demo.recommendations.RelatedProduct;
+import com.example.demo.services.ProductImportService;
+import com.example.demo.services.ProductModerationService;
+import com.example.demo.services.ProductSearchService;
 import com.example.demo.services.ProductService;
+import com.example.demo.services.RelatedProductsService;
+import com.example.demo.services.TrendingService;
+import com.example.demo.trending.TrendingProduct;
 import com.example.demo.services.FileStorageService;
 
 import jakarta.validation.Valid;
@@ -31,6 +45,21 @@ public class ProductController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductModerationService productModerationService;
+
+    @Autowired
+    private RelatedProductsService relatedProductsService;
+
+    @Autowired
+    private TrendingService trendingService;
+
     @PostMapping(consumes = {"multipart/form-data"})
     public ResponseEntity<ProductDTO> createProduct(
             @RequestParam("name") String name,
@@ -60,20 +89,164 @@ public class ProductController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProduct(@PathVariable Long id, WebRequest webRequest) {
         log.info("Récupération du produit avec ID: {}", id);
+        
+        // Validation conditionnelle avant tout chargement / mapping
+        long version = productService.getProductVersion(id);
+        String etag = "\"p" + id + "-" + version + "\"";
+        if (webRequest.checkNotModified(etag, version)) {
+            // Pas de chargement sur un 304 : vue comptée seulement si le cache connaît le produit approuvé
+            if (productService.getCachedStatus(id) == ProductStatus.APPROVED) {
+                trendingService.recordView(id);
+            }
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(version)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        
         ProductDTO product = productService.getProduct(id);
-        return ResponseEntity.ok(product);
+        if (product.getStatus() == ProductStatus.APPROVED) {
+            trendingService.recordView(id);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(version)
+                .cacheControl(CacheControl.noCache())
+                .body(product);
+    }
+
+    /**
+     * Trending products (decayed views and sales), refreshed every few seconds from memory
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingProduct>> getTrendingProducts(
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit <= 0 || limit > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(java.time.Duration.ofSeconds(30)))
+                .body(trendingService.getTrending(limit));
+    }
+
+    /**
+     * "Frequently bought together": served from the in-memory co-occurrence matrix
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedProduct>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit <= 0 || limit > 50) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(java.time.Duration.ofMinutes(5)))
+                .body(relatedProductsService.getRelated(id, limit));
     }
 
     @GetMapping
     public ResponseEntity<List<ProductDTO>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) ProductStatus status) {
+            @RequestParam(required = false) ProductStatus status,
+            WebRequest webRequest) {
         log.info("Récupération de tous les produits - page: {}, size: {}, status: {}", page, size, status);
+        
+        String etag = productService.getProductListETag(page, size, status);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        
         List<ProductDTO> products = productService.getAllProducts(page, size, status);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(products);
+    }
+
+    /**
+     * Approved products currently in stock (availability synced from Stock-Service)
+     */
+    @GetMapping("/available")
+    public ResponseEntity<List<ProductDTO>> getAvailableProducts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("Récupération des produits disponibles - page: {}, size: {}", page, size);
+        if (page < 0 || size <= 0 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getAvailableProducts(page, size));
+    }
+
+    /**
+     * Approved products of a category, including every subcategory unless includeSubcategories=false
+     */
+    @GetMapping("/category/{categoryId}")
+    public ResponseEntity<List<ProductDTO>> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "true") boolean includeSubcategories,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("Récupération des produits de la catégorie {} - page: {}, size: {}", categoryId, page, size);
+        if (page < 0 || size <= 0 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getProductsByCategory(categoryId, includeSubcategories, page, size));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchResultDTO> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) java.math.BigDecimal minPrice,
+            @RequestParam(required = false) java.math.BigDecimal maxPrice,
+            @RequestParam(required = false) ProductStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("Recherche de produits: '{}'", query);
+        if (page < 0 || size <= 0 || size > 100) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.searchProducts(query, categoryId, minPrice, maxPrice, status, page, size));
+    }
+
+    /**
+     * Rebuild the search index from the database (ADMIN only)
+     */
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() {
+        log.info("Admin rebuilding product search index");
+        int indexed = productSearchService.rebuild();
+        return ResponseEntity.ok(Map.of("indexedProducts", indexed));
+    }
+
+    // ========== BULK IMPORT ENDPOINTS ==========
+
+    /**
+     * Import en masse (CSV ou NDJSON) : colonnes name, description, price, stock, category ou categoryId.
+     * Le traitement est asynchrone, la progression se suit via GET /products/import/{jobId}.
+     */
+    @PostMapping(value = "/import", consumes = {"multipart/form-data"})
+    public ResponseEntity<ProductImportJobDTO> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestHeader("userId") Long sellerId) {
+        log.info("Import en masse demandé par le vendeur: {}", sellerId);
+        ProductImportJobDTO job = productImportService.submit(file, format, sellerId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ProductImportJobDTO> getImportJob(
+            @PathVariable String jobId,
+            @RequestHeader("userId") Long sellerId) {
+        return ResponseEntity.ok(productImportService.getJob(jobId, sellerId));
     }
 
     @GetMapping("/seller/{sellerId}")
@@ -95,18 +268,20 @@ public class ProductController {
         log.info("Mise à jour du produit {} par le vendeur: {}", id, sellerId);
         
         // Store new image if provided
+        String oldImageUrl = null;
         if (image != null && !image.isEmpty()) {
-            // Get old product to delete old image
-            ProductDTO oldProduct = productService.getProduct(id);
-            if (oldProduct.getImageUrl() != null) {
-                fileStorageService.deleteFile(oldProduct.getImageUrl());
-            }
+            // Get old product to release old image (after storing the new one: same content stays on disk)
+            oldImageUrl = productService.getProduct(id).getImageUrl();
             
             String fileName = fileStorageService.storeFile(image);
             dto.setImageUrl(fileName);
         }
         
         ProductDTO product = productService.updateProduct(id, dto, sellerId);
+        // Release the old image only once the update went through
+        if (oldImageUrl != null) {
+            fileStorageService.deleteFile(oldImageUrl);
+        }
         return ResponseEntity.ok(product);
     }
 
@@ -116,13 +291,13 @@ public class ProductController {
             @RequestHeader("userId") Long sellerId) {
         log.info("Suppression du produit {} par le vendeur: {}", id, sellerId);
         
-        // Get product to delete associated image
+        // Get product to delete associated image (released once the deletion went through)
         ProductDTO product = productService.getProduct(id);
+        
+        productService.deleteProduct(id, sellerId);
         if (product.getImageUrl() != null) {
             fileStorageService.deleteFile(product.getImageUrl());
         }
-        
-        productService.deleteProduct(id, sellerId);
         return ResponseEntity.noContent().build();
     }
     // ========== ADMIN MODERATION ENDPOINTS ==========
@@ -144,16 +319,41 @@ public class ProductController {
 
     
     /**
-     * Get all pending products (ADMIN only)
+     * Bulk approve pending products (ADMIN only)
+     */
+    @PostMapping("/moderation/approve")
+    // @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkModerationResultDTO> approveProducts(@Valid @RequestBody BulkModerationRequestDTO request) {
+        log.info("Admin bulk approving {} products", request.getProductIds().size());
+        return ResponseEntity.ok(productModerationService.approveAll(request.getProductIds()));
+    }
+    
+    /**
+     * Bulk reject pending products with a shared reason (ADMIN only)
+     */
+    @PostMapping("/moderation/reject")
+    // @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkModerationResultDTO> rejectProducts(@Valid @RequestBody BulkModerationRequestDTO request) {
+        log.info("Admin bulk rejecting {} products", request.getProductIds().size());
+        return ResponseEntity.ok(productModerationService.rejectAll(request.getProductIds(), request.getRejectionReason()));
+    }
+    
+    /**
+     * Get all pending products (ADMIN only).
+     * Keyset pagination: pass the id of the last product received as beforeId;
+     * page is kept for older clients and only used when beforeId is absent (same id DESC order).
      */
     @GetMapping("/pending")
     // @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<ProductDTO>> getPendingProducts(
+            @RequestParam(required = false) Long beforeId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        log.info("Fetching pending products for moderation");
-        List<ProductDTO> pending = productService.getAllProducts(page, size, ProductStatus.PENDING);
-        return ResponseEntity.ok(pending);
+        log.info("Fetching pending products for moderation (beforeId: {})", beforeId);
+        if (size <= 0 || size > 500 || page < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(productService.getPendingProducts(beforeId, page, size));
     }
     
 
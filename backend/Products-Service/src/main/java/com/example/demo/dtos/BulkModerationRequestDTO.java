@@ -0,0 +1,20 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkModerationRequestDTO {
+    @NotEmpty(message = "La liste des produits est requise")
+    @Size(max = 10000, message = "10000 produits maximum par requête")
+    private List<Long> productIds;
+    
+    private String rejectionReason; // rejet uniquement
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+import com.example.demo.enums.ProductStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkModerationResultDTO {
+    private ProductStatus status;
+    private int requested;
+    private int updated;
+    private List<Long> skippedIds; // inexistants ou déjà modérés
+}
@@ -1,5 +1,9 @@
 package com.example.demo.dtos;
 
+import java.util.Map;
+
+import com.example.demo.enums.ProductStatus;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,5 +15,9 @@ public class CategoryDTO {
     private Long id;
     private String name;
     private String description;
+    private Long parentId;
+    private String path;     // "/1/5/12/" : ids des ancêtres puis de la catégorie
+    private Integer depth;   // 0 pour une catégorie racine
     private Integer productCount; // Nombre de produits dans cette catégorie
+    private Map<ProductStatus, Long> productCountByStatus;
 }
\ No newline at end of file
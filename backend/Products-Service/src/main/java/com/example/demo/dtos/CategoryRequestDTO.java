@@ -17,4 +17,10 @@ public class CategoryRequestDTO {
     
     @Size(max = 500, message = "La description ne peut pas dépasser 500 caractères")
     private String description;
+    
+    // Catégorie parente (optionnelle) : null à la création pour une racine, à la mise à jour pour ne pas déplacer
+    private Long parentId;
+    
+    // Mise à jour uniquement : remonte la catégorie (et son sous-arbre) à la racine
+    private Boolean moveToRoot;
 }
\ No newline at end of file
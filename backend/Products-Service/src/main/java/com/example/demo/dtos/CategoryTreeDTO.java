@@ -0,0 +1,18 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTreeDTO {
+    private Long id;
+    private String name;
+    private Integer productCount;        // Produits rattachés directement à cette catégorie
+    private Integer subtreeProductCount; // Produits de la catégorie et de toutes ses sous-catégories
+    private List<CategoryTreeDTO> children;
+}
@@ -18,9 +18,14 @@ public class ProductDTO {
     private String description;
     private BigDecimal price;
     private Integer stock;
+    private Boolean inStock;
     private Long sellerId;
     private Long categoryId;
     private String imageUrl;
+    private String thumbnailUrl; // À utiliser pour les listes (tuiles ~200px)
+    private String mediumUrl;
+    private String largeUrl;
     private ProductStatus status;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.demo.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.demo.enums.ImportJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJobDTO {
+    private String jobId;
+    private Long sellerId;
+    private String format;
+    private ImportJobStatus status;
+    private long processedRows;
+    private long importedRows;
+    private long rejectedRows;
+    private List<String> errors; // premières erreurs seulement (ligne + motif)
+    private String failureReason;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private List<ProductDTO> products;  // Triés par pertinence
+    private long totalHits;
+    private int page;
+    private int size;
+}
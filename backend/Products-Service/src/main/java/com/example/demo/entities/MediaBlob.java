@@ -0,0 +1,38 @@
+package com.example.demo.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fichier stocké par contenu : la clé est le SHA-256 du fichier,
+ * refCount le nombre de produits qui y font référence.
+ */
+@Entity
+@Table(name = "media_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlob {
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 32)
+    private String extension;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -41,6 +41,20 @@ public class Product {
     @Column(name = "image_url")
     private String imageUrl;
     
+    // Variantes JPEG générées en arrière-plan (null tant que le traitement n'est pas terminé)
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+    
+    @Column(name = "medium_url")
+    private String mediumUrl;
+    
+    @Column(name = "large_url")
+    private String largeUrl;
+    
+    // Disponibilité réelle, tenue à jour par les événements stock-changed de Stock-Service
+    @Column(name = "in_stock")
+    private Boolean inStock;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private ProductStatus status;
@@ -48,11 +62,23 @@ public class Product {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Null pour les produits jamais modifiés (version = COALESCE(updated_at, created_at))
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
     
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         status = ProductStatus.PENDING;
+        if (inStock == null) {
+            inStock = stock != null && stock > 0; // en attendant le premier événement de stock
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.demo.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Score "tendance" sauvegardé périodiquement (écriture groupée en JDBC),
+ * relu au démarrage et vieilli selon updatedAt.
+ */
+@Entity
+@Table(name = "product_trending_scores")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductTrendingScore {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
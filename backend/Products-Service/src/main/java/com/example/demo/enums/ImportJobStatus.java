@@ -0,0 +1,8 @@
+package com.example.demo.enums;
+
+public enum ImportJobStatus {
+    QUEUED,       // En attente d'un worker
+    RUNNING,      // Lecture et insertion en cours
+    COMPLETED,    // Fichier entièrement traité (des lignes ont pu être rejetées)
+    FAILED,       // Erreur bloquante (fichier illisible, base indisponible)
+}
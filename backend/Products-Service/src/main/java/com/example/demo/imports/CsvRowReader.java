@@ -0,0 +1,152 @@
+package com.example.demo.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecteur CSV (RFC 4180) : séparateur virgule ou point-virgule détecté sur l'en-tête,
+ * champs entre guillemets, guillemets doublés et retours à la ligne dans un champ.
+ */
+public class CsvRowReader implements ImportRowReader {
+
+    private final Reader reader;
+    private final List<String> header;
+    private final char separator;
+    private long line;
+    private int pushback = -1;
+
+    public CsvRowReader(Reader reader) throws IOException {
+        this.reader = reader;
+        String firstLine = readRawLine();
+        if (firstLine == null) {
+            throw new IOException("Fichier CSV vide");
+        }
+        this.separator = firstLine.indexOf(';') >= 0 && firstLine.indexOf(',') < 0 ? ';' : ',';
+        this.header = new ArrayList<>();
+        for (String column : splitSimple(stripBom(firstLine))) {
+            header.add(column.trim().toLowerCase());
+        }
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isBlank()); // lignes vides ignorées
+
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size() && i < fields.size(); i++) {
+            row.put(header.get(i), fields.get(i));
+        }
+        return row;
+    }
+
+    @Override
+    public long lineNumber() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        line++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Guillemet non fermé à la ligne " + line);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n' && next != -1) {
+                    pushback = next;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private String readRawLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                sb.append((char) c);
+            }
+        }
+        if (c == -1 && sb.length() == 0) {
+            return null;
+        }
+        line++;
+        return sb.toString();
+    }
+
+    private List<String> splitSimple(String headerLine) {
+        List<String> columns = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= headerLine.length(); i++) {
+            if (i == headerLine.length() || headerLine.charAt(i) == separator) {
+                columns.add(headerLine.substring(start, i).replace("\"", ""));
+                start = i + 1;
+            }
+        }
+        return columns;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -1) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private static String stripBom(String s) {
+        return !s.isEmpty() && s.charAt(0) == '\uFEFF' ? s.substring(1) : s;
+    }
+}
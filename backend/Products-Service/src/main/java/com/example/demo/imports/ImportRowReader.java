@@ -0,0 +1,18 @@
+package com.example.demo.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Lecture ligne à ligne d'un fichier d'import : une seule ligne en mémoire à la fois.
+ * Les clés sont les noms de colonnes en minuscules.
+ */
+public interface ImportRowReader extends Closeable {
+
+    /** Ligne suivante, ou null en fin de fichier. */
+    Map<String, String> next() throws IOException;
+
+    /** Numéro (1-based) de la dernière ligne lue dans le fichier source. */
+    long lineNumber();
+}
@@ -0,0 +1,67 @@
+package com.example.demo.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Lecteur NDJSON : un objet JSON par ligne, valeurs scalaires converties en texte
+ * pour passer par la même validation que le CSV.
+ */
+public class NdjsonRowReader implements ImportRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    public NdjsonRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Map<String, String> next() throws IOException {
+        String raw;
+        do {
+            raw = reader.readLine();
+            if (raw == null) {
+                return null;
+            }
+            line++;
+        } while (raw.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(raw);
+        } catch (IOException e) {
+            // Ligne invalide : rejetée par la validation, le reste du fichier continue
+            return Map.of();
+        }
+        Map<String, String> row = new HashMap<>();
+        if (node != null && node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!field.getValue().isNull()) {
+                    row.put(field.getKey().toLowerCase(), field.getValue().asText());
+                }
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public long lineNumber() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.kafka.consumer;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.events.CategoryCountChangedEvent;
+import com.example.demo.services.CategoryCatalogCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deltas des compteurs de catégories diffusés par les autres instances : un groupId par
+ * instance, lecture depuis la fin du topic (le cache est rechargé depuis la base au démarrage).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryCountListener {
+
+    private final CategoryCatalogCache categoryCatalogCache;
+
+    @KafkaListener(
+            topics = CategoryCatalogCache.COUNT_TOPIC,
+            groupId = "${category.cache.group-id:products-categories-${HOSTNAME:local}}",
+            properties = {"auto.offset.reset=latest"})
+    public void handleCountChange(CategoryCountChangedEvent event) {
+        categoryCatalogCache.onRemoteCountChange(event);
+    }
+}
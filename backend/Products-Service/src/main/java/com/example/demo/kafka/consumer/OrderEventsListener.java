@@ -0,0 +1,31 @@
+package com.example.demo.kafka.consumer;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.events.OrderPlacedEvent;
+import com.example.demo.services.TrendingService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * order-placed alimente le classement tendance : groupId partagé, chaque instance reçoit
+ * sa part des ventes comme elle reçoit sa part des vues.
+ * order-delivered est lu par {@link OrderDeliveredListener}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderEventsListener {
+
+    private final TrendingService trendingService;
+
+    @KafkaListener(topics = "order-placed", groupId = "${trending.group-id:products-trending}")
+    public void handleOrderPlaced(OrderPlacedEvent event) {
+        log.debug("📬 Commande passée reçue: {}", event.getOrderId());
+        if (event.getProductIds() != null) {
+            trendingService.recordSales(event.getProductIds());
+        }
+    }
+}
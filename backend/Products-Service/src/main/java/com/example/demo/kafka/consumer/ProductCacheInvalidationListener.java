@@ -0,0 +1,31 @@
+package com.example.demo.kafka.consumer;
+
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.events.ProductCacheInvalidationEvent;
+import com.example.demo.services.ProductDetailCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Diffusion des invalidations : un groupId par instance pour que chaque réplica
+ * reçoive tous les messages, et lecture depuis la fin du topic uniquement
+ * (un cache vide au démarrage n'a rien à invalider).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheInvalidationListener {
+
+    private final ProductDetailCache productDetailCache;
+
+    @KafkaListener(
+            topics = ProductDetailCache.INVALIDATION_TOPIC,
+            groupId = "${product.cache.group-id:products-cache-${HOSTNAME:local}}",
+            properties = {"auto.offset.reset=latest"})
+    public void handleInvalidation(ProductCacheInvalidationEvent event) {
+        productDetailCache.onRemoteInvalidation(event);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.kafka.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.events.StockChangedEvent;
+import com.example.demo.services.ProductAvailabilityService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Synchronisation de la disponibilité depuis Stock-Service. Groupe partagé par toutes
+ * les instances : chaque variation n'est appliquée qu'une fois en base.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockEventsListener {
+
+    private final ProductAvailabilityService productAvailabilityService;
+
+    @KafkaListener(
+            topics = "stock-changed",
+            groupId = "${product.stock-sync.group-id:products-stock-sync}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleStockChanges(List<ConsumerRecord<String, Object>> records) {
+        List<StockChangedEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof StockChangedEvent event) {
+                events.add(event);
+            } else {
+                // Message illisible (ErrorHandlingDeserializer) ou d'un autre type : ignoré
+                log.warn("Message stock-changed ignoré (offset {}, partition {})", record.offset(), record.partition());
+            }
+        }
+        productAvailabilityService.applyStockChanges(events);
+    }
+}
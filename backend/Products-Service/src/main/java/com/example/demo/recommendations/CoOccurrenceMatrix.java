@@ -0,0 +1,393 @@
+package com.example.demo.recommendations;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Matrice de co-occurrence creuse "achetés ensemble", en tableaux primitifs.
+ *
+ * Chaque produit possède une ligne de K voisins au plus (identifiant + score), stockée dans
+ * deux grands tableaux contigus (long[] / float[]) indexés par numéro de ligne ; la table
+ * productId -> ligne est en adressage ouvert sur des long, sans objet par entrée.
+ * Une ligne pleine applique Space-Saving : le voisin au score minimal est remplacé et le
+ * nouveau venu hérite de ce score, ce qui borne l'erreur sans jamais dépasser K entrées.
+ * {@link #prune} applique une décroissance, retire les scores trop faibles et compacte.
+ *
+ * Mémoire, avec K voisins par produit :
+ *   ligne  = K x (8 + 4) octets + 1 (longueur) + 8 (productId inverse)
+ *   table  = 2 à 4 emplacements x (8 + 4) octets (facteur de charge 0,25 à 0,5)
+ * soit ~225 à 250 Mo par million de produits pour K = 16 (~420 à 440 Mo pour K = 32), plus
+ * une marge de croissance de 50 % au plus sur les tableaux de lignes. Au-delà de maxProducts,
+ * les nouveaux produits sont ignorés jusqu'au prochain élagage : l'empreinte reste bornée.
+ *
+ * Thread-safe : lectures concurrentes, écritures exclusives.
+ */
+public class CoOccurrenceMatrix {
+
+    private static final int SNAPSHOT_MAGIC = 0x434F4F43;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int INITIAL_ROWS = 1024;
+
+    private final int neighborsPerProduct;
+    private final int maxProducts;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Table productId -> ligne (sondage linéaire, -1 = libre)
+    private long[] keys;
+    private int[] rowOf;
+    private int mask;
+
+    // Lignes : neighborsPerProduct emplacements consécutifs par produit
+    private long[] rowProduct;
+    private byte[] lengths;
+    private long[] neighbors;
+    private float[] scores;
+    private int rows;
+
+    public CoOccurrenceMatrix(int neighborsPerProduct, int maxProducts) {
+        if (neighborsPerProduct <= 0 || neighborsPerProduct > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Nombre de voisins par produit invalide: " + neighborsPerProduct);
+        }
+        this.neighborsPerProduct = neighborsPerProduct;
+        this.maxProducts = maxProducts;
+        allocate(INITIAL_ROWS);
+    }
+
+    // ==================== ÉCRITURE ====================
+
+    /**
+     * Ajoute une commande : chaque paire de produits distincts gagne {@code weight}
+     * dans les deux sens. Le panier doit être déjà dédoublonné et borné par l'appelant.
+     */
+    public void recordBasket(long[] productIds, float weight) {
+        if (productIds.length < 2) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int[] basketRows = new int[productIds.length];
+            for (int i = 0; i < productIds.length; i++) {
+                basketRows[i] = rowFor(productIds[i], true);
+            }
+            for (int i = 0; i < productIds.length; i++) {
+                if (basketRows[i] < 0) {
+                    continue;
+                }
+                for (int j = 0; j < productIds.length; j++) {
+                    if (i != j) {
+                        increment(basketRows[i], productIds[j], weight);
+                    }
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire un produit (supprimé du catalogue) : sa ligne est vidée et il disparaît
+     * des lignes de ses voisins ; l'emplacement est récupéré au prochain élagage.
+     */
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            int row = rowFor(productId, false);
+            if (row < 0) {
+                return;
+            }
+            int base = row * neighborsPerProduct;
+            for (int i = 0; i < lengths[row]; i++) {
+                int neighborRow = rowFor(neighbors[base + i], false);
+                if (neighborRow >= 0) {
+                    removeEntry(neighborRow, productId);
+                }
+            }
+            lengths[row] = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vieillissement : scores multipliés par {@code decay}, entrées sous {@code minScore}
+     * supprimées, produits sans voisin retirés et tableaux recompactés.
+     *
+     * @return nombre de produits retirés
+     */
+    public int prune(float decay, float minScore) {
+        lock.writeLock().lock();
+        try {
+            int before = rows;
+            int kept = 0;
+            for (int row = 0; row < rows; row++) {
+                int base = row * neighborsPerProduct;
+                int length = 0;
+                for (int i = 0; i < lengths[row]; i++) {
+                    float score = scores[base + i] * decay;
+                    if (score >= minScore) {
+                        neighbors[base + length] = neighbors[base + i];
+                        scores[base + length] = score;
+                        length++;
+                    }
+                }
+                if (length == 0) {
+                    continue;
+                }
+                // Compactage en place : la ligne survivante descend au rang kept
+                if (kept != row) {
+                    int target = kept * neighborsPerProduct;
+                    System.arraycopy(neighbors, base, neighbors, target, length);
+                    System.arraycopy(scores, base, scores, target, length);
+                    rowProduct[kept] = rowProduct[row];
+                }
+                lengths[kept] = (byte) length;
+                kept++;
+            }
+            rows = kept;
+            if (kept < rowProduct.length / 4) {
+                growRows(Math.max(INITIAL_ROWS, kept + kept / 2));
+            }
+            rehash(Math.max(INITIAL_ROWS, kept));
+            return before - kept;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== LECTURE ====================
+
+    public List<RelatedProduct> related(long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            int row = rowFor(productId, false);
+            if (row < 0 || lengths[row] == 0) {
+                return List.of();
+            }
+            int base = row * neighborsPerProduct;
+            int length = lengths[row];
+            long[] ids = Arrays.copyOfRange(neighbors, base, base + length);
+            float[] values = Arrays.copyOfRange(scores, base, base + length);
+
+            // Sélection partielle : K est petit, inutile de trier toute la ligne
+            int count = Math.min(limit, length);
+            List<RelatedProduct> result = new ArrayList<>(count);
+            for (int n = 0; n < count; n++) {
+                int best = n;
+                for (int i = n + 1; i < length; i++) {
+                    if (values[i] > values[best]) {
+                        best = i;
+                    }
+                }
+                swap(ids, values, n, best);
+                result.add(new RelatedProduct(ids[n], values[n]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long rowCapacity = rowProduct.length;
+            return keys.length * (8L + 4L) + rowCapacity * (8L + 1L + neighborsPerProduct * (8L + 4L));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            int live = 0;
+            for (int row = 0; row < rows; row++) {
+                if (lengths[row] > 0) {
+                    live++;
+                }
+            }
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(live);
+            for (int row = 0; row < rows; row++) {
+                if (lengths[row] == 0) {
+                    continue;
+                }
+                int base = row * neighborsPerProduct;
+                out.writeLong(rowProduct[row]);
+                out.writeByte(lengths[row]);
+                for (int i = 0; i < lengths[row]; i++) {
+                    out.writeLong(neighbors[base + i]);
+                    out.writeFloat(scores[base + i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Relit un snapshot ; si K a diminué depuis l'écriture, seuls les meilleurs voisins sont gardés.
+     */
+    public static CoOccurrenceMatrix readFrom(DataInput in, int neighborsPerProduct, int maxProducts) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Format de snapshot inconnu");
+        }
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(neighborsPerProduct, maxProducts);
+        int count = in.readInt();
+        for (int r = 0; r < count; r++) {
+            long productId = in.readLong();
+            int length = in.readUnsignedByte();
+            long[] ids = new long[length];
+            float[] values = new float[length];
+            for (int i = 0; i < length; i++) {
+                ids[i] = in.readLong();
+                values[i] = in.readFloat();
+            }
+            int row = matrix.rowFor(productId, true);
+            if (row < 0) {
+                continue;
+            }
+            // Insertion par score décroissant : la ligne ne déborde jamais sur Space-Saving
+            int kept = Math.min(length, neighborsPerProduct);
+            for (int n = 0; n < kept; n++) {
+                int best = n;
+                for (int i = n + 1; i < length; i++) {
+                    if (values[i] > values[best]) {
+                        best = i;
+                    }
+                }
+                swap(ids, values, n, best);
+                matrix.increment(row, ids[n], values[n]);
+            }
+        }
+        return matrix;
+    }
+
+    // ==================== STRUCTURES INTERNES ====================
+
+    private void increment(int row, long neighbor, float weight) {
+        int base = row * neighborsPerProduct;
+        int length = lengths[row];
+        int min = -1;
+        for (int i = 0; i < length; i++) {
+            if (neighbors[base + i] == neighbor) {
+                scores[base + i] += weight;
+                return;
+            }
+            if (min < 0 || scores[base + i] < scores[base + min]) {
+                min = i;
+            }
+        }
+        if (length < neighborsPerProduct) {
+            neighbors[base + length] = neighbor;
+            scores[base + length] = weight;
+            lengths[row] = (byte) (length + 1);
+        } else {
+            // Space-Saving : remplace le plus faible, qui transmet son score
+            neighbors[base + min] = neighbor;
+            scores[base + min] += weight;
+        }
+    }
+
+    private void removeEntry(int row, long neighbor) {
+        int base = row * neighborsPerProduct;
+        int length = lengths[row];
+        for (int i = 0; i < length; i++) {
+            if (neighbors[base + i] == neighbor) {
+                neighbors[base + i] = neighbors[base + length - 1];
+                scores[base + i] = scores[base + length - 1];
+                lengths[row] = (byte) (length - 1);
+                return;
+            }
+        }
+    }
+
+    private int rowFor(long productId, boolean create) {
+        int slot = slot(productId);
+        while (rowOf[slot] >= 0) {
+            if (keys[slot] == productId) {
+                return rowOf[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create || rows >= maxProducts) {
+            return -1;
+        }
+        if (rows == rowProduct.length) {
+            growRows(rows + rows / 2);
+        }
+        int row = rows++;
+        rowProduct[row] = productId;
+        lengths[row] = 0;
+        keys[slot] = productId;
+        rowOf[slot] = row;
+        if (rows * 2 > keys.length) {
+            rehash(rows);
+        }
+        return row;
+    }
+
+    private int slot(long productId) {
+        long h = productId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int rowCapacity) {
+        rowProduct = new long[rowCapacity];
+        lengths = new byte[rowCapacity];
+        neighbors = new long[rowCapacity * neighborsPerProduct];
+        scores = new float[rowCapacity * neighborsPerProduct];
+        rows = 0;
+        rehash(rowCapacity);
+    }
+
+    private void growRows(int rowCapacity) {
+        rowProduct = Arrays.copyOf(rowProduct, rowCapacity);
+        lengths = Arrays.copyOf(lengths, rowCapacity);
+        neighbors = Arrays.copyOf(neighbors, rowCapacity * neighborsPerProduct);
+        scores = Arrays.copyOf(scores, rowCapacity * neighborsPerProduct);
+    }
+
+    // Table dimensionnée pour une charge de 0,5 au plus avec expectedRows lignes
+    private void rehash(int expectedRows) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedRows * 2 - 1)) << 1;
+        keys = new long[capacity];
+        rowOf = new int[capacity];
+        Arrays.fill(rowOf, -1);
+        mask = capacity - 1;
+        for (int row = 0; row < rows; row++) {
+            int slot = slot(rowProduct[row]);
+            while (rowOf[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = rowProduct[row];
+            rowOf[slot] = row;
+        }
+    }
+
+    private static void swap(long[] ids, float[] values, int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+    }
+}
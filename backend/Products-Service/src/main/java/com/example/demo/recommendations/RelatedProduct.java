@@ -0,0 +1,9 @@
+package com.example.demo.recommendations;
+
+import lombok.Value;
+
+@Value
+public class RelatedProduct {
+    long productId;
+    float score;
+}
@@ -1,8 +1,10 @@
 package com.example.demo.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,4 +22,25 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     // Compter les produits d'une catégorie de manière optimisée (sans charger tous les produits)
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
     Long countProductsByCategoryId(@Param("categoryId") Long categoryId);
+    
+    boolean existsByParentId(Long parentId);
+    
+    // Déplacement d'un sous-arbre : remplace le préfixe du chemin de tous les descendants en un seul UPDATE
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE categories SET path = :newPrefix || substring(path from :keepFrom) WHERE path LIKE :pattern",
+           nativeQuery = true)
+    int rewritePathPrefix(@Param("newPrefix") String newPrefix, @Param("keepFrom") int keepFrom,
+                          @Param("pattern") String pattern);
+    
+    // Verrou consultatif de transaction qui sérialise les modifications de l'arborescence
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) l", nativeQuery = true)
+    Integer lockTree(@Param("key") long key);
+    
+    // Chemin relu en base (après le verrou), pas celui du contexte de persistance
+    @Query(value = "SELECT path FROM categories WHERE id = :id", nativeQuery = true)
+    String findPathById(@Param("id") Long id);
+    
+    // Tous les compteurs en une seule requête : [categoryId, status, count]
+    @Query("SELECT p.category.id, p.status, COUNT(p) FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category.id, p.status")
+    List<Object[]> countProductsGroupedByCategoryAndStatus();
 }
\ No newline at end of file
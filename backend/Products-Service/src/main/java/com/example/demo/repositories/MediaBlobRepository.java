@@ -0,0 +1,34 @@
+package com.example.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.MediaBlob;
+
+@Repository
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+    // Crée le blob ou incrémente son compteur de références en une seule instruction (pas de course à l'insertion)
+    @Modifying
+    @Query(value = "INSERT INTO media_blobs (hash, extension, size_bytes, ref_count, created_at) " +
+                   "VALUES (:hash, :extension, :size, 1, now()) " +
+                   "ON CONFLICT (hash) DO UPDATE SET ref_count = media_blobs.ref_count + 1",
+           nativeQuery = true)
+    int acquire(@Param("hash") String hash, @Param("extension") String extension, @Param("size") long size);
+
+    // Extension retenue au premier dépôt : un même contenu n'a qu'un seul fichier sur disque
+    @Query("SELECT b.extension FROM MediaBlob b WHERE b.hash = :hash")
+    String findExtension(@Param("hash") String hash);
+
+    @Modifying
+    // Jamais sous zéro : une libération en trop ne peut pas effacer un fichier encore référencé
+    @Query("UPDATE MediaBlob b SET b.refCount = b.refCount - 1 WHERE b.hash = :hash AND b.refCount > 0")
+    int decrement(@Param("hash") String hash);
+
+    // Supprime la ligne seulement si plus aucun produit ne la référence ; retourne 1 si le fichier peut être effacé
+    @Modifying
+    @Query("DELETE FROM MediaBlob b WHERE b.hash = :hash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
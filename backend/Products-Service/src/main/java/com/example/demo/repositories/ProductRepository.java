@@ -1,9 +1,14 @@
 package com.example.demo.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entities.Product;
@@ -20,6 +25,41 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByStatus(ProductStatus status);
     
-    @Query("SELECT p FROM Product p WHERE p.status = 'APPROVED' AND p.stock > 0")
+    // File de modération par clé (index partiel idx_products_pending) : pas d'OFFSET
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.id < :beforeId ORDER BY p.id DESC")
+    List<Product> findByStatusBefore(@Param("status") ProductStatus status, @Param("beforeId") Long beforeId, Pageable pageable);
+    
+    // Produits approuvés d'un ensemble de catégories (sous-arbre résolu par le cache, idx_products_category_status_created)
+    @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND p.status = 'APPROVED'")
+    Page<Product> findApprovedByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds, Pageable pageable);
+    
+    // in_stock suit Stock-Service (la colonne stock n'est que la quantité déclarée à la création)
+    @Query("SELECT p FROM Product p WHERE p.status = 'APPROVED' AND p.inStock = true")
     Page<Product> findAvailableProducts(Pageable pageable);
+    
+    // Variantes d'image : ignoré si l'image a été remplacée entre-temps
+    @Modifying
+    @Query("UPDATE Product p SET p.thumbnailUrl = :thumbnail, p.mediumUrl = :medium, p.largeUrl = :large, " +
+           "p.updatedAt = :now WHERE p.id = :id AND p.imageUrl = :original")
+    int updateImageVariants(@Param("id") Long id, @Param("original") String original,
+                            @Param("thumbnail") String thumbnail, @Param("medium") String medium,
+                            @Param("large") String large, @Param("now") LocalDateTime now);
+    
+    // Version d'un produit pour son ETag (requête légère, sans mapping DTO)
+    @Query("SELECT COALESCE(p.updatedAt, p.createdAt) FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findVersionById(@Param("id") Long id);
+    
+    // Index de recherche : parcours par clé (id) avec la catégorie chargée
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findBatchWithCategory(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Créés ou modifiés depuis (updated_at est renseigné par toutes les écritures)
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE COALESCE(p.updatedAt, p.createdAt) > :since")
+    List<Product> findModifiedSinceWithCategory(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -0,0 +1,391 @@
+package com.example.demo.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur le nom, la description et la catégorie des produits.
+ *
+ * Chaque produit reçoit un docId interne ; les postings sont des tableaux d'int
+ * (docId, fréquence pondérée) en ajout seul. Une mise à jour supprime logiquement
+ * l'ancien docId (bitset) et en ajoute un nouveau ; l'index est compacté quand la
+ * proportion de docs supprimés devient trop importante. Le classement utilise BM25.
+ *
+ * Thread-safe : lectures concurrentes, écritures exclusives.
+ */
+public class ProductSearchIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x50534958;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // Poids des champs dans la fréquence du terme
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final double COMPACT_RATIO = 0.25;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "de", "des", "du", "un", "une", "et", "en", "pour", "avec", "sur", "au", "aux",
+            "the", "a", "an", "and", "of", "for", "with", "to", "in", "on");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docIdByProduct = new HashMap<>();
+    private final List<DocEntry> docs = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private long totalLength;
+
+    // ==================== ÉCRITURE ====================
+
+    public void index(SearchDocument doc) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        addTerms(termFreqs, doc.getName(), NAME_WEIGHT);
+        addTerms(termFreqs, doc.getCategoryName(), CATEGORY_WEIGHT);
+        addTerms(termFreqs, doc.getDescription(), DESCRIPTION_WEIGHT);
+        int length = termFreqs.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(doc.getProductId());
+            int docId = docs.size();
+            docs.add(new DocEntry(doc.getProductId(),
+                    doc.getCategoryId() != null ? doc.getCategoryId() : -1L,
+                    doc.getPrice(), (byte) doc.getStatus().ordinal(), length));
+            docIdByProduct.put(doc.getProductId(), docId);
+            totalLength += length;
+            termFreqs.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new Postings()).add(docId, tf));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long productId) {
+        Integer docId = docIdByProduct.remove(productId);
+        if (docId != null) {
+            deleted.set(docId);
+            totalLength -= docs.get(docId).length;
+            docs.set(docId, null);
+        }
+    }
+
+    // Réécrit les postings sans les docs supprimés, avec des docIds contigus
+    private void compactIfNeeded() {
+        int dead = deleted.cardinality();
+        if (dead < 1024 || dead < docs.size() * COMPACT_RATIO) {
+            return;
+        }
+        int[] remap = new int[docs.size()];
+        List<DocEntry> live = new ArrayList<>(docs.size() - dead);
+        for (int i = 0; i < docs.size(); i++) {
+            DocEntry entry = docs.get(i);
+            if (entry == null) {
+                remap[i] = -1;
+            } else {
+                remap[i] = live.size();
+                live.add(entry);
+            }
+        }
+        postings.values().removeIf(p -> p.compact(remap) == 0);
+        docs.clear();
+        docs.addAll(live);
+        deleted.clear();
+        docIdByProduct.clear();
+        for (int i = 0; i < docs.size(); i++) {
+            docIdByProduct.put(docs.get(i).productId, i);
+        }
+    }
+
+    // ==================== RECHERCHE ====================
+
+    public SearchResult search(String query, SearchFilter filter, int offset, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new SearchResult(0, Collections.emptyList());
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveCount = docIdByProduct.size();
+            if (liveCount == 0) {
+                return new SearchResult(0, Collections.emptyList());
+            }
+            float avgLength = (float) totalLength / liveCount;
+            float[] scores = new float[docs.size()];
+            BitSet matched = new BitSet(docs.size());
+
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                // Les postings gardent les docs supprimés jusqu'au compactage : seuls les vivants comptent
+                int docFreq = 0;
+                for (int i = 0; i < list.size; i++) {
+                    if (docs.get(list.docs[i]) != null) {
+                        docFreq++;
+                    }
+                }
+                double idf = Math.log(1 + (liveCount - docFreq + 0.5) / (docFreq + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int docId = list.docs[i];
+                    DocEntry entry = docs.get(docId);
+                    if (entry == null || !filter.accepts(entry.categoryId, entry.price, entry.status)) {
+                        continue;
+                    }
+                    int tf = list.freqs[i];
+                    float norm = K1 * (1 - B + B * entry.length / avgLength);
+                    scores[docId] += (float) (idf * (tf * (K1 + 1)) / (tf + norm));
+                    matched.set(docId);
+                }
+            }
+
+            // Top (offset + limit) par tas min
+            int wanted = offset + limit;
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(Math.max(1, wanted),
+                    (a, b) -> Float.compare(a.getScore(), b.getScore()));
+            for (int docId = matched.nextSetBit(0); docId >= 0; docId = matched.nextSetBit(docId + 1)) {
+                float score = scores[docId];
+                if (top.size() < wanted) {
+                    top.add(new SearchHit(docs.get(docId).productId, score));
+                } else if (wanted > 0 && score > top.peek().getScore()) {
+                    top.poll();
+                    top.add(new SearchHit(docs.get(docId).productId, score));
+                }
+            }
+
+            List<SearchHit> ranked = new ArrayList<>(top);
+            ranked.sort((a, b) -> Float.compare(b.getScore(), a.getScore()));
+            List<SearchHit> page = offset >= ranked.size()
+                    ? Collections.emptyList()
+                    : ranked.subList(offset, Math.min(ranked.size(), wanted));
+            return new SearchResult(matched.cardinality(), new ArrayList<>(page));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Copie des ids indexés (rapprochement avec la base)
+    public List<Long> productIds() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(docIdByProduct.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== ANALYSE ====================
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD))
+                .replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.length() >= 2 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTerms(Map<String, Integer> termFreqs, String text, int weight) {
+        for (String token : tokenize(text)) {
+            termFreqs.merge(token, weight, Integer::sum);
+        }
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            // Les docIds sont renumérotés pour ne pas écrire les docs supprimés
+            int[] remap = new int[docs.size()];
+            int next = 0;
+            for (int i = 0; i < docs.size(); i++) {
+                remap[i] = docs.get(i) == null ? -1 : next++;
+            }
+
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(next);
+            for (DocEntry entry : docs) {
+                if (entry != null) {
+                    out.writeLong(entry.productId);
+                    out.writeLong(entry.categoryId);
+                    out.writeDouble(entry.price);
+                    out.writeByte(entry.status);
+                    out.writeInt(entry.length);
+                }
+            }
+
+            Map<String, int[][]> livePostings = new LinkedHashMap<>();
+            for (Map.Entry<String, Postings> e : postings.entrySet()) {
+                int[][] pairs = e.getValue().remapped(remap);
+                if (pairs[0].length > 0) {
+                    livePostings.put(e.getKey(), pairs);
+                }
+            }
+            out.writeInt(livePostings.size());
+            for (Map.Entry<String, int[][]> e : livePostings.entrySet()) {
+                int[][] pairs = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeInt(pairs[0].length);
+                for (int i = 0; i < pairs[0].length; i++) {
+                    out.writeInt(pairs[0][i]);
+                    out.writeInt(pairs[1][i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static ProductSearchIndex readFrom(DataInput in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Format de snapshot inconnu");
+        }
+        ProductSearchIndex index = new ProductSearchIndex();
+        int docCount = in.readInt();
+        for (int i = 0; i < docCount; i++) {
+            DocEntry entry = new DocEntry(in.readLong(), in.readLong(), in.readDouble(), in.readByte(), in.readInt());
+            index.docs.add(entry);
+            index.docIdByProduct.put(entry.productId, i);
+            index.totalLength += entry.length;
+        }
+        int termCount = in.readInt();
+        for (int t = 0; t < termCount; t++) {
+            String term = in.readUTF();
+            int size = in.readInt();
+            Postings list = new Postings(size);
+            for (int i = 0; i < size; i++) {
+                list.add(in.readInt(), in.readInt());
+            }
+            index.postings.put(term, list);
+        }
+        return index;
+    }
+
+    // ==================== STRUCTURES INTERNES ====================
+
+    private static final class DocEntry {
+        final long productId;
+        final long categoryId;
+        final double price;
+        final byte status;
+        final int length;
+
+        DocEntry(long productId, long categoryId, double price, byte status, int length) {
+            this.productId = productId;
+            this.categoryId = categoryId;
+            this.price = price;
+            this.status = status;
+            this.length = length;
+        }
+    }
+
+    private static final class Postings {
+        int[] docs;
+        int[] freqs;
+        int size;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            docs = new int[Math.max(1, capacity)];
+            freqs = new int[Math.max(1, capacity)];
+        }
+
+        void add(int docId, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = docId;
+            freqs[size] = freq;
+            size++;
+        }
+
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int newId = remap[docs[i]];
+                if (newId >= 0) {
+                    docs[kept] = newId;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+
+        int[][] remapped(int[] remap) {
+            int[] newDocs = new int[size];
+            int[] newFreqs = new int[size];
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int newId = remap[docs[i]];
+                if (newId >= 0) {
+                    newDocs[kept] = newId;
+                    newFreqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            return new int[][] { Arrays.copyOf(newDocs, kept), Arrays.copyOf(newFreqs, kept) };
+        }
+    }
+}
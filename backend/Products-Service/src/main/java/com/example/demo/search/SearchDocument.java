@@ -0,0 +1,19 @@
+package com.example.demo.search;
+
+import com.example.demo.enums.ProductStatus;
+
+import lombok.Value;
+
+/**
+ * Vue d'un produit telle qu'indexée (capturée dans la transaction, appliquée après commit).
+ */
+@Value
+public class SearchDocument {
+    Long productId;
+    String name;
+    String description;
+    Long categoryId;
+    String categoryName;
+    double price;
+    ProductStatus status;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.search;
+
+import com.example.demo.enums.ProductStatus;
+
+import lombok.Value;
+
+/**
+ * Filtres appliqués pendant le parcours des postings (null = pas de filtre).
+ */
+@Value
+public class SearchFilter {
+    Long categoryId;
+    Double minPrice;
+    Double maxPrice;
+    ProductStatus status;
+
+    boolean accepts(long docCategoryId, double docPrice, byte docStatus) {
+        return (categoryId == null || categoryId == docCategoryId)
+                && (minPrice == null || docPrice >= minPrice)
+                && (maxPrice == null || docPrice <= maxPrice)
+                && (status == null || status.ordinal() == docStatus);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.search;
+
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class SearchResult {
+    long totalHits;
+    List<SearchHit> hits;
+}
@@ -0,0 +1,434 @@
+package com.example.demo.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.example.demo.dtos.CategoryDTO;
+import com.example.demo.dtos.CategoryTreeDTO;
+import com.example.demo.entities.Category;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.events.CategoryCountChangedEvent;
+import com.example.demo.repositories.CategoryRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache des catégories, de leur arborescence et de leurs compteurs de produits par statut.
+ *
+ * Chargé avec une seule requête GROUP BY, puis maintenu par deltas appliqués après
+ * commit depuis ProductService et CategoryService. Les deltas de compteurs sont aussi
+ * diffusés aux autres instances (topic category-count-changed, comme les invalidations
+ * de fiches produit). La liste complète est servie sans accès base ; un rechargement
+ * périodique corrige une éventuelle dérive (message perdu, modifications SQL directes).
+ *
+ * L'arbre est gardé sous forme parent -> enfants : un déplacement ne touche que le
+ * nœud déplacé, les chemins des descendants se déduisent en remontant les parents.
+ * Parcourir un sous-arbre coûte O(taille du sous-arbre), sans SQL récursif.
+ */
+@Service
+@Slf4j
+public class CategoryCatalogCache {
+
+    private static final int STATUS_COUNT = ProductStatus.values().length;
+    private static final Long ROOT = 0L;
+    private static final int MAX_DEPTH = 64; // garde-fou contre un cycle introduit hors application
+
+    public static final String COUNT_TOPIC = "category-count-changed";
+
+    private final CategoryRepository categoryRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Counter hits;
+    private final Counter loads;
+    private final Counter invalidations;
+
+    // Remplacées en bloc à chaque rechargement : les lecteurs ne voient jamais un état partiel
+    private volatile Map<Long, CategoryEntry> categories = new ConcurrentHashMap<>();
+    private volatile Map<Long, AtomicLongArray> counts = new ConcurrentHashMap<>();
+    private volatile Map<Long, Set<Long>> childrenByParent = new ConcurrentHashMap<>(); // racines sous la clé ROOT
+    private volatile List<CategoryEntry> sortedByName = List.of();
+    private volatile Map<String, Long> idsByName = Map.of(); // clé en minuscules, pour les imports
+    private volatile boolean loaded;
+    private volatile String listETag; // recalculé à la demande après chaque modification
+
+    public CategoryCatalogCache(CategoryRepository categoryRepository,
+                                KafkaProducerService kafkaProducerService,
+                                MeterRegistry meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.kafkaProducerService = kafkaProducerService;
+        this.hits = Counter.builder("products.category.cache.hits")
+                .description("Lectures de catégories servies depuis le cache")
+                .register(meterRegistry);
+        this.loads = Counter.builder("products.category.cache.loads")
+                .description("Chargements complets du cache depuis la base")
+                .register(meterRegistry);
+        this.invalidations = Counter.builder("products.category.cache.invalidations")
+                .description("Invalidations explicites du cache")
+                .register(meterRegistry);
+        Gauge.builder("products.category.cache.size", this, cache -> cache.categories.size())
+                .description("Nombre de catégories en cache")
+                .register(meterRegistry);
+    }
+
+    // ==================== LECTURE ====================
+
+    public List<CategoryDTO> getAll() {
+        ensureLoaded();
+        return sortedByName.stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    public List<CategoryDTO> getPage(int page, int size) {
+        ensureLoaded();
+        List<CategoryEntry> all = sortedByName;
+        int from = Math.min(page * size, all.size());
+        int to = Math.min(from + size, all.size());
+        return all.subList(from, to).stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    public Optional<CategoryDTO> get(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(categories.get(id)).map(this::toDTO);
+    }
+
+    public Optional<Long> findIdByName(String name) {
+        ensureLoaded();
+        return name == null ? Optional.empty() : Optional.ofNullable(idsByName.get(name.trim().toLowerCase()));
+    }
+
+    /**
+     * Ids de la catégorie et de tous ses descendants (parcours en largeur), vide si inconnue.
+     */
+    public List<Long> getSubtreeIds(Long id) {
+        ensureLoaded();
+        if (id == null || !categories.containsKey(id)) {
+            return List.of();
+        }
+        Map<Long, Set<Long>> children = childrenByParent;
+        List<Long> ids = new ArrayList<>();
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(id);
+        while (!queue.isEmpty()) {
+            Long current = queue.poll();
+            ids.add(current);
+            queue.addAll(children.getOrDefault(current, Set.of()));
+        }
+        return ids;
+    }
+
+    /**
+     * Chemin matérialisé ("/1/5/12/") reconstruit depuis les parents en cache.
+     */
+    public Optional<String> getPath(Long id) {
+        ensureLoaded();
+        return categories.containsKey(id) ? Optional.of(pathOf(id)) : Optional.empty();
+    }
+
+    public List<CategoryTreeDTO> getTree() {
+        ensureLoaded();
+        return childrenSortedByName(ROOT).stream().map(this::toTreeDTO).collect(Collectors.toList());
+    }
+
+    public Optional<CategoryTreeDTO> getSubtree(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(categories.get(id)).map(this::toTreeDTO);
+    }
+
+    /**
+     * ETag fort de la liste : empreinte MD5 du contenu en cache (identique sur toutes
+     * les instances pour un même état, contrairement à un compteur de version local).
+     */
+    public String getListETag() {
+        ensureLoaded();
+        String etag = listETag;
+        if (etag == null) {
+            StringBuilder content = new StringBuilder();
+            Map<Long, AtomicLongArray> currentCounts = counts;
+            for (CategoryEntry entry : sortedByName) {
+                content.append(entry.id).append('|').append(entry.name).append('|').append(entry.description)
+                        .append('|').append(entry.parentId);
+                AtomicLongArray values = currentCounts.get(entry.id);
+                for (int i = 0; i < STATUS_COUNT; i++) {
+                    content.append('|').append(values != null ? values.get(i) : 0L);
+                }
+                content.append('\n');
+            }
+            etag = "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+            listETag = etag;
+        }
+        return etag;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            hits.increment();
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                reload();
+            }
+        }
+    }
+
+    // ==================== CHARGEMENT ====================
+
+    public synchronized void reload() {
+        List<Category> all = categoryRepository.findAll(Sort.by("name").ascending());
+        List<Object[]> rows = categoryRepository.countProductsGroupedByCategoryAndStatus();
+
+        Map<Long, CategoryEntry> freshCategories = new ConcurrentHashMap<>();
+        Map<Long, AtomicLongArray> freshCounts = new ConcurrentHashMap<>();
+        Map<Long, Set<Long>> freshChildren = new ConcurrentHashMap<>();
+        for (Category category : all) {
+            CategoryEntry entry = toEntry(category);
+            freshCategories.put(entry.id, entry);
+            freshChildren.computeIfAbsent(parentKey(entry.parentId), k -> ConcurrentHashMap.newKeySet()).add(entry.id);
+        }
+        for (Object[] row : rows) {
+            Long categoryId = (Long) row[0];
+            ProductStatus status = (ProductStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            freshCounts.computeIfAbsent(categoryId, id -> new AtomicLongArray(STATUS_COUNT)).set(status.ordinal(), count);
+        }
+        categories = freshCategories;
+        counts = freshCounts;
+        childrenByParent = freshChildren;
+        resort();
+        listETag = null;
+        loaded = true;
+        loads.increment();
+        log.info("Cache des catégories chargé: {} catégories", categories.size());
+    }
+
+    @Scheduled(fixedDelayString = "${category.cache.refresh-ms:3600000}", initialDelayString = "${category.cache.refresh-ms:3600000}")
+    public void scheduledRefresh() {
+        if (loaded) {
+            reload();
+        }
+    }
+
+    public void invalidate() {
+        loaded = false;
+        invalidations.increment();
+        log.info("Cache des catégories invalidé");
+    }
+
+    // ==================== DELTAS PRODUITS ====================
+
+    public void productAdded(Long categoryId, ProductStatus status) {
+        productChanged(null, null, categoryId, status);
+    }
+
+    public void productRemoved(Long categoryId, ProductStatus status) {
+        productChanged(categoryId, status, null, null);
+    }
+
+    public void productChanged(Long oldCategoryId, ProductStatus oldStatus, Long newCategoryId, ProductStatus newStatus) {
+        if (Objects.equals(oldCategoryId, newCategoryId) && oldStatus == newStatus) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            move(oldCategoryId, oldStatus, newCategoryId, newStatus);
+            kafkaProducerService.sendCategoryCountChangedEvent(CategoryCountChangedEvent.builder()
+                    .oldCategoryId(oldCategoryId)
+                    .oldStatus(oldStatus != null ? oldStatus.name() : null)
+                    .newCategoryId(newCategoryId)
+                    .newStatus(newStatus != null ? newStatus.name() : null)
+                    .sourceInstance(instanceId)
+                    .build());
+        });
+    }
+
+    /**
+     * Delta reçu d'une autre instance (ses propres messages sont ignorés).
+     */
+    public void onRemoteCountChange(CategoryCountChangedEvent event) {
+        if (instanceId.equals(event.getSourceInstance())) {
+            return;
+        }
+        move(event.getOldCategoryId(), statusOf(event.getOldStatus()),
+                event.getNewCategoryId(), statusOf(event.getNewStatus()));
+    }
+
+    private void move(Long oldCategoryId, ProductStatus oldStatus, Long newCategoryId, ProductStatus newStatus) {
+        adjust(oldCategoryId, oldStatus, -1);
+        adjust(newCategoryId, newStatus, 1);
+    }
+
+    private static ProductStatus statusOf(String name) {
+        return name != null ? ProductStatus.valueOf(name) : null;
+    }
+
+    private synchronized void adjust(Long categoryId, ProductStatus status, int delta) {
+        if (!loaded || categoryId == null || status == null) {
+            return;
+        }
+        AtomicLongArray values = counters(categoryId);
+        if (values.addAndGet(status.ordinal(), delta) < 0) {
+            values.set(status.ordinal(), 0);
+        }
+        listETag = null;
+    }
+
+    // ==================== DELTAS CATÉGORIES ====================
+
+    public void categorySaved(Category category) {
+        CategoryEntry entry = toEntry(category);
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                if (loaded) {
+                    CategoryEntry previous = categories.put(entry.id, entry);
+                    if (previous != null) {
+                        detachFromParent(previous);
+                    }
+                    childrenByParent.computeIfAbsent(parentKey(entry.parentId), k -> ConcurrentHashMap.newKeySet()).add(entry.id);
+                    resort();
+                    listETag = null;
+                }
+            }
+        });
+    }
+
+    public void categoryDeleted(Long categoryId) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (this) {
+                CategoryEntry removed = categories.remove(categoryId);
+                if (removed != null) {
+                    detachFromParent(removed);
+                }
+                childrenByParent.remove(categoryId);
+                counts.remove(categoryId);
+                resort();
+                listETag = null;
+            }
+        });
+    }
+
+    // ==================== INTERNE ====================
+
+    private AtomicLongArray counters(Long categoryId) {
+        return counts.computeIfAbsent(categoryId, id -> new AtomicLongArray(STATUS_COUNT));
+    }
+
+    private void detachFromParent(CategoryEntry entry) {
+        Set<Long> siblings = childrenByParent.get(parentKey(entry.parentId));
+        if (siblings != null) {
+            siblings.remove(entry.id);
+        }
+    }
+
+    private static Long parentKey(Long parentId) {
+        return parentId != null ? parentId : ROOT;
+    }
+
+    private String pathOf(Long id) {
+        Deque<Long> ancestors = new ArrayDeque<>();
+        CategoryEntry current = categories.get(id);
+        while (current != null && ancestors.size() < MAX_DEPTH) {
+            ancestors.push(current.id);
+            current = current.parentId != null ? categories.get(current.parentId) : null;
+        }
+        StringBuilder path = new StringBuilder("/");
+        for (Long ancestor : ancestors) {
+            path.append(ancestor).append('/');
+        }
+        return path.toString();
+    }
+
+    private List<CategoryEntry> childrenSortedByName(Long parentId) {
+        List<CategoryEntry> children = new ArrayList<>();
+        for (Long childId : childrenByParent.getOrDefault(parentId, Set.of())) {
+            CategoryEntry child = categories.get(childId);
+            if (child != null) {
+                children.add(child);
+            }
+        }
+        children.sort(Comparator.comparing(c -> c.name, String.CASE_INSENSITIVE_ORDER));
+        return children;
+    }
+
+    private CategoryTreeDTO toTreeDTO(CategoryEntry entry) {
+        List<CategoryTreeDTO> children = childrenSortedByName(entry.id).stream()
+                .map(this::toTreeDTO)
+                .collect(Collectors.toList());
+        int own = (int) totalCount(entry.id);
+        int subtree = own + children.stream().mapToInt(CategoryTreeDTO::getSubtreeProductCount).sum();
+        return new CategoryTreeDTO(entry.id, entry.name, own, subtree, children);
+    }
+
+    private long totalCount(Long categoryId) {
+        AtomicLongArray values = counts.get(categoryId);
+        long total = 0;
+        for (int i = 0; values != null && i < STATUS_COUNT; i++) {
+            total += values.get(i);
+        }
+        return total;
+    }
+
+    private static CategoryEntry toEntry(Category category) {
+        // getId() sur le proxy parent ne déclenche pas de chargement
+        Long parentId = category.getParent() != null ? category.getParent().getId() : null;
+        return new CategoryEntry(category.getId(), category.getName(), category.getDescription(), parentId);
+    }
+
+    private void resort() {
+        List<CategoryEntry> sorted = new ArrayList<>(categories.values());
+        sorted.sort(Comparator.comparing(c -> c.name, String.CASE_INSENSITIVE_ORDER));
+        sortedByName = List.copyOf(sorted);
+        Map<String, Long> byName = new HashMap<>();
+        for (CategoryEntry entry : sorted) {
+            byName.putIfAbsent(entry.name.toLowerCase(), entry.id);
+        }
+        idsByName = Map.copyOf(byName);
+    }
+
+    private CategoryDTO toDTO(CategoryEntry entry) {
+        AtomicLongArray values = counts.get(entry.id);
+        Map<ProductStatus, Long> byStatus = new EnumMap<>(ProductStatus.class);
+        long total = 0;
+        for (ProductStatus status : ProductStatus.values()) {
+            long count = values != null ? values.get(status.ordinal()) : 0L;
+            byStatus.put(status, count);
+            total += count;
+        }
+        String path = pathOf(entry.id);
+        int depth = (int) path.chars().filter(c -> c == '/').count() - 2;
+        return new CategoryDTO(entry.id, entry.name, entry.description, entry.parentId, path, depth, (int) total, byStatus);
+    }
+
+    private static final class CategoryEntry {
+        final Long id;
+        final String name;
+        final String description;
+        final Long parentId;
+
+        CategoryEntry(Long id, String name, String description, Long parentId) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.parentId = parentId;
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package com.example.demo.services;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.dtos.CategoryDTO;
 import com.example.demo.dtos.CategoryRequestDTO;
+import com.example.demo.dtos.CategoryTreeDTO;
 import com.example.demo.entities.Category;
 import com.example.demo.repositories.CategoryRepository;
 
@@ -23,9 +20,14 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional
 public class CategoryService {
     
+    private static final long TREE_LOCK_KEY = 0x43415447L; // "CATG"
+    
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private CategoryCatalogCache categoryCatalogCache;
+    
     public CategoryDTO createCategory(CategoryRequestDTO dto) {
         log.info("Création d'une nouvelle catégorie: {}", dto.getName());
         
@@ -34,39 +36,51 @@ public class CategoryService {
             throw new RuntimeException("Une catégorie avec ce nom existe déjà");
         }
         
+        Category parent = findParent(dto.getParentId());
+        
         Category category = new Category();
         category.setName(dto.getName());
         category.setDescription(dto.getDescription());
+        category.setParent(parent);
+        if (parent != null) {
+            // Chemin du parent relu sous le verrou : il peut être en cours de déplacement
+            lockTree(parent);
+        }
         
+        // L'id (IDENTITY) n'est connu qu'après l'insertion : le chemin est posé ensuite, écrit au commit
         Category saved = categoryRepository.save(category);
-        log.info("Catégorie créée avec ID: {}", saved.getId());
+        saved.setPath(pathUnder(parent, saved.getId()));
+        log.info("Catégorie créée avec ID: {} (chemin {})", saved.getId(), saved.getPath());
+        categoryCatalogCache.categorySaved(saved);
         return convertToDTO(saved);
     }
     
     public CategoryDTO getCategory(Long id) {
         log.info("Récupération de la catégorie avec ID: {}", id);
-        Category category = categoryRepository.findById(id)
+        return categoryCatalogCache.get(id)
             .orElseThrow(() -> new RuntimeException("Catégorie non trouvée avec ID: " + id));
-        return convertToDTO(category);
     }
     
     public List<CategoryDTO> getAllCategories(int page, int size) {
         log.info("Récupération de toutes les catégories avec pagination");
-        Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        Page<Category> categories = categoryRepository.findAll(pageable);
-        
-        return categories.getContent().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return categoryCatalogCache.getPage(page, size);
+    }
+    
+    public List<CategoryTreeDTO> getCategoryTree() {
+        log.info("Récupération de l'arborescence des catégories");
+        return categoryCatalogCache.getTree();
+    }
+    
+    public CategoryTreeDTO getCategorySubtree(Long id) {
+        log.info("Récupération du sous-arbre de la catégorie {}", id);
+        return categoryCatalogCache.getSubtree(id)
+            .orElseThrow(() -> new RuntimeException("Catégorie non trouvée avec ID: " + id));
     }
     
     public List<CategoryDTO> getAllCategoriesNoPagination() {
         log.info("Récupération de toutes les catégories sans pagination");
-        List<Category> categories = categoryRepository.findAll(Sort.by("name").ascending());
-        
-        return categories.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // Servi depuis le cache (compteurs maintenus par deltas, aucun accès base)
+        return categoryCatalogCache.getAll();
     }
     
     public CategoryDTO updateCategory(Long id, CategoryRequestDTO dto) {
@@ -85,8 +99,21 @@ public class CategoryService {
         category.setName(dto.getName());
         category.setDescription(dto.getDescription());
         
+        // Déplacement explicite uniquement : parentId absent = parent inchangé
+        boolean moveToRoot = Boolean.TRUE.equals(dto.getMoveToRoot());
+        if (moveToRoot && dto.getParentId() != null) {
+            throw new RuntimeException("parentId et moveToRoot ne peuvent pas être utilisés ensemble");
+        }
+        Long currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        if (moveToRoot && currentParentId != null) {
+            move(category, null);
+        } else if (dto.getParentId() != null && !Objects.equals(currentParentId, dto.getParentId())) {
+            move(category, findParent(dto.getParentId()));
+        }
+        
         Category updated = categoryRepository.save(category);
         log.info("Catégorie {} mise à jour avec succès", id);
+        categoryCatalogCache.categorySaved(updated);
         return convertToDTO(updated);
     }
     
@@ -97,12 +124,81 @@ public class CategoryService {
             .orElseThrow(() -> new RuntimeException("Catégorie non trouvée avec ID: " + id));
         
         // Vérifier s'il y a des produits associés
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
+        Long productCount = categoryRepository.countProductsByCategoryId(id);
+        if (productCount != null && productCount > 0) {
             throw new RuntimeException("Impossible de supprimer une catégorie contenant des produits");
         }
         
+        if (categoryRepository.existsByParentId(id)) {
+            throw new RuntimeException("Impossible de supprimer une catégorie contenant des sous-catégories");
+        }
+        
         categoryRepository.delete(category);
         log.info("Catégorie {} supprimée avec succès", id);
+        categoryCatalogCache.categoryDeleted(id);
+    }
+    
+    public String getCategoryListETag() {
+        return categoryCatalogCache.getListETag();
+    }
+    
+    public void invalidateCache() {
+        categoryCatalogCache.invalidate();
+    }
+    
+    // ==================== ARBORESCENCE ====================
+    
+    private Category findParent(Long parentId) {
+        if (parentId == null) {
+            return null;
+        }
+        return categoryRepository.findById(parentId)
+            .orElseThrow(() -> new RuntimeException("Catégorie parente non trouvée avec ID: " + parentId));
+    }
+    
+    private String pathUnder(Category parent, Long id) {
+        String parentPath = parent != null ? pathOf(parent) : "/";
+        return parentPath + id + "/";
+    }
+    
+    private String pathOf(Category category) {
+        return category.getPath() != null ? category.getPath() : "/" + category.getId() + "/";
+    }
+    
+    /**
+     * Sérialise les modifications de l'arborescence (verrou consultatif jusqu'au commit) et
+     * relit les chemins des catégories données : deux déplacements croisés (A sous B, B sous A)
+     * ne peuvent plus passer tous deux le contrôle de cycle sur des chemins périmés.
+     */
+    private void lockTree(Category... categories) {
+        categoryRepository.lockTree(TREE_LOCK_KEY);
+        for (Category category : categories) {
+            if (category != null) {
+                String path = categoryRepository.findPathById(category.getId());
+                if (path != null) {
+                    category.setPath(path);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Déplace la catégorie et tout son sous-arbre sous un nouveau parent : le chemin du nœud
+     * est écrit d'abord, puis celui des descendants en un seul UPDATE par préfixe.
+     */
+    private void move(Category category, Category newParent) {
+        lockTree(category, newParent);
+        String oldPath = pathOf(category);
+        if (newParent != null && (newParent.getId().equals(category.getId()) || pathOf(newParent).startsWith(oldPath))) {
+            throw new RuntimeException("Impossible de déplacer une catégorie sous elle-même ou sous l'une de ses sous-catégories");
+        }
+        String newPath = pathUnder(newParent, category.getId());
+        category.setParent(newParent);
+        category.setPath(newPath);
+        categoryRepository.saveAndFlush(category);
+        
+        int descendants = categoryRepository.rewritePathPrefix(newPath, oldPath.length() + 1, oldPath + "%");
+        log.info("Catégorie {} déplacée de {} vers {} ({} sous-catégories)", category.getId(), oldPath, newPath, descendants);
     }
     
     private CategoryDTO convertToDTO(Category category) {
@@ -110,6 +206,9 @@ public class CategoryService {
         dto.setId(category.getId());
         dto.setName(category.getName());
         dto.setDescription(category.getDescription());
+        dto.setParentId(category.getParent() != null ? category.getParent().getId() : null);
+        dto.setPath(pathOf(category));
+        dto.setDepth((int) pathOf(category).chars().filter(c -> c == '/').count() - 2);
         
         // Compter le nombre de produits de manière optimisée (query COUNT au lieu de charger tous les produits)
         Long count = categoryRepository.countProductsByCategoryId(category.getId());
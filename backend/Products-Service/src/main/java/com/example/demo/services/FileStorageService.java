@@ -1,69 +1,207 @@
 package com.example.demo.services;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.demo.repositories.MediaBlobRepository;
+
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Stockage des images adressé par contenu.
+ *
+ * Le nom d'un fichier est le SHA-256 de son contenu (calculé pendant la copie) suivi de
+ * l'extension ; sur disque il est rangé sous deux niveaux de répertoires (ab/cd/abcd….jpg).
+ * Une image déjà présente n'est pas réécrite : seul son compteur de références augmente
+ * (le nom, extension comprise, reste celui du premier dépôt), et le fichier n'est effacé
+ * qu'à la libération de la dernière référence.
+ * Les anciens noms (UUID) restent lus et supprimés à la racine du répertoire.
+ */
 @Service
 @Slf4j
 public class FileStorageService {
 
+    private static final Pattern CONTENT_NAME = Pattern.compile("^[0-9a-f]{64}.*");
+    private static final String[] VARIANT_SUFFIXES = {"_thumb", "_medium", "_large"};
+    private static final int LOCK_STRIPES = 64;
+
+    private final MediaBlobRepository mediaBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Sérialise, par hash, le couple (compteur en base, fichier sur disque)
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
     @Value("${file.upload-dir:uploads/products}")
     private String uploadDir;
 
+    public FileStorageService(MediaBlobRepository mediaBlobRepository, PlatformTransactionManager transactionManager) {
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
     public String storeFile(MultipartFile file) {
         // Normalize file name
         String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
-        
+
+        Path tempFile = null;
         try {
             // Check if the file's name contains invalid characters
             if (originalFileName.contains("..")) {
                 throw new RuntimeException("Nom de fichier invalide: " + originalFileName);
             }
 
-            // Generate unique filename
-            String fileExtension = getFileExtension(originalFileName);
-            String newFileName = UUID.randomUUID().toString() + fileExtension;
+            // Copie vers un fichier temporaire en calculant le hash au passage (une seule lecture)
+            Path tempDir = Paths.get(uploadDir).resolve(".tmp");
+            Files.createDirectories(tempDir);
+            tempFile = tempDir.resolve(UUID.randomUUID().toString());
 
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                size = in.transferTo(out);
             }
 
-            // Copy file to the target location
-            Path targetLocation = uploadPath.resolve(newFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String extension = getFileExtension(originalFileName).toLowerCase();
 
-            log.info("Fichier stocké avec succès: {}", newFileName);
-            return newFileName;
+            synchronized (lockFor(hash)) {
+                // Le même contenu déposé avec une autre extension réutilise le nom déjà enregistré
+                String storedExtension = transactionTemplate.execute(status -> {
+                    mediaBlobRepository.acquire(hash, extension, size);
+                    return mediaBlobRepository.findExtension(hash);
+                });
+                String newFileName = hash + storedExtension;
+                Path targetLocation = resolvePath(newFileName);
+                if (Files.exists(targetLocation)) {
+                    log.info("Fichier déjà présent, référence ajoutée: {}", newFileName);
+                } else {
+                    Files.createDirectories(targetLocation.getParent());
+                    Files.move(tempFile, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+                    tempFile = null;
+                    log.info("Fichier stocké avec succès: {}", newFileName);
+                }
+                return newFileName;
+            }
 
         } catch (IOException ex) {
             log.error("Erreur lors du stockage du fichier: {}", originalFileName, ex);
             throw new RuntimeException("Impossible de stocker le fichier: " + originalFileName, ex);
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ex) {
+                    log.warn("Fichier temporaire non supprimé: {}", tempFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Chemin physique d'un fichier : sharding ab/cd/ pour les noms adressés par contenu
+     * (variantes comprises), racine pour les anciens noms.
+     */
+    public Path resolvePath(String fileName) {
+        Path root = Paths.get(uploadDir);
+        if (CONTENT_NAME.matcher(fileName).matches()) {
+            root = root.resolve(fileName.substring(0, 2)).resolve(fileName.substring(2, 4));
         }
+        return root.resolve(fileName).normalize();
+    }
+
+    /**
+     * Nom d'une variante redimensionnée : dérivé du nom de l'original,
+     * donc partagée par tous les produits qui utilisent la même image.
+     */
+    public String variantName(String originalFileName, int variantIndex) {
+        int lastDotIndex = originalFileName.lastIndexOf('.');
+        String baseName = lastDotIndex == -1 ? originalFileName : originalFileName.substring(0, lastDotIndex);
+        return baseName + VARIANT_SUFFIXES[variantIndex] + ".jpg";
+    }
+
+    public int variantCount() {
+        return VARIANT_SUFFIXES.length;
     }
 
+    public boolean isReferenced(String fileName) {
+        return !CONTENT_NAME.matcher(fileName).matches()
+                || mediaBlobRepository.existsById(fileName.substring(0, 64));
+    }
+
+    /**
+     * Libère une référence vers l'image ; le fichier et ses variantes ne sont effacés
+     * que lorsque plus aucun produit ne l'utilise. La libération attend le commit de la
+     * transaction appelante : un produit dont la mise à jour est annulée garde son image.
+     */
     public void deleteFile(String fileName) {
+        TransactionCallbacks.afterCommit(() -> release(fileName));
+    }
+
+    private void release(String fileName) {
+        if (!CONTENT_NAME.matcher(fileName).matches()) {
+            // Ancien nom (UUID) : fichier propre à un seul produit
+            deletePhysical(fileName);
+            return;
+        }
+        String hash = fileName.substring(0, 64);
+        synchronized (lockFor(hash)) {
+            Integer removed = transactionTemplate.execute(status ->
+                    mediaBlobRepository.decrement(hash) > 0 ? mediaBlobRepository.deleteIfUnreferenced(hash) : 0);
+            if (removed != null && removed > 0) {
+                deletePhysical(fileName);
+            } else {
+                log.info("Référence libérée, fichier conservé: {}", fileName);
+            }
+        }
+    }
+
+    private void deletePhysical(String fileName) {
         try {
-            Path filePath = Paths.get(uploadDir).resolve(fileName).normalize();
-            Files.deleteIfExists(filePath);
+            Files.deleteIfExists(resolvePath(fileName));
+            for (int i = 0; i < VARIANT_SUFFIXES.length; i++) {
+                Files.deleteIfExists(resolvePath(variantName(fileName, i)));
+            }
             log.info("Fichier supprimé avec succès: {}", fileName);
         } catch (IOException ex) {
             log.error("Erreur lors de la suppression du fichier: {}", fileName, ex);
         }
     }
 
+    private Object lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
     private String getFileExtension(String fileName) {
         if (fileName == null) {
             return "";
@@ -74,4 +212,4 @@ public class FileStorageService {
         }
         return fileName.substring(lastDotIndex);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package com.example.demo.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.repositories.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Génère les variantes (miniature, moyenne, grande) d'une image produit en arrière-plan.
+ *
+ * La tâche est soumise après le commit : la requête d'upload répond sans attendre
+ * le redimensionnement. Le produit est mis à jour seulement si son image n'a pas
+ * été remplacée pendant le traitement.
+ */
+@Service
+@Slf4j
+public class ImageProcessingService {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final FileStorageService fileStorageService;
+    private final ProductRepository productRepository;
+    private final ProductDetailCache productDetailCache;
+    private final ProductListVersion productListVersion;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int[] variantSizes;
+    private final float jpegQuality;
+
+    public ImageProcessingService(@Qualifier("imageProcessingExecutor") ThreadPoolTaskExecutor executor,
+                                  FileStorageService fileStorageService,
+                                  ProductRepository productRepository,
+                                  ProductDetailCache productDetailCache,
+                                  ProductListVersion productListVersion,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${image.variants.thumbnail:200}") int thumbnailSize,
+                                  @Value("${image.variants.medium:600}") int mediumSize,
+                                  @Value("${image.variants.large:1200}") int largeSize,
+                                  @Value("${image.variants.jpeg-quality:0.8}") float jpegQuality) {
+        this.executor = executor;
+        this.fileStorageService = fileStorageService;
+        this.productRepository = productRepository;
+        this.productDetailCache = productDetailCache;
+        this.productListVersion = productListVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.variantSizes = new int[] {thumbnailSize, mediumSize, largeSize};
+        this.jpegQuality = jpegQuality;
+    }
+
+    public void processAfterCommit(Long productId, String originalFileName) {
+        if (originalFileName == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                executor.execute(() -> process(productId, originalFileName));
+            } catch (TaskRejectedException e) {
+                log.warn("File de traitement d'images pleine, variantes non générées pour le produit {}", productId);
+            }
+        });
+    }
+
+    private void process(Long productId, String originalFileName) {
+        long start = System.currentTimeMillis();
+        String[] variants = new String[fileStorageService.variantCount()];
+        for (int i = 0; i < variants.length; i++) {
+            variants[i] = fileStorageService.variantName(originalFileName, i);
+        }
+        try {
+            // Image partagée avec un autre produit : variantes déjà générées
+            if (!allExist(variants)) {
+                BufferedImage original = ImageIO.read(fileStorageService.resolvePath(originalFileName).toFile());
+                if (original == null) {
+                    log.warn("Format d'image non supporté pour le produit {}: {}", productId, originalFileName);
+                    return;
+                }
+                for (int i = 0; i < variants.length; i++) {
+                    writeJpeg(resize(original, variantSizes[i]), fileStorageService.resolvePath(variants[i]));
+                }
+            }
+
+            Integer updated = transactionTemplate.execute(status -> productRepository.updateImageVariants(
+                    productId, originalFileName, variants[0], variants[1], variants[2], LocalDateTime.now()));
+            if (updated == null || updated == 0) {
+                // Image remplacée ou produit supprimé pendant le traitement
+                deleteOrphanVariants(originalFileName, variants);
+                return;
+            }
+
+            productDetailCache.invalidate(productId);
+            productListVersion.bumpAfterCommit();
+            log.info("Variantes générées pour le produit {} en {} ms", productId, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            deleteOrphanVariants(originalFileName, variants);
+            log.error("Erreur lors du traitement de l'image du produit {}: {}", productId, originalFileName, e);
+        }
+    }
+
+    // Réduction uniquement (jamais d'agrandissement), ratio conservé, fond blanc pour la transparence
+    private BufferedImage resize(BufferedImage source, int maxSize) {
+        double scale = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("Aucun encodeur JPEG disponible");
+        }
+        ImageWriter writer = writers.next();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private boolean allExist(String[] variants) {
+        for (String variant : variants) {
+            if (!Files.exists(fileStorageService.resolvePath(variant))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Les variantes suivent l'original : effacées seulement s'il n'est plus référencé
+    private void deleteOrphanVariants(String originalFileName, String[] variants) {
+        if (fileStorageService.isReferenced(originalFileName)) {
+            return;
+        }
+        for (String variant : variants) {
+            try {
+                Files.deleteIfExists(fileStorageService.resolvePath(variant));
+            } catch (IOException e) {
+                log.warn("Variante non supprimée: {}", variant);
+            }
+        }
+    }
+}
@@ -1,43 +1,121 @@
 package com.example.demo.services;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.events.CategoryCountChangedEvent;
 import com.example.demo.events.ProductApprovedEvent;
+import com.example.demo.events.ProductCacheInvalidationEvent;
 import com.example.demo.events.ProductCreatedEvent;
 import com.example.demo.events.ProductDeletedEvent;
 import com.example.demo.events.ProductRejectedEvent;
+import com.example.demo.events.ProductUpdatedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
+/**
+ * Publication des événements produits.
+ *
+ * Les messages sont clés par productId : tous les événements d'un même produit vont
+ * sur la même partition et restent ordonnés. L'envoi ne bloque jamais l'appelant ;
+ * le résultat est traité dans le callback (latence et erreurs par topic).
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class KafkaProducerService {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
 
     public void sendProductCreatedEvent(ProductCreatedEvent event) {
         log.info("📤 Sending ProductCreatedEvent for productId: {}", event.getProductId());
-        kafkaTemplate.send("product-created", event);
-        log.info("✅ ProductCreatedEvent sent successfully");
+        publish("product-created", event.getProductId(), event);
+    }
+
+    /**
+     * Envoi groupé (imports en masse) : tous les envois partent sans attendre
+     * et le producteur les regroupe en lots compressés (linger.ms).
+     */
+    public void sendProductCreatedEvents(List<ProductCreatedEvent> events) {
+        for (ProductCreatedEvent event : events) {
+            publish("product-created", event.getProductId(), event);
+        }
+        log.info("📤 {} ProductCreatedEvent queued (batch)", events.size());
+    }
+
+    public void sendProductUpdatedEvent(ProductUpdatedEvent event) {
+        log.info("📤 Sending ProductUpdatedEvent for productId: {}", event.getProductId());
+        publish("product-updated", event.getProductId(), event);
     }
 
     public void sendProductApprovedEvent(ProductApprovedEvent event) {
         log.info("📤 Sending ProductApprovedEvent for productId: {}", event.getProductId());
-        kafkaTemplate.send("product-approved", event);
-        log.info("✅ ProductApprovedEvent sent successfully");
+        publish("product-approved", event.getProductId(), event);
+    }
+
+    public void sendProductApprovedEvents(List<ProductApprovedEvent> events) {
+        for (ProductApprovedEvent event : events) {
+            publish("product-approved", event.getProductId(), event);
+        }
+        log.info("📤 {} ProductApprovedEvent queued (batch)", events.size());
     }
 
     public void sendProductRejectedEvent(ProductRejectedEvent event) {
         log.info("📤 Sending ProductRejectedEvent for productId: {}", event.getProductId());
-        kafkaTemplate.send("product-rejected", event);
-        log.info("✅ ProductRejectedEvent sent successfully");
+        publish("product-rejected", event.getProductId(), event);
+    }
+
+    public void sendProductRejectedEvents(List<ProductRejectedEvent> events) {
+        for (ProductRejectedEvent event : events) {
+            publish("product-rejected", event.getProductId(), event);
+        }
+        log.info("📤 {} ProductRejectedEvent queued (batch)", events.size());
     }
 
     public void sendProductDeletedEvent(ProductDeletedEvent event) {
         log.info("📤 Sending ProductDeletedEvent for productId: {}", event.getProductId());
-        kafkaTemplate.send("product-deleted", event);
-        log.info("✅ ProductDeletedEvent sent successfully");
+        publish("product-deleted", event.getProductId(), event);
+    }
+
+    public void sendProductCacheInvalidationEvent(ProductCacheInvalidationEvent event) {
+        log.debug("📤 Sending ProductCacheInvalidationEvent for productId: {}", event.getProductId());
+        publish(ProductDetailCache.INVALIDATION_TOPIC, event.getProductId(), event);
+    }
+
+    // Sans clé : les deltas sont commutatifs, l'ordre entre partitions est sans importance
+    public void sendCategoryCountChangedEvent(CategoryCountChangedEvent event) {
+        log.debug("📤 Sending CategoryCountChangedEvent {} -> {}", event.getOldCategoryId(), event.getNewCategoryId());
+        publish(CategoryCatalogCache.COUNT_TOPIC, null, event);
+    }
+
+    private void publish(String topic, Long productId, Object event) {
+        String key = productId != null ? productId.toString() : null;
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(topic, key, event).whenComplete((result, ex) -> {
+                meterRegistry.timer("products.kafka.send.latency", "topic", topic)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (ex != null) {
+                    recordFailure(topic, key, ex);
+                } else {
+                    log.debug("✅ {} sent: key={} partition={} offset={}", topic, key,
+                            result.getRecordMetadata().partition(), result.getRecordMetadata().offset());
+                }
+            });
+        } catch (RuntimeException e) {
+            // Échec synchrone (sérialisation, buffer plein au-delà de max.block.ms)
+            recordFailure(topic, key, e);
+        }
+    }
+
+    private void recordFailure(String topic, String key, Throwable ex) {
+        meterRegistry.counter("products.kafka.send.errors", "topic", topic).increment();
+        log.error("❌ Failed to send event to {} (key={}): {}", topic, key, ex.getMessage(), ex);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.example.demo.services;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.events.StockChangedEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Disponibilité des produits (colonne in_stock) alimentée par les événements stock-changed.
+ *
+ * Un lot Kafka est réduit au dernier état connu par produit puis appliqué en un seul
+ * JDBC batch ; seules les lignes dont le drapeau change réellement sont écrites
+ * (updated_at compris, pour les ETags) et retirées du cache détail.
+ */
+@Service
+@Slf4j
+public class ProductAvailabilityService {
+
+    private static final String UPDATE_SQL =
+            "UPDATE products SET in_stock = ?, updated_at = ? WHERE id = ? AND in_stock IS DISTINCT FROM ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductDetailCache productDetailCache;
+    private final ProductListVersion productListVersion;
+
+    public ProductAvailabilityService(JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      ProductDetailCache productDetailCache,
+                                      ProductListVersion productListVersion) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productDetailCache = productDetailCache;
+        this.productListVersion = productListVersion;
+    }
+
+    public int applyStockChanges(List<StockChangedEvent> events) {
+        // Messages clés par produit : dans une partition, le dernier reçu est le plus récent
+        Map<Long, Boolean> latest = new LinkedHashMap<>();
+        for (StockChangedEvent event : events) {
+            if (event.getProductId() != null && event.getAvailableQuantity() != null) {
+                latest.put(event.getProductId(), event.getAvailableQuantity() > 0);
+            }
+        }
+        if (latest.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<Long, Boolean>> changes = new ArrayList<>(latest.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        Integer applied = transactionTemplate.execute(status -> {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Map.Entry<Long, Boolean> change = changes.get(i);
+                    ps.setBoolean(1, change.getValue());
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, change.getKey());
+                    ps.setBoolean(4, change.getValue());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return changes.size();
+                }
+            });
+
+            int flipped = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    productDetailCache.invalidate(changes.get(i).getKey());
+                    flipped++;
+                }
+            }
+            if (flipped > 0) {
+                productListVersion.bumpAfterCommit();
+            }
+            return flipped;
+        });
+
+        int result = applied != null ? applied : 0;
+        log.debug("{} événements de stock, {} produits, {} changements de disponibilité",
+                events.size(), changes.size(), result);
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dtos.ProductDTO;
+import com.example.demo.events.ProductCacheInvalidationEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache local des fiches produit (ProductDTO par id).
+ *
+ * Caffeine applique une éviction W-TinyLFU bornée en taille ; cache.get(id, loader)
+ * garantit un seul chargement concurrent par clé (pas d'effet de ruée sur un miss).
+ * Chaque invalidation est appliquée localement après commit puis diffusée aux autres
+ * instances via le topic product-cache-invalidation. Le TTL borne la durée de vie
+ * d'une entrée si un message de diffusion était perdu.
+ */
+@Service
+@Slf4j
+public class ProductDetailCache {
+
+    public static final String INVALIDATION_TOPIC = "product-cache-invalidation";
+
+    private final Cache<Long, ProductDTO> cache;
+    private final KafkaProducerService kafkaProducerService;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public ProductDetailCache(KafkaProducerService kafkaProducerService,
+                              MeterRegistry meterRegistry,
+                              @Value("${product.cache.max-size:10000}") long maxSize,
+                              @Value("${product.cache.ttl-minutes:30}") long ttlMinutes) {
+        this.kafkaProducerService = kafkaProducerService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        // Expose cache.gets (hit/miss), cache.evictions, cache.size... avec le tag cache=product.detail
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.detail");
+    }
+
+    public ProductDTO get(Long productId, Function<Long, ProductDTO> loader) {
+        return cache.get(productId, loader);
+    }
+
+    public ProductDTO getIfPresent(Long productId) {
+        return cache.getIfPresent(productId);
+    }
+
+    /**
+     * Invalide l'entrée après le commit de la transaction courante et prévient les autres instances.
+     */
+    public void invalidate(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            cache.invalidate(productId);
+            kafkaProducerService.sendProductCacheInvalidationEvent(ProductCacheInvalidationEvent.builder()
+                    .productId(productId)
+                    .sourceInstance(instanceId)
+                    .build());
+        });
+    }
+
+    /**
+     * Invalidation reçue d'une autre instance (ses propres messages sont ignorés).
+     */
+    public void onRemoteInvalidation(ProductCacheInvalidationEvent event) {
+        if (instanceId.equals(event.getSourceInstance())) {
+            return;
+        }
+        cache.invalidate(event.getProductId());
+        log.debug("Produit {} invalidé par l'instance {}", event.getProductId(), event.getSourceInstance());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,417 @@
+package com.example.demo.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.demo.dtos.CategoryDTO;
+import com.example.demo.dtos.ProductImportJobDTO;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.enums.ImportJobStatus;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.events.ProductCreatedEvent;
+import com.example.demo.imports.CsvRowReader;
+import com.example.demo.imports.ImportRowReader;
+import com.example.demo.imports.NdjsonRowReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Import en masse de produits (CSV ou NDJSON) pour un vendeur.
+ *
+ * Le fichier est copié sur disque puis lu en flux par un worker : seule la ligne
+ * courante et le lot en cours sont en mémoire, quelle que soit la taille du fichier.
+ * Chaque lot est inséré en JDBC batch dans sa propre transaction ; après commit,
+ * l'index de recherche et les compteurs de catégories sont mis à jour et les
+ * événements product-created du lot sont envoyés ensemble.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (id, name, description, price, stock, seller_id, category_id, status, in_stock, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('products', 'id')) FROM generate_series(1, ?)";
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ThreadPoolTaskExecutor executor;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryCatalogCache categoryCatalogCache;
+    private final ProductListVersion productListVersion;
+    private final ProductSearchService productSearchService;
+    private final KafkaProducerService kafkaProducerService;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.import.temp-dir:data/imports}")
+    private String tempDir;
+
+    @Value("${product.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    public ProductImportService(@Qualifier("productImportExecutor") ThreadPoolTaskExecutor executor,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                CategoryCatalogCache categoryCatalogCache,
+                                ProductListVersion productListVersion,
+                                ProductSearchService productSearchService,
+                                KafkaProducerService kafkaProducerService,
+                                ObjectMapper objectMapper) {
+        this.executor = executor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryCatalogCache = categoryCatalogCache;
+        this.productListVersion = productListVersion;
+        this.productSearchService = productSearchService;
+        this.kafkaProducerService = kafkaProducerService;
+        this.objectMapper = objectMapper;
+    }
+
+    // ==================== SOUMISSION ====================
+
+    public ProductImportJobDTO submit(MultipartFile file, String format, Long sellerId) {
+        if (file == null || file.isEmpty()) {
+            throw new RuntimeException("Fichier d'import vide");
+        }
+        String resolvedFormat = resolveFormat(format, file.getOriginalFilename());
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), sellerId, resolvedFormat);
+        Path upload;
+        try {
+            Path dir = Paths.get(tempDir);
+            Files.createDirectories(dir);
+            upload = dir.resolve(job.jobId + "." + resolvedFormat);
+            // Copie en flux : le multipart est supprimé à la fin de la requête
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Impossible d'enregistrer le fichier d'import", e);
+        }
+
+        jobs.put(job.jobId, job);
+        try {
+            executor.execute(() -> run(job, upload));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.jobId);
+            deleteQuietly(upload);
+            throw new RuntimeException("Trop d'imports en cours, réessayez plus tard");
+        }
+        log.info("Import {} soumis par le vendeur {} ({})", job.jobId, sellerId, resolvedFormat);
+        return job.toDTO();
+    }
+
+    public ProductImportJobDTO getJob(String jobId, Long sellerId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null || !job.sellerId.equals(sellerId)) {
+            throw new RuntimeException("Import non trouvé: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    private String resolveFormat(String format, String fileName) {
+        String candidate = format;
+        if (candidate == null || candidate.isBlank()) {
+            String name = fileName != null ? fileName.toLowerCase() : "";
+            candidate = name.endsWith(".ndjson") || name.endsWith(".jsonl") ? "ndjson" : "csv";
+        }
+        candidate = candidate.trim().toLowerCase();
+        if (!candidate.equals("csv") && !candidate.equals("ndjson")) {
+            throw new RuntimeException("Format d'import non supporté: " + format + " (csv ou ndjson)");
+        }
+        return candidate;
+    }
+
+    // ==================== TRAITEMENT ====================
+
+    private void run(ImportJob job, Path upload) {
+        job.status = ImportJobStatus.RUNNING;
+        long start = System.currentTimeMillis();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        try (ImportRowReader reader = openReader(job.format, upload)) {
+            Map<String, String> fields;
+            while ((fields = reader.next()) != null) {
+                job.processed.incrementAndGet();
+                ImportRow row = validate(fields, job, reader.lineNumber());
+                if (row == null) {
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    insertBatch(batch, job.sellerId);
+                    job.imported.addAndGet(batch.size());
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(batch, job.sellerId);
+                job.imported.addAndGet(batch.size());
+            }
+            job.status = ImportJobStatus.COMPLETED;
+            log.info("Import {} terminé: {} produits importés, {} lignes rejetées en {} ms",
+                    job.jobId, job.imported.get(), job.rejected.get(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            job.status = ImportJobStatus.FAILED;
+            job.failureReason = e.getMessage();
+            log.error("Échec de l'import {} après {} lignes", job.jobId, job.processed.get(), e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            deleteQuietly(upload);
+        }
+    }
+
+    private ImportRowReader openReader(String format, Path upload) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(upload, StandardCharsets.UTF_8);
+        return format.equals("ndjson") ? new NdjsonRowReader(reader, objectMapper) : new CsvRowReader(reader);
+    }
+
+    private ImportRow validate(Map<String, String> fields, ImportJob job, long line) {
+        String name = trimToNull(fields.get("name"));
+        if (name == null) {
+            return job.reject(line, "nom du produit requis");
+        }
+        if (name.length() > 255) {
+            return job.reject(line, "nom du produit trop long");
+        }
+
+        BigDecimal price;
+        try {
+            String raw = trimToNull(fields.get("price"));
+            price = raw != null ? new BigDecimal(raw.replace(',', '.')) : null;
+        } catch (NumberFormatException e) {
+            return job.reject(line, "prix invalide");
+        }
+        if (price == null || price.signum() <= 0) {
+            return job.reject(line, "le prix doit être positif");
+        }
+
+        int stock;
+        try {
+            String raw = trimToNull(fields.get("stock"));
+            stock = raw != null ? Integer.parseInt(raw) : -1;
+        } catch (NumberFormatException e) {
+            return job.reject(line, "stock invalide");
+        }
+        if (stock < 0) {
+            return job.reject(line, "le stock doit être positif ou nul");
+        }
+
+        Long categoryId = null;
+        String categoryName = null;
+        String rawCategoryId = trimToNull(fields.get("categoryid"));
+        String rawCategory = trimToNull(fields.get("category"));
+        if (rawCategoryId != null) {
+            try {
+                categoryId = Long.parseLong(rawCategoryId);
+            } catch (NumberFormatException e) {
+                return job.reject(line, "categoryId invalide");
+            }
+        } else if (rawCategory != null) {
+            categoryId = categoryCatalogCache.findIdByName(rawCategory).orElse(null);
+            if (categoryId == null) {
+                return job.reject(line, "catégorie inconnue: " + rawCategory);
+            }
+        }
+        if (categoryId != null) {
+            CategoryDTO category = categoryCatalogCache.get(categoryId).orElse(null);
+            if (category == null) {
+                return job.reject(line, "catégorie non trouvée avec ID: " + categoryId);
+            }
+            categoryName = category.getName();
+        }
+
+        return new ImportRow(name, trimToNull(fields.get("description")), price, stock, categoryId, categoryName);
+    }
+
+    private void insertBatch(List<ImportRow> rows, Long sellerId) {
+        // Identifiants réservés d'avance : nécessaires pour l'index et les événements, sans RETURNING ligne à ligne
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, rows.size());
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ImportRow row = rows.get(i);
+                    ps.setLong(1, ids.get(i));
+                    ps.setString(2, row.name);
+                    ps.setString(3, row.description);
+                    ps.setBigDecimal(4, row.price);
+                    ps.setInt(5, row.stock);
+                    ps.setLong(6, sellerId);
+                    if (row.categoryId != null) {
+                        ps.setLong(7, row.categoryId);
+                    } else {
+                        ps.setNull(7, Types.BIGINT);
+                    }
+                    ps.setString(8, ProductStatus.PENDING.name());
+                    ps.setBoolean(9, row.stock > 0);
+                    ps.setTimestamp(10, createdAt);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+
+            productListVersion.bumpAfterCommit();
+            List<ProductCreatedEvent> events = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ImportRow row = rows.get(i);
+                Product product = row.toProduct(ids.get(i), sellerId, now);
+                productSearchService.indexAfterCommit(product);
+                categoryCatalogCache.productAdded(row.categoryId, ProductStatus.PENDING);
+                events.add(ProductCreatedEvent.builder()
+                        .productId(product.getId())
+                        .productName(product.getName())
+                        .sellerId(sellerId)
+                        .price(product.getPrice())
+                        .build());
+            }
+            TransactionCallbacks.afterCommit(() -> kafkaProducerService.sendProductCreatedEvents(events));
+        });
+    }
+
+    // ==================== NETTOYAGE ====================
+
+    @Scheduled(fixedDelayString = "${product.import.cleanup-interval-ms:600000}")
+    public void evictFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Fichier d'import non supprimé: {}", path);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    // ==================== ÉTAT INTERNE ====================
+
+    private static final class ImportRow {
+        final String name;
+        final String description;
+        final BigDecimal price;
+        final int stock;
+        final Long categoryId;
+        final String categoryName;
+
+        ImportRow(String name, String description, BigDecimal price, int stock, Long categoryId, String categoryName) {
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.stock = stock;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+        }
+
+        Product toProduct(Long id, Long sellerId, LocalDateTime createdAt) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName(name);
+            product.setDescription(description);
+            product.setPrice(price);
+            product.setStock(stock);
+            product.setInStock(stock > 0);
+            product.setSellerId(sellerId);
+            product.setStatus(ProductStatus.PENDING);
+            product.setCreatedAt(createdAt);
+            if (categoryId != null) {
+                Category category = new Category();
+                category.setId(categoryId);
+                category.setName(categoryName);
+                product.setCategory(category);
+            }
+            return product;
+        }
+    }
+
+    private static final class ImportJob {
+        final String jobId;
+        final Long sellerId;
+        final String format;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+        volatile String failureReason;
+        volatile LocalDateTime finishedAt;
+
+        ImportJob(String jobId, Long sellerId, String format) {
+            this.jobId = jobId;
+            this.sellerId = sellerId;
+            this.format = format;
+        }
+
+        ImportRow reject(long line, String reason) {
+            rejected.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Ligne " + line + ": " + reason);
+            }
+            return null;
+        }
+
+        ProductImportJobDTO toDTO() {
+            List<String> snapshot;
+            synchronized (errors) {
+                snapshot = List.copyOf(errors);
+            }
+            return new ProductImportJobDTO(jobId, sellerId, format, status, processed.get(), imported.get(),
+                    rejected.get(), snapshot, failureReason, submittedAt, finishedAt);
+        }
+    }
+}
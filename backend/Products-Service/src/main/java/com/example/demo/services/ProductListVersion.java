@@ -0,0 +1,96 @@
+package com.example.demo.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Version de la liste des produits (partie variable de l'ETag des pages de liste).
+ *
+ * Portée par une séquence PostgreSQL partagée par toutes les instances : chaque transaction
+ * qui modifie des produits l'incrémente une fois après commit (nextval ne prend aucun verrou
+ * de ligne), et une lecture coûte un SELECT sur la séquence, mis en cache quelques centaines
+ * de millisecondes. Aucun agrégat sur la table products.
+ */
+@Service
+@Slf4j
+public class ProductListVersion {
+
+    private static final String SEQUENCE = "product_list_version_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long cacheMillis;
+
+    private volatile long cachedVersion = -1L;
+    private volatile long cachedAt;
+
+    public ProductListVersion(JdbcTemplate jdbcTemplate,
+                              @Value("${products.list-version.cache-ms:500}") long cacheMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheMillis = cacheMillis;
+    }
+
+    @PostConstruct
+    public void createSequence() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE);
+    }
+
+    public long current() {
+        long now = System.currentTimeMillis();
+        long version = cachedVersion;
+        if (version >= 0 && now - cachedAt < cacheMillis) {
+            return version;
+        }
+        Long value = jdbcTemplate.queryForObject("SELECT last_value FROM " + SEQUENCE, Long.class);
+        version = value != null ? value : 0L;
+        cachedVersion = version;
+        cachedAt = now;
+        return version;
+    }
+
+    /**
+     * Incrémente la version après le commit de la transaction courante, une seule fois
+     * par transaction (imports et modération en masse compris).
+     */
+    public void bumpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ProductListVersion.this);
+            }
+        });
+    }
+
+    // Appelé en afterCommit, sur la connexion encore liée : nextval n'est pas transactionnel, rien à valider
+    private void bump() {
+        try {
+            Long version = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE + "')", Long.class);
+            if (version != null) {
+                cachedVersion = version;
+                cachedAt = System.currentTimeMillis();
+            }
+        } catch (RuntimeException e) {
+            // Version périmée jusqu'à la prochaine écriture : le cache local expire quand même
+            cachedVersion = -1L;
+            log.warn("Incrément de la version de la liste des produits impossible: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.services;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dtos.BulkModerationResultDTO;
+import com.example.demo.entities.Product;
+import com.example.demo.enums.ProductStatus;
+import com.example.demo.events.ProductApprovedEvent;
+import com.example.demo.events.ProductRejectedEvent;
+import com.example.demo.repositories.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Modération en masse des produits en attente.
+ *
+ * Un seul UPDATE ensembliste par lot (id = ANY(?) AND status = 'PENDING') : les produits
+ * déjà modérés ou supprimés entre-temps sont simplement ignorés et renvoyés comme tels.
+ * Après commit, l'index de recherche, les compteurs de catégories et le cache détail sont
+ * mis à jour et les événements du lot partent ensemble.
+ */
+@Service
+@Slf4j
+public class ProductModerationService {
+
+    private static final String MODERATE_SQL =
+            "UPDATE products SET status = ?, updated_at = ? WHERE id = ANY(?) AND status = 'PENDING' RETURNING id";
+    private static final String DEFAULT_REJECTION_REASON = "Produit non conforme aux standards";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final ProductSearchService productSearchService;
+    private final CategoryCatalogCache categoryCatalogCache;
+    private final ProductDetailCache productDetailCache;
+    private final ProductListVersion productListVersion;
+    private final KafkaProducerService kafkaProducerService;
+    private final TrendingService trendingService;
+
+    @Value("${product.moderation.batch-size:1000}")
+    private int batchSize;
+
+    public ProductModerationService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ProductRepository productRepository,
+                                    ProductSearchService productSearchService,
+                                    CategoryCatalogCache categoryCatalogCache,
+                                    ProductDetailCache productDetailCache,
+                                    ProductListVersion productListVersion,
+                                    KafkaProducerService kafkaProducerService,
+                                    TrendingService trendingService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productRepository = productRepository;
+        this.productSearchService = productSearchService;
+        this.categoryCatalogCache = categoryCatalogCache;
+        this.productDetailCache = productDetailCache;
+        this.productListVersion = productListVersion;
+        this.kafkaProducerService = kafkaProducerService;
+        this.trendingService = trendingService;
+    }
+
+    // ==================== MODÉRATION EN MASSE ====================
+
+    public BulkModerationResultDTO approveAll(List<Long> productIds) {
+        return moderate(productIds, ProductStatus.APPROVED, null);
+    }
+
+    public BulkModerationResultDTO rejectAll(List<Long> productIds, String rejectionReason) {
+        String reason = rejectionReason != null && !rejectionReason.isBlank() ? rejectionReason : DEFAULT_REJECTION_REASON;
+        return moderate(productIds, ProductStatus.REJECTED, reason);
+    }
+
+    private BulkModerationResultDTO moderate(List<Long> productIds, ProductStatus target, String reason) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(productIds));
+        log.info("Modération en masse: {} produits vers {}", ids.size(), target);
+
+        Set<Long> updated = new LinkedHashSet<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            updated.addAll(moderateBatch(chunk, target, reason));
+        }
+
+        List<Long> skipped = ids.stream().filter(id -> !updated.contains(id)).collect(Collectors.toList());
+        log.info("Modération en masse terminée: {} produits {}, {} ignorés", updated.size(), target, skipped.size());
+        return new BulkModerationResultDTO(target, ids.size(), updated.size(), skipped);
+    }
+
+    private List<Long> moderateBatch(List<Long> ids, ProductStatus target, String reason) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        return transactionTemplate.execute(status -> {
+            List<Long> moderated = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(MODERATE_SQL);
+                ps.setString(1, target.name());
+                ps.setTimestamp(2, now);
+                ps.setArray(3, connection.createArrayOf("bigint", ids.toArray()));
+                return ps;
+            }, (rs, rowNum) -> rs.getLong(1));
+
+            if (moderated.isEmpty()) {
+                return moderated;
+            }
+
+            productListVersion.bumpAfterCommit();
+            if (target == ProductStatus.REJECTED) {
+                trendingService.removeAllAfterCommit(moderated);
+            }
+            // Relecture dans la même transaction : état à jour, catégorie chargée pour l'index
+            List<Product> products = productRepository.findAllWithCategoryByIdIn(moderated);
+            List<ProductApprovedEvent> approvedEvents = new ArrayList<>();
+            List<ProductRejectedEvent> rejectedEvents = new ArrayList<>();
+            for (Product product : products) {
+                Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+                productSearchService.indexAfterCommit(product);
+                categoryCatalogCache.productChanged(categoryId, ProductStatus.PENDING, categoryId, target);
+                productDetailCache.invalidate(product.getId());
+
+                if (target == ProductStatus.APPROVED) {
+                    approvedEvents.add(ProductApprovedEvent.builder()
+                            .productId(product.getId())
+                            .productName(product.getName())
+                            .sellerId(product.getSellerId())
+                            .build());
+                } else {
+                    rejectedEvents.add(ProductRejectedEvent.builder()
+                            .productId(product.getId())
+                            .productName(product.getName())
+                            .sellerId(product.getSellerId())
+                            .rejectionReason(reason)
+                            .build());
+                }
+            }
+
+            TransactionCallbacks.afterCommit(() -> {
+                if (!approvedEvents.isEmpty()) {
+                    kafkaProducerService.sendProductApprovedEvents(approvedEvents);
+                }
+                if (!rejectedEvents.isEmpty()) {
+                    kafkaProducerService.sendProductRejectedEvents(rejectedEvents);
+                }
+            });
+            return moderated;
+        });
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.demo.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.search.ProductSearchIndex;
+import com.example.demo.search.SearchDocument;
+import com.example.demo.search.SearchFilter;
+import com.example.demo.search.SearchResult;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cycle de vie de l'index de recherche produits : chargement du snapshot au démarrage,
+ * reconstruction complète depuis la base, mises à jour incrémentales après commit
+ * et sauvegarde périodique sur disque.
+ */
+@Service
+@Slf4j
+public class ProductSearchService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${search.index.snapshot-file:data/product-search.idx}")
+    private String snapshotFile;
+
+    @Value("${search.index.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private volatile ProductSearchIndex index = new ProductSearchIndex();
+    private volatile boolean ready;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Produits modifiés pendant une reconstruction, réindexés après la bascule
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+
+    // ==================== DÉMARRAGE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                if (loadSnapshot()) {
+                    ready = true;
+                } else {
+                    rebuild();
+                }
+            } catch (Exception e) {
+                log.error("Initialisation de l'index de recherche impossible", e);
+            }
+        });
+    }
+
+    private boolean loadSnapshot() {
+        Path path = snapshotPath();
+        if (!Files.exists(path)) {
+            log.info("Aucun snapshot d'index de recherche trouvé: {}", path);
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            ProductSearchIndex loaded = ProductSearchIndex.readFrom(in);
+            LocalDateTime snapshotTime = LocalDateTime.ofInstant(
+                    Files.getLastModifiedTime(path).toInstant(), ZoneId.systemDefault());
+
+            // Rattrapage des produits créés ou modifiés après l'écriture du snapshot
+            List<Product> modified = productRepository.findModifiedSinceWithCategory(snapshotTime);
+            modified.forEach(p -> loaded.index(toDocument(p)));
+            // Suppressions : rien ne les date, rapprochement des ids indexés avec la base
+            int removed = removeDeleted(loaded);
+
+            index = loaded;
+            log.info("Index de recherche chargé: {} produits ({} rattrapés, {} supprimés)",
+                    loaded.size(), modified.size(), removed);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot d'index de recherche illisible, reconstruction: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private int removeDeleted(ProductSearchIndex target) {
+        List<Long> indexed = target.productIds();
+        int removed = 0;
+        for (int from = 0; from < indexed.size(); from += rebuildBatchSize) {
+            List<Long> chunk = indexed.subList(from, Math.min(from + rebuildBatchSize, indexed.size()));
+            Set<Long> missing = new HashSet<>(chunk);
+            productRepository.findExistingIds(chunk).forEach(missing::remove);
+            missing.forEach(target::remove);
+            removed += missing.size();
+        }
+        return removed;
+    }
+
+    // ==================== RECONSTRUCTION ====================
+
+    @Scheduled(cron = "${search.index.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstruction de l'index déjà en cours");
+            return index.size();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            ProductSearchIndex fresh = new ProductSearchIndex();
+            long lastId = 0L;
+
+            while (true) {
+                List<Product> batch = productRepository.findBatchWithCategory(lastId, PageRequest.of(0, rebuildBatchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Product product : batch) {
+                    fresh.index(toDocument(product));
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            Set<Long> touched;
+            synchronized (touchedDuringRebuild) {
+                index = fresh;
+                touched = new HashSet<>(touchedDuringRebuild);
+                touchedDuringRebuild.clear();
+            }
+            if (!touched.isEmpty()) {
+                reindex(touched);
+            }
+
+            ready = true;
+            dirty.set(true);
+            log.info("Index de recherche reconstruit: {} produits, {} termes en {} ms",
+                    fresh.size(), fresh.termCount(), System.currentTimeMillis() - start);
+            return fresh.size();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void reindex(Set<Long> productIds) {
+        List<Product> products = productRepository.findAllWithCategoryByIdIn(productIds);
+        Set<Long> missing = new HashSet<>(productIds);
+        for (Product product : products) {
+            index.index(toDocument(product));
+            missing.remove(product.getId());
+        }
+        missing.forEach(index::remove);
+    }
+
+    // ==================== MISES À JOUR INCRÉMENTALES ====================
+
+    /**
+     * Indexe le produit après le commit de la transaction courante
+     * (le document est capturé maintenant, tant que la catégorie est chargeable).
+     */
+    public void indexAfterCommit(Product product) {
+        SearchDocument doc = toDocument(product);
+        TransactionCallbacks.afterCommit(() -> {
+            index.index(doc);
+            markTouched(doc.getProductId());
+        });
+    }
+
+    public void removeAfterCommit(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            index.remove(productId);
+            markTouched(productId);
+        });
+    }
+
+    private void markTouched(Long productId) {
+        dirty.set(true);
+        if (rebuilding.get()) {
+            synchronized (touchedDuringRebuild) {
+                touchedDuringRebuild.add(productId);
+            }
+        }
+    }
+
+    // ==================== RECHERCHE ====================
+
+    public SearchResult search(String query, SearchFilter filter, int page, int size) {
+        return index.search(query, filter, page * size, size);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    @Scheduled(fixedDelayString = "${search.index.snapshot-interval-ms:600000}")
+    public void snapshotIfDirty() {
+        if (ready && dirty.compareAndSet(true, false)) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        if (!ready) {
+            return;
+        }
+        Path path = snapshotPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                index.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Snapshot de l'index de recherche écrit: {}", path);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Écriture du snapshot de l'index de recherche impossible", e);
+        }
+    }
+
+    private Path snapshotPath() {
+        return Paths.get(snapshotFile).toAbsolutePath().normalize();
+    }
+
+    private SearchDocument toDocument(Product product) {
+        return new SearchDocument(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                product.getPrice() != null ? product.getPrice().doubleValue() : 0d,
+                product.getStatus());
+    }
+}
@@ -1,6 +1,12 @@
 package com.example.demo.services;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +14,7 @@ import org.springframework.stereotype.Service;
 
 import com.example.demo.dtos.CreateProductDTO;
 import com.example.demo.dtos.ProductDTO;
+import com.example.demo.dtos.ProductSearchResultDTO;
 import com.example.demo.dtos.UpdateProductDTO;
 import com.example.demo.entities.Category;
 import com.example.demo.entities.Product;
@@ -16,8 +23,12 @@ import com.example.demo.events.ProductApprovedEvent;
 import com.example.demo.events.ProductCreatedEvent;
 import com.example.demo.events.ProductDeletedEvent;
 import com.example.demo.events.ProductRejectedEvent;
+import com.example.demo.events.ProductUpdatedEvent;
 import com.example.demo.repositories.CategoryRepository;
 import com.example.demo.repositories.ProductRepository;
+import com.example.demo.search.SearchFilter;
+import com.example.demo.search.SearchHit;
+import com.example.demo.search.SearchResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
@@ -39,6 +50,27 @@ public class ProductService {
     @Autowired
     private KafkaProducerService kafkaProducerService;
     
+    @Autowired
+    private ProductSearchService productSearchService;
+    
+    @Autowired
+    private CategoryCatalogCache categoryCatalogCache;
+    
+    @Autowired
+    private ProductDetailCache productDetailCache;
+    
+    @Autowired
+    private ProductListVersion productListVersion;
+    
+    @Autowired
+    private ImageProcessingService imageProcessingService;
+    
+    @Autowired
+    private RelatedProductsService relatedProductsService;
+    
+    @Autowired
+    private TrendingService trendingService;
+    
     public ProductDTO createProduct(CreateProductDTO dto, Long sellerId) {
         log.info("Création d'un nouveau produit pour le vendeur: {}", sellerId);
         
@@ -59,12 +91,17 @@ public class ProductService {
         
         Product saved = productRepository.save(product);
         log.info("Produit créé avec ID: {}", saved.getId());
+        productSearchService.indexAfterCommit(saved);
+        categoryCatalogCache.productAdded(categoryIdOf(saved), saved.getStatus());
+        productListVersion.bumpAfterCommit();
+        imageProcessingService.processAfterCommit(saved.getId(), saved.getImageUrl());
         
         // 🔥 SEND KAFKA EVENT
         ProductCreatedEvent event = ProductCreatedEvent.builder()
                 .productId(saved.getId())
                 .productName(saved.getName())
                 .sellerId(saved.getSellerId())
+                .price(saved.getPrice())
                 .build();
         kafkaProducerService.sendProductCreatedEvent(event);
         
@@ -73,9 +110,40 @@ public class ProductService {
     
     public ProductDTO getProduct(Long id) {
         log.info("Récupération du produit avec ID: {}", id);
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Produit non trouvé avec ID: " + id));
-        return convertToDTO(product);
+        return productDetailCache.get(id, key -> {
+            Product product = productRepository.findById(key)
+                .orElseThrow(() -> new RuntimeException("Produit non trouvé avec ID: " + key));
+            return convertToDTO(product);
+        });
+    }
+    
+    /**
+     * Version du produit (epoch ms) pour l'ETag : lue dans le cache si possible,
+     * sinon par une requête sur une seule colonne.
+     */
+    public long getProductVersion(Long id) {
+        ProductDTO cached = productDetailCache.getIfPresent(id);
+        LocalDateTime version = cached != null
+                ? (cached.getUpdatedAt() != null ? cached.getUpdatedAt() : cached.getCreatedAt())
+                : productRepository.findVersionById(id)
+                        .orElseThrow(() -> new RuntimeException("Produit non trouvé avec ID: " + id));
+        return toEpochMillis(version);
+    }
+    
+    /**
+     * Statut lu dans le cache détail uniquement (null si absent) : sert aux réponses 304,
+     * qui ne chargent pas le produit.
+     */
+    public ProductStatus getCachedStatus(Long id) {
+        ProductDTO cached = productDetailCache.getIfPresent(id);
+        return cached != null ? cached.getStatus() : null;
+    }
+    
+    /**
+     * ETag d'une page de la liste : version globale de la liste (incrémentée par chaque écriture).
+     */
+    public String getProductListETag(int page, int size, ProductStatus status) {
+        return "\"pl-" + (status != null ? status : "ALL") + "-" + page + "-" + size + "-" + productListVersion.current() + "\"";
     }
     
     public List<ProductDTO> getAllProducts(int page, int size, ProductStatus status) {
@@ -94,6 +162,49 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * File de modération par curseur (id du dernier produit reçu, null pour la première page) :
+     * lecture sur l'index partiel des produits PENDING, sans OFFSET.
+     * Sans curseur, page devient un OFFSET sur la même requête (anciens clients) : même tri
+     * par id décroissant, donc pas de doublon ni de trou en passant d'un mode à l'autre.
+     */
+    public List<ProductDTO> getPendingProducts(Long beforeId, int page, int size) {
+        long cursor = beforeId != null ? beforeId : Long.MAX_VALUE;
+        Pageable pageable = beforeId != null ? Pageable.ofSize(size) : PageRequest.of(page, size);
+        return productRepository.findByStatusBefore(ProductStatus.PENDING, cursor, pageable).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Produits approuvés et en stock, plus récents d'abord (index (status, in_stock, created_at)).
+     */
+    public List<ProductDTO> getAvailableProducts(int page, int size) {
+        log.info("Récupération des produits disponibles");
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return productRepository.findAvailableProducts(pageable).getContent().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Produits approuvés d'une catégorie et, si demandé, de toutes ses sous-catégories :
+     * le sous-arbre est résolu en mémoire puis interrogé en une seule requête indexée.
+     */
+    public List<ProductDTO> getProductsByCategory(Long categoryId, boolean includeSubcategories, int page, int size) {
+        log.info("Récupération des produits de la catégorie {} (sous-catégories: {})", categoryId, includeSubcategories);
+        List<Long> categoryIds = includeSubcategories
+                ? categoryCatalogCache.getSubtreeIds(categoryId)
+                : categoryCatalogCache.get(categoryId).map(c -> List.of(c.getId())).orElse(List.of());
+        if (categoryIds.isEmpty()) {
+            throw new RuntimeException("Catégorie non trouvée avec ID: " + categoryId);
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return productRepository.findApprovedByCategoryIdIn(categoryIds, pageable).getContent().stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
     public List<ProductDTO> getProductsBySeller(Long sellerId, int page, int size) {
         log.info("Récupération des produits pour le vendeur: {}", sellerId);
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
@@ -115,6 +226,8 @@ public class ProductService {
             throw new RuntimeException("Non autorisé à modifier ce produit");
         }
         
+        Long oldCategoryId = categoryIdOf(product);
+        
         // Mettre à jour les champs
         if (dto.getName() != null) {
             product.setName(dto.getName());
@@ -128,8 +241,13 @@ public class ProductService {
         if (dto.getStock() != null) {
             product.setStock(dto.getStock());
         }
-        if (dto.getImageUrl() != null) {
+        boolean imageChanged = dto.getImageUrl() != null && !dto.getImageUrl().equals(product.getImageUrl());
+        if (imageChanged) {
             product.setImageUrl(dto.getImageUrl());
+            // Les anciennes variantes ne correspondent plus : régénérées en arrière-plan
+            product.setThumbnailUrl(null);
+            product.setMediumUrl(null);
+            product.setLargeUrl(null);
         }
         if (dto.getCategoryId() != null) {
             Category category = categoryRepository.findById(dto.getCategoryId())
@@ -139,6 +257,24 @@ public class ProductService {
         
         Product updated = productRepository.save(product);
         log.info("Produit {} mis à jour avec succès", id);
+        productSearchService.indexAfterCommit(updated);
+        categoryCatalogCache.productChanged(oldCategoryId, updated.getStatus(), categoryIdOf(updated), updated.getStatus());
+        productListVersion.bumpAfterCommit();
+        productDetailCache.invalidate(id);
+        if (imageChanged) {
+            imageProcessingService.processAfterCommit(id, updated.getImageUrl());
+        }
+        
+        // 🔥 SEND KAFKA EVENT (prix / nom pour les réplicas du catalogue)
+        ProductUpdatedEvent event = ProductUpdatedEvent.builder()
+                .productId(updated.getId())
+                .productName(updated.getName())
+                .sellerId(updated.getSellerId())
+                .price(updated.getPrice())
+                .status(updated.getStatus().name())
+                .build();
+        kafkaProducerService.sendProductUpdatedEvent(event);
+        
         return convertToDTO(updated);
     }
     
@@ -157,9 +293,17 @@ public class ProductService {
         Long productId = product.getId();
         String productName = product.getName();
         Long productSellerId = product.getSellerId();
+        Long categoryId = categoryIdOf(product);
+        ProductStatus productStatus = product.getStatus();
         
         productRepository.delete(product);
         log.info("Produit {} supprimé avec succès", id);
+        productSearchService.removeAfterCommit(productId);
+        categoryCatalogCache.productRemoved(categoryId, productStatus);
+        productListVersion.bumpAfterCommit();
+        productDetailCache.invalidate(productId);
+        relatedProductsService.removeAfterCommit(productId);
+        trendingService.removeAfterCommit(productId);
         
         // 🔥 SEND KAFKA EVENT for stock-service
         ProductDeletedEvent event = ProductDeletedEvent.builder()
@@ -181,6 +325,14 @@ public class ProductService {
         Product updated = productRepository.save(product);
         
         log.info("Statut du produit {} mis à jour vers {}", id, status);
+        productSearchService.indexAfterCommit(updated);
+        categoryCatalogCache.productChanged(categoryIdOf(updated), oldStatus, categoryIdOf(updated), status);
+        productListVersion.bumpAfterCommit();
+        productDetailCache.invalidate(id);
+        if (status != ProductStatus.APPROVED) {
+            // Plus visible : sort du classement des tendances
+            trendingService.removeAfterCommit(id);
+        }
         
         // 🔥 SEND KAFKA EVENTS based on status change
         if (status == ProductStatus.APPROVED && oldStatus != ProductStatus.APPROVED) {
@@ -198,6 +350,16 @@ public class ProductService {
                     .rejectionReason("Produit non conforme aux standards") // You can add this as parameter
                     .build();
             kafkaProducerService.sendProductRejectedEvent(event);
+        } else if (status != oldStatus) {
+            // Retour en attente : les réplicas du catalogue doivent cesser de le vendre
+            ProductUpdatedEvent event = ProductUpdatedEvent.builder()
+                    .productId(updated.getId())
+                    .productName(updated.getName())
+                    .sellerId(updated.getSellerId())
+                    .price(updated.getPrice())
+                    .status(status.name())
+                    .build();
+            kafkaProducerService.sendProductUpdatedEvent(event);
         }
         
         return convertToDTO(updated);
@@ -216,8 +378,14 @@ public class ProductService {
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Produit non trouvé avec ID: " + id));
         
+        ProductStatus oldStatus = product.getStatus();
         product.setStatus(ProductStatus.REJECTED);
         Product updated = productRepository.save(product);
+        productSearchService.indexAfterCommit(updated);
+        categoryCatalogCache.productChanged(categoryIdOf(updated), oldStatus, categoryIdOf(updated), ProductStatus.REJECTED);
+        productListVersion.bumpAfterCommit();
+        productDetailCache.invalidate(id);
+        trendingService.removeAfterCommit(id);
         
         // 🔥 SEND KAFKA EVENT with custom reason
         ProductRejectedEvent event = ProductRejectedEvent.builder()
@@ -232,6 +400,39 @@ public class ProductService {
         return convertToDTO(updated);
     }
     
+    public ProductSearchResultDTO searchProducts(String query, Long categoryId, BigDecimal minPrice,
+                                                 BigDecimal maxPrice, ProductStatus status,
+                                                 int page, int size) {
+        log.info("Recherche de produits: '{}' (page {}, size {})", query, page, size);
+        
+        SearchFilter filter = new SearchFilter(
+                categoryId,
+                minPrice != null ? minPrice.doubleValue() : null,
+                maxPrice != null ? maxPrice.doubleValue() : null,
+                status);
+        SearchResult result = productSearchService.search(query, filter, page, size);
+        
+        // Chargement groupé puis remise dans l'ordre de pertinence
+        List<Long> ids = result.getHits().stream().map(SearchHit::getProductId).collect(Collectors.toList());
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductDTO> products = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        
+        return new ProductSearchResultDTO(products, result.getTotalHits(), page, size);
+    }
+    
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+    
+    private Long categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+    
     private ProductDTO convertToDTO(Product product) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
@@ -239,10 +440,15 @@ public class ProductService {
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
         dto.setStock(product.getStock());
+        dto.setInStock(product.getInStock());
         dto.setSellerId(product.getSellerId());
         dto.setImageUrl(product.getImageUrl());
+        dto.setThumbnailUrl(product.getThumbnailUrl());
+        dto.setMediumUrl(product.getMediumUrl());
+        dto.setLargeUrl(product.getLargeUrl());
         dto.setStatus(product.getStatus());
         dto.setCreatedAt(product.getCreatedAt());
+        dto.setUpdatedAt(product.getUpdatedAt());
         
         if (product.getCategory() != null) {
             dto.setCategoryId(product.getCategory().getId());
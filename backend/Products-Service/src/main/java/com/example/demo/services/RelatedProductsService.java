@@ -0,0 +1,186 @@
+package com.example.demo.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.events.OrderDeliveredEvent;
+import com.example.demo.recommendations.CoOccurrenceMatrix;
+import com.example.demo.recommendations.RelatedProduct;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * "Fréquemment achetés ensemble" : matrice de co-occurrence en mémoire alimentée par les
+ * commandes livrées (topic order-delivered), élaguée périodiquement et sauvegardée sur disque.
+ *
+ * Le snapshot contient, par partition, le prochain offset à lire, écrit sous le même verrou
+ * que les événements : au redémarrage le consommateur reprend exactement là où la matrice
+ * s'arrête (ou au début du topic sans snapshot), indépendamment des offsets commités.
+ */
+@Service
+@Slf4j
+public class RelatedProductsService {
+
+    // Garde-fou contre un fichier d'un autre format (ancien snapshot sans offsets)
+    private static final int MAX_PARTITIONS = 10_000;
+
+    @Value("${recommendations.snapshot-file:data/related-products.idx}")
+    private String snapshotFile;
+
+    @Value("${recommendations.max-basket-size:50}")
+    private int maxBasketSize;
+
+    @Value("${recommendations.prune.decay:0.98}")
+    private float decay;
+
+    @Value("${recommendations.prune.min-score:0.1}")
+    private float minScore;
+
+    private final int neighborsPerProduct;
+    private final int maxProducts;
+    private volatile CoOccurrenceMatrix matrix;
+    // Prochain offset à lire par partition (cohérent avec la matrice écrite dans le snapshot)
+    private final Map<Integer, Long> nextOffsets = new HashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public RelatedProductsService(@Value("${recommendations.neighbors-per-product:16}") int neighborsPerProduct,
+                                  @Value("${recommendations.max-products:2000000}") int maxProducts) {
+        this.neighborsPerProduct = neighborsPerProduct;
+        this.maxProducts = maxProducts;
+        this.matrix = new CoOccurrenceMatrix(neighborsPerProduct, maxProducts);
+    }
+
+    // ==================== DÉMARRAGE ====================
+
+    // Chargé avant le démarrage des consommateurs Kafka : les offsets du snapshot servent au positionnement
+    @PostConstruct
+    public void loadSnapshot() {
+        Path path = snapshotPath();
+        if (!Files.exists(path)) {
+            log.info("Aucun snapshot de recommandations trouvé: {}", path);
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int partitions = in.readInt();
+            if (partitions < 0 || partitions > MAX_PARTITIONS) {
+                throw new IOException("Format de snapshot inconnu");
+            }
+            Map<Integer, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitions; i++) {
+                offsets.put(in.readInt(), in.readLong());
+            }
+            CoOccurrenceMatrix loaded = CoOccurrenceMatrix.readFrom(in, neighborsPerProduct, maxProducts);
+            synchronized (this) {
+                matrix = loaded;
+                nextOffsets.putAll(offsets);
+            }
+            log.info("Recommandations chargées: {} produits, {} partitions", loaded.size(), partitions);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot de recommandations illisible, matrice vide: {}", e.getMessage());
+        }
+    }
+
+    // ==================== ALIMENTATION ====================
+
+    public void onOrderDelivered(OrderDeliveredEvent event, int partition, long offset) {
+        List<Long> productIds = event.getProductIds();
+        synchronized (this) {
+            if (productIds != null && productIds.size() >= 2) {
+                // Panier borné : le coût d'une commande est en O(n²) paires
+                long[] basket = productIds.stream()
+                        .filter(id -> id != null)
+                        .distinct()
+                        .limit(maxBasketSize)
+                        .mapToLong(Long::longValue)
+                        .toArray();
+                matrix.recordBasket(basket, 1f);
+            }
+            nextOffsets.put(partition, offset + 1);
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Offset de reprise d'une partition d'après le snapshot (vide : relire depuis le début).
+     */
+    public synchronized OptionalLong nextOffset(int partition) {
+        Long offset = nextOffsets.get(partition);
+        return offset != null ? OptionalLong.of(offset) : OptionalLong.empty();
+    }
+
+    public void removeAfterCommit(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            matrix.remove(productId);
+            dirty.set(true);
+        });
+    }
+
+    // ==================== LECTURE ====================
+
+    public List<RelatedProduct> getRelated(Long productId, int limit) {
+        return matrix.related(productId, limit);
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    @Scheduled(fixedDelayString = "${recommendations.prune-interval-ms:3600000}")
+    public void prune() {
+        long start = System.currentTimeMillis();
+        int removed = matrix.prune(decay, minScore);
+        dirty.set(true);
+        log.info("Recommandations élaguées: {} produits retirés, {} restants (~{} Ko) en {} ms",
+                removed, matrix.size(), matrix.estimatedBytes() / 1024, System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.snapshot-interval-ms:600000}")
+    public void snapshotIfDirty() {
+        if (dirty.compareAndSet(true, false)) {
+            writeSnapshot();
+        }
+    }
+
+    // Matrice et offsets écrits sous le même verrou que les événements : l'un ne peut pas devancer l'autre
+    @PreDestroy
+    public synchronized void writeSnapshot() {
+        Path path = snapshotPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(nextOffsets.size());
+                for (Map.Entry<Integer, Long> entry : nextOffsets.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+                matrix.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Snapshot des recommandations écrit: {}", path);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Écriture du snapshot des recommandations impossible", e);
+        }
+    }
+
+    private Path snapshotPath() {
+        return Paths.get(snapshotFile).toAbsolutePath().normalize();
+    }
+}
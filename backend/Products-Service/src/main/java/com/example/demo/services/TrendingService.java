@@ -0,0 +1,205 @@
+package com.example.demo.services;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.trending.StripedCounters;
+import com.example.demo.trending.TrendingProduct;
+import com.example.demo.trending.TrendingRanking;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Produits tendance : vues (GET /products/{id}) et ventes (topic order-placed) comptées en
+ * mémoire sans écriture en base, agrégées toutes les quelques secondes dans un classement à
+ * décroissance exponentielle (demi-vie configurable). Le top-K est recalculé à chaque tick
+ * et servi tel quel ; les scores suivis sont sauvegardés par lots pour survivre aux redémarrages.
+ *
+ * Chaque instance classe sa part du trafic (réparti par le load balancer, donc comparable) ;
+ * en base, la dernière instance à écrire un produit l'emporte.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO product_trending_scores (product_id, score, updated_at) VALUES (?, ?, ?) " +
+            "ON CONFLICT (product_id) DO UPDATE SET score = EXCLUDED.score, updated_at = EXCLUDED.updated_at";
+    private static final String DELETE_STALE_SQL =
+            "DELETE FROM product_trending_scores WHERE updated_at < ?";
+    private static final String DELETE_SQL =
+            "DELETE FROM product_trending_scores WHERE product_id = ANY(?)";
+    private static final String LOAD_SQL =
+            "SELECT product_id, score, updated_at FROM product_trending_scores";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedCounters counters;
+    private final TrendingRanking ranking;
+
+    @Value("${trending.half-life-minutes:360}")
+    private long halfLifeMinutes;
+
+    @Value("${trending.view-weight:1}")
+    private int viewWeight;
+
+    @Value("${trending.sale-weight:20}")
+    private int saleWeight;
+
+    @Value("${trending.top-size:100}")
+    private int topSize;
+
+    @Value("${trending.min-score:0.05}")
+    private float minPersistedScore;
+
+    private volatile List<TrendingProduct> top = List.of();
+    private long lastTick = System.nanoTime();
+
+    public TrendingService(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${trending.stripes:32}") int stripes,
+                           @Value("${trending.tracked-capacity:10000}") int trackedCapacity,
+                           @Value("${trending.sketch.depth:4}") int sketchDepth,
+                           @Value("${trending.sketch.width:65536}") int sketchWidth) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.counters = new StripedCounters(stripes);
+        this.ranking = new TrendingRanking(trackedCapacity, sketchDepth, sketchWidth);
+    }
+
+    // ==================== ENREGISTREMENT ====================
+
+    public void recordView(Long productId) {
+        counters.add(productId, viewWeight);
+    }
+
+    public void recordSales(List<Long> productIds) {
+        for (Long productId : productIds) {
+            if (productId != null) {
+                counters.add(productId, saleWeight);
+            }
+        }
+    }
+
+    public void removeAfterCommit(Long productId) {
+        removeAllAfterCommit(List.of(productId));
+    }
+
+    /**
+     * Retire des produits du classement (suppression, rejet, retrait de l'approbation) :
+     * score persisté effacé dans la transaction courante, classement et top-K après commit.
+     */
+    public void removeAllAfterCommit(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = Set.copyOf(productIds);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(DELETE_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        });
+        TransactionCallbacks.afterCommit(() -> {
+            ids.forEach(ranking::remove);
+            top = top.stream().filter(p -> !ids.contains(p.getProductId())).toList();
+        });
+    }
+
+    // ==================== LECTURE ====================
+
+    public List<TrendingProduct> getTrending(int limit) {
+        List<TrendingProduct> current = top;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    // ==================== AGRÉGATION ====================
+
+    @Scheduled(fixedDelayString = "${trending.tick-interval-ms:10000}")
+    public synchronized void tick() {
+        long now = System.nanoTime();
+        double elapsedMinutes = (now - lastTick) / 60_000_000_000d;
+        lastTick = now;
+
+        ranking.decay((float) Math.pow(0.5, elapsedMinutes / halfLifeMinutes));
+        counters.drainTo(ranking::add);
+        ranking.trim();
+        top = List.copyOf(ranking.top(topSize));
+    }
+
+    // ==================== PERSISTANCE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        int[] loaded = {0};
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            LocalDateTime updatedAt = rs.getTimestamp("updated_at").toLocalDateTime();
+            double ageMinutes = Math.max(0, Duration.between(updatedAt, now).toMillis() / 60_000d);
+            float score = (float) (rs.getDouble("score") * Math.pow(0.5, ageMinutes / halfLifeMinutes));
+            ranking.load(rs.getLong("product_id"), score);
+            loaded[0]++;
+        });
+        ranking.trim();
+        top = List.copyOf(ranking.top(topSize));
+        log.info("Classement tendance restauré: {} produits", loaded[0]);
+    }
+
+    @Scheduled(fixedDelayString = "${trending.flush-interval-ms:60000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flush() {
+        tick();
+        List<TrendingProduct> scores = ranking.snapshot().stream()
+                .filter(p -> p.getScore() >= minPersistedScore)
+                .toList();
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        // Lignes non réécrites depuis plusieurs demi-vies : scores devenus négligeables
+        Timestamp staleBefore = Timestamp.valueOf(now.minusMinutes(halfLifeMinutes * 4));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!scores.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            TrendingProduct product = scores.get(i);
+                            ps.setLong(1, product.getProductId());
+                            ps.setDouble(2, product.getScore());
+                            ps.setTimestamp(3, updatedAt);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return scores.size();
+                        }
+                    });
+                }
+                jdbcTemplate.update(DELETE_STALE_SQL, staleBefore);
+            });
+            log.debug("Classement tendance sauvegardé: {} produits", scores.size());
+        } catch (RuntimeException e) {
+            log.warn("Sauvegarde du classement tendance impossible: {}", e.getMessage());
+        }
+    }
+}
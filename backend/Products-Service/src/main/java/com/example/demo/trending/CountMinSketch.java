@@ -0,0 +1,56 @@
+package com.example.demo.trending;
+
+/**
+ * Count-min sketch à compteurs flottants (scores décroissants dans le temps) :
+ * estimation par excès de la popularité de n'importe quel produit, y compris ceux
+ * de la longue traîne qui ne sont pas suivis exactement. Taille fixe :
+ * depth x width x 4 octets (1 Mo pour 4 x 65536).
+ *
+ * Non thread-safe : utilisé uniquement par la tâche périodique du classement.
+ */
+public class CountMinSketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+            0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L};
+
+    private final int depth;
+    private final int mask;
+    private final float[] table;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || depth > SEEDS.length) {
+            throw new IllegalArgumentException("Profondeur invalide: " + depth);
+        }
+        int w = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = w - 1;
+        this.table = new float[depth * w];
+    }
+
+    public void add(long productId, float weight) {
+        for (int row = 0; row < depth; row++) {
+            table[index(row, productId)] += weight;
+        }
+    }
+
+    public float estimate(long productId) {
+        float min = Float.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[index(row, productId)]);
+        }
+        return min;
+    }
+
+    public void decay(float factor) {
+        for (int i = 0; i < table.length; i++) {
+            table[i] *= factor;
+        }
+    }
+
+    private int index(int row, long productId) {
+        long h = (productId ^ (productId >>> 29)) * SEEDS[row];
+        h ^= h >>> 31;
+        return row * (mask + 1) + ((int) h & mask);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.trending;
+
+/**
+ * Compteurs d'événements (vues, ventes) par produit, répartis sur plusieurs bandes
+ * choisies par thread : deux requêtes simultanées ne se disputent presque jamais le même
+ * verrou, même sur un produit très consulté. Chaque bande est une table long -> int
+ * en adressage ouvert, vidée périodiquement par {@link #drainTo}.
+ */
+public class StripedCounters {
+
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(long productId, int count);
+    }
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public StripedCounters(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+    }
+
+    public void add(long productId, int count) {
+        long threadId = Thread.currentThread().threadId();
+        stripes[(int) ((threadId ^ (threadId >>> 16)) & mask)].add(productId, count);
+    }
+
+    /**
+     * Transmet puis remet à zéro le contenu de toutes les bandes ; les écritures concurrentes
+     * arrivées après l'échange d'une bande seront vues au prochain appel.
+     */
+    public void drainTo(CountConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            long[] keys;
+            int[] counts;
+            synchronized (stripe) {
+                if (stripe.size == 0) {
+                    continue;
+                }
+                keys = stripe.keys;
+                counts = stripe.counts;
+                stripe.reset(keys.length);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                if (counts[i] != 0) {
+                    consumer.accept(keys[i], counts[i]);
+                }
+            }
+        }
+    }
+
+    private static final class Stripe {
+        long[] keys;
+        int[] counts; // 0 = emplacement libre
+        int size;
+
+        Stripe() {
+            reset(INITIAL_CAPACITY);
+        }
+
+        void reset(int capacity) {
+            keys = new long[capacity];
+            counts = new int[capacity];
+            size = 0;
+        }
+
+        synchronized void add(long productId, int count) {
+            if (count <= 0) {
+                return;
+            }
+            int m = keys.length - 1;
+            int slot = hash(productId) & m;
+            while (counts[slot] != 0) {
+                if (keys[slot] == productId) {
+                    counts[slot] = (int) Math.min(Integer.MAX_VALUE, (long) counts[slot] + count);
+                    return;
+                }
+                slot = (slot + 1) & m;
+            }
+            keys[slot] = productId;
+            counts[slot] = count;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int m = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int slot = hash(oldKeys[i]) & m;
+                    while (counts[slot] != 0) {
+                        slot = (slot + 1) & m;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+    }
+
+    static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.trending;
+
+import lombok.Value;
+
+@Value
+public class TrendingProduct {
+    long productId;
+    float score;
+}
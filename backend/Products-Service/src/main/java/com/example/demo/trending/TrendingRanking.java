@@ -0,0 +1,107 @@
+package com.example.demo.trending;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Classement "tendance" à décroissance exponentielle.
+ *
+ * Tous les événements alimentent un {@link CountMinSketch} ; seuls les produits dont
+ * l'estimation dépasse le plus faible score suivi (ou tant qu'il reste de la place) sont
+ * suivis exactement, dans une table bornée à {@code capacity} entrées. Le top-K est extrait
+ * par un tas de taille K sur cette table.
+ *
+ * Synchronisé : alimenté par la tâche périodique, lu/chargé ponctuellement par d'autres threads.
+ */
+public class TrendingRanking {
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<Long, float[]> tracked = new HashMap<>();
+    private float admissionThreshold;
+
+    public TrendingRanking(int capacity, int sketchDepth, int sketchWidth) {
+        this.capacity = capacity;
+        this.sketch = new CountMinSketch(sketchDepth, sketchWidth);
+    }
+
+    public synchronized void add(long productId, float weight) {
+        sketch.add(productId, weight);
+        float[] score = tracked.get(productId);
+        if (score != null) {
+            score[0] += weight;
+            return;
+        }
+        float estimate = sketch.estimate(productId);
+        if (tracked.size() < capacity || estimate > admissionThreshold) {
+            // Entrée avec l'estimation du sketch : l'historique de longue traîne n'est pas perdu
+            tracked.put(productId, new float[] {estimate});
+        }
+    }
+
+    // Décroissance exponentielle : facteur 0.5^(durée écoulée / demi-vie)
+    public synchronized void decay(float factor) {
+        sketch.decay(factor);
+        tracked.values().forEach(score -> score[0] *= factor);
+        admissionThreshold *= factor;
+    }
+
+    // Ramène la table suivie à sa capacité ; le seuil d'admission devient le plus faible score gardé
+    public synchronized void trim() {
+        if (tracked.size() <= capacity) {
+            return;
+        }
+        float[] values = new float[tracked.size()];
+        int i = 0;
+        for (float[] score : tracked.values()) {
+            values[i++] = score[0];
+        }
+        Arrays.sort(values);
+        float cutoff = values[values.length - capacity];
+        tracked.values().removeIf(score -> score[0] < cutoff);
+        admissionThreshold = cutoff;
+    }
+
+    public synchronized List<TrendingProduct> top(int k) {
+        PriorityQueue<TrendingProduct> heap = new PriorityQueue<>(k + 1,
+                (a, b) -> Float.compare(a.getScore(), b.getScore()));
+        for (Map.Entry<Long, float[]> entry : tracked.entrySet()) {
+            float score = entry.getValue()[0];
+            if (heap.size() < k) {
+                heap.add(new TrendingProduct(entry.getKey(), score));
+            } else if (score > heap.peek().getScore()) {
+                heap.poll();
+                heap.add(new TrendingProduct(entry.getKey(), score));
+            }
+        }
+        List<TrendingProduct> result = new ArrayList<>(heap);
+        result.sort(Collections.reverseOrder((a, b) -> Float.compare(a.getScore(), b.getScore())));
+        return result;
+    }
+
+    public synchronized void remove(long productId) {
+        tracked.remove(productId);
+    }
+
+    /** Restauration après redémarrage : score exact et sketch alignés. */
+    public synchronized void load(long productId, float score) {
+        sketch.add(productId, score);
+        tracked.put(productId, new float[] {score});
+    }
+
+    // Copie des scores suivis, pour l'écriture en base hors verrou
+    public synchronized List<TrendingProduct> snapshot() {
+        List<TrendingProduct> result = new ArrayList<>(tracked.size());
+        tracked.forEach((id, score) -> result.add(new TrendingProduct(id, score[0])));
+        return result;
+    }
+
+    public synchronized int trackedCount() {
+        return tracked.size();
+    }
+}
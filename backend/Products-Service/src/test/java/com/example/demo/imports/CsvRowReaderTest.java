@@ -0,0 +1,119 @@
+package com.example.demo.imports;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lecteur CSV de l'import produits : détection du séparateur, en-tête, champs entre
+ * guillemets (séparateurs, guillemets doublés, retours à la ligne), fins de ligne et
+ * numéros de ligne rapportés dans les erreurs d'import.
+ */
+class CsvRowReaderTest {
+
+    @Test
+    void readsRowsKeyedByLowerCaseTrimmedHeader() throws IOException {
+        CsvRowReader reader = reader(" Name ,PRICE,Stock\nLampe,12.50,3\nChaise,40,0\n");
+
+        assertEquals(Map.of("name", "Lampe", "price", "12.50", "stock", "3"), reader.next());
+        assertEquals(2, reader.lineNumber());
+        assertEquals(Map.of("name", "Chaise", "price", "40", "stock", "0"), reader.next());
+        assertEquals(3, reader.lineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void detectsSemicolonSeparatorFromHeader() throws IOException {
+        CsvRowReader reader = reader("name;price\nLampe;12,50\n");
+
+        assertEquals(Map.of("name", "Lampe", "price", "12,50"), reader.next());
+    }
+
+    @Test
+    void headerWithBothSeparatorsUsesComma() throws IOException {
+        CsvRowReader reader = reader("name,description\nLampe,Ampoule; abat-jour\n");
+
+        assertEquals(Map.of("name", "Lampe", "description", "Ampoule; abat-jour"), reader.next());
+    }
+
+    @Test
+    void stripsByteOrderMarkAndHeaderQuotes() throws IOException {
+        CsvRowReader reader = reader("\uFEFF\"Name\",\"Price\"\nLampe,10\n");
+
+        assertEquals(Map.of("name", "Lampe", "price", "10"), reader.next());
+    }
+
+    @Test
+    void quotedFieldsKeepSeparatorsAndDoubledQuotes() throws IOException {
+        CsvRowReader reader = reader("name,description\n\"Lampe, bureau\",\"Dite \"\"architecte\"\"\"\n");
+
+        assertEquals(Map.of("name", "Lampe, bureau", "description", "Dite \"architecte\""), reader.next());
+    }
+
+    @Test
+    void quotedFieldMaySpanSeveralLines() throws IOException {
+        CsvRowReader reader = reader("name,description\n\"Lampe\",\"Ligne 1\nLigne 2\nLigne 3\"\nChaise,Simple\n");
+
+        assertEquals(Map.of("name", "Lampe", "description", "Ligne 1\nLigne 2\nLigne 3"), reader.next());
+        assertEquals(4, reader.lineNumber());
+        assertEquals(Map.of("name", "Chaise", "description", "Simple"), reader.next());
+        assertEquals(5, reader.lineNumber());
+    }
+
+    @Test
+    void handlesCrLfAndBareCrLineEndings() throws IOException {
+        CsvRowReader reader = reader("name,price\r\nLampe,10\r\nChaise,20\rTable,30");
+
+        assertEquals(Map.of("name", "Lampe", "price", "10"), reader.next());
+        assertEquals(Map.of("name", "Chaise", "price", "20"), reader.next());
+        assertEquals(Map.of("name", "Table", "price", "30"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void blankLinesAreSkippedButCounted() throws IOException {
+        CsvRowReader reader = reader("name,price\n\n\nLampe,10\n\n");
+
+        assertEquals(Map.of("name", "Lampe", "price", "10"), reader.next());
+        assertEquals(4, reader.lineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void shortRowsOmitMissingColumnsAndExtraFieldsAreIgnored() throws IOException {
+        CsvRowReader reader = reader("name,price,stock\nLampe,10\nChaise,20,1,surplus\nTable,,\n");
+
+        assertEquals(Map.of("name", "Lampe", "price", "10"), reader.next());
+        assertEquals(Map.of("name", "Chaise", "price", "20", "stock", "1"), reader.next());
+        assertEquals(Map.of("name", "Table", "price", "", "stock", ""), reader.next());
+    }
+
+    @Test
+    void emptyFileIsRejected() {
+        assertThrows(IOException.class, () -> reader(""));
+    }
+
+    @Test
+    void headerOnlyFileHasNoRows() throws IOException {
+        assertNull(reader("name,price").next());
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedWithItsLine() throws IOException {
+        CsvRowReader reader = reader("name,description\nLampe,ok\nChaise,\"jamais fermé\n");
+        reader.next();
+
+        IOException error = assertThrows(IOException.class, reader::next);
+        assertEquals("Guillemet non fermé à la ligne 4", error.getMessage());
+    }
+
+    private static CsvRowReader reader(String content) throws IOException {
+        return new CsvRowReader(new StringReader(content));
+    }
+}
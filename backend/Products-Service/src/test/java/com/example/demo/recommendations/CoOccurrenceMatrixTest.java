@@ -0,0 +1,216 @@
+package com.example.demo.recommendations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Matrice "achetés ensemble" : paires symétriques, lignes pleines (Space-Saving),
+ * croissance de la table, retrait, élagage avec compactage et snapshot.
+ */
+class CoOccurrenceMatrixTest {
+
+    @Test
+    void basketLinksEveryPairInBothDirections() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(8, 1000);
+        matrix.recordBasket(new long[] { 1, 2, 3 }, 1f);
+
+        assertEquals(3, matrix.size());
+        assertEquals(List.of(2L, 3L), sortedIds(matrix.related(1, 10)));
+        assertEquals(List.of(1L, 3L), sortedIds(matrix.related(2, 10)));
+        assertEquals(List.of(1L, 2L), sortedIds(matrix.related(3, 10)));
+    }
+
+    @Test
+    void singleProductBasketIsIgnored() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(8, 1000);
+        matrix.recordBasket(new long[] { 1 }, 1f);
+
+        assertEquals(0, matrix.size());
+        assertTrue(matrix.related(1, 10).isEmpty());
+    }
+
+    @Test
+    void repeatedPairsAccumulateAndAreRankedByScore() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(8, 1000);
+        for (int i = 0; i < 3; i++) {
+            matrix.recordBasket(new long[] { 1, 2 }, 1f);
+        }
+        matrix.recordBasket(new long[] { 1, 3 }, 1f);
+
+        List<RelatedProduct> related = matrix.related(1, 10);
+        assertEquals(List.of(new RelatedProduct(2, 3f), new RelatedProduct(3, 1f)), related);
+        assertEquals(List.of(new RelatedProduct(2, 3f)), matrix.related(1, 1));
+    }
+
+    @Test
+    void fullRowReplacesWeakestNeighborWhichPassesOnItsScore() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2, 1000);
+        matrix.recordBasket(new long[] { 1, 2 }, 5f);
+        matrix.recordBasket(new long[] { 1, 3 }, 1f);
+        matrix.recordBasket(new long[] { 1, 4 }, 1f);
+
+        // 3 (score 1) est évincé par 4, qui hérite de son score : 1 + 1
+        assertEquals(List.of(new RelatedProduct(2, 5f), new RelatedProduct(4, 2f)), matrix.related(1, 10));
+    }
+
+    @Test
+    void growsPastInitialCapacityWithoutLosingRows() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4, 100_000);
+        long before = matrix.estimatedBytes();
+        for (long id = 1; id <= 5_000; id++) {
+            matrix.recordBasket(new long[] { id, id + 100_000 }, 1f);
+        }
+
+        assertEquals(10_000, matrix.size());
+        assertTrue(matrix.estimatedBytes() > before);
+        for (long id = 1; id <= 5_000; id++) {
+            assertEquals(List.of(new RelatedProduct(id + 100_000, 1f)), matrix.related(id, 10));
+            assertEquals(List.of(new RelatedProduct(id, 1f)), matrix.related(id + 100_000, 10));
+        }
+    }
+
+    @Test
+    void collidingIdsStayDistinct() {
+        // Multiples d'une grande puissance de deux : mêmes bits bas, sondage linéaire sollicité
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4, 1000);
+        long step = 1L << 40;
+        for (long i = 1; i <= 200; i++) {
+            matrix.recordBasket(new long[] { i * step, -i }, i);
+        }
+
+        assertEquals(400, matrix.size());
+        for (long i = 1; i <= 200; i++) {
+            assertEquals(List.of(new RelatedProduct(-i, i)), matrix.related(i * step, 10));
+        }
+    }
+
+    @Test
+    void newProductsAreIgnoredBeyondMaxProducts() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4, 3);
+        matrix.recordBasket(new long[] { 1, 2 }, 1f);
+        matrix.recordBasket(new long[] { 3, 4 }, 1f);
+
+        assertEquals(3, matrix.size());
+        assertTrue(matrix.related(4, 10).isEmpty());
+        // Les lignes existantes peuvent toujours référencer le produit ignoré
+        assertEquals(List.of(new RelatedProduct(4, 1f)), matrix.related(3, 10));
+    }
+
+    @Test
+    void removeClearsRowAndBackReferences() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(8, 1000);
+        matrix.recordBasket(new long[] { 1, 2, 3 }, 1f);
+
+        matrix.remove(2);
+        matrix.remove(42); // inconnu : sans effet
+
+        assertTrue(matrix.related(2, 10).isEmpty());
+        assertEquals(List.of(3L), sortedIds(matrix.related(1, 10)));
+        assertEquals(List.of(1L), sortedIds(matrix.related(3, 10)));
+
+        // La ligne vidée n'est récupérée qu'à l'élagage
+        assertEquals(3, matrix.size());
+        assertEquals(1, matrix.prune(1f, 0f));
+        assertEquals(2, matrix.size());
+    }
+
+    @Test
+    void pruneDecaysDropsWeakEntriesAndCompactsRows() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4, 1000);
+        matrix.recordBasket(new long[] { 3, 4 }, 1f);
+        matrix.recordBasket(new long[] { 1, 2 }, 4f);
+
+        assertEquals(2, matrix.prune(0.5f, 1f));
+
+        assertEquals(2, matrix.size());
+        assertEquals(List.of(new RelatedProduct(2, 2f)), matrix.related(1, 10));
+        assertEquals(List.of(new RelatedProduct(1, 2f)), matrix.related(2, 10));
+        assertTrue(matrix.related(3, 10).isEmpty());
+
+        // Après compactage, les produits retirés repartent sur une ligne neuve
+        matrix.recordBasket(new long[] { 3, 5 }, 1f);
+        assertEquals(4, matrix.size());
+        assertEquals(List.of(new RelatedProduct(5, 1f)), matrix.related(3, 10));
+        assertEquals(List.of(new RelatedProduct(2, 2f)), matrix.related(1, 10));
+    }
+
+    @Test
+    void pruneReleasesMemoryAfterMassRemoval() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4, 100_000);
+        for (long id = 1; id <= 5_000; id++) {
+            matrix.recordBasket(new long[] { id, id + 100_000 }, 1f);
+        }
+        long grown = matrix.estimatedBytes();
+
+        assertEquals(10_000, matrix.prune(1f, 2f));
+
+        assertEquals(0, matrix.size());
+        assertTrue(matrix.estimatedBytes() < grown);
+        assertTrue(matrix.related(1, 10).isEmpty());
+    }
+
+    @Test
+    void snapshotRoundTripKeepsLiveRows() throws IOException {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4, 1000);
+        matrix.recordBasket(new long[] { 1, 2, 3 }, 2f);
+        matrix.recordBasket(new long[] { 1, 4 }, 1f);
+        matrix.remove(3);
+
+        CoOccurrenceMatrix copy = CoOccurrenceMatrix.readFrom(roundTrip(matrix), 4, 1000);
+
+        // La ligne vidée de 3 n'est pas écrite
+        assertEquals(3, copy.size());
+        for (long id = 1; id <= 4; id++) {
+            assertEquals(matrix.related(id, 10), copy.related(id, 10));
+        }
+    }
+
+    @Test
+    void snapshotReadWithSmallerRowsKeepsBestNeighbors() throws IOException {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(4, 1000);
+        matrix.recordBasket(new long[] { 1, 5 }, 1f);
+        matrix.recordBasket(new long[] { 1, 4 }, 2f);
+        matrix.recordBasket(new long[] { 1, 3 }, 3f);
+        matrix.recordBasket(new long[] { 1, 2 }, 4f);
+
+        CoOccurrenceMatrix copy = CoOccurrenceMatrix.readFrom(roundTrip(matrix), 2, 1000);
+
+        assertEquals(List.of(new RelatedProduct(2, 4f), new RelatedProduct(3, 3f)), copy.related(1, 10));
+    }
+
+    @Test
+    void unknownSnapshotFormatIsRejected() {
+        byte[] garbage = new byte[] { 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0 };
+        assertThrows(IOException.class, () -> CoOccurrenceMatrix.readFrom(
+                new DataInputStream(new ByteArrayInputStream(garbage)), 4, 1000));
+    }
+
+    @Test
+    void invalidRowWidthIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CoOccurrenceMatrix(0, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new CoOccurrenceMatrix(128, 1000));
+    }
+
+    private static List<Long> sortedIds(List<RelatedProduct> related) {
+        return related.stream().map(RelatedProduct::getProductId).sorted().collect(Collectors.toList());
+    }
+
+    private static DataInputStream roundTrip(CoOccurrenceMatrix matrix) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            matrix.writeTo(out);
+        }
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
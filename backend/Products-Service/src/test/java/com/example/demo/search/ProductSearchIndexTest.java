@@ -0,0 +1,204 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.enums.ProductStatus;
+
+/**
+ * Index de recherche des produits : analyse, classement BM25 pondéré par champ, filtres,
+ * mises à jour, compactage des docs supprimés et snapshot.
+ */
+class ProductSearchIndexTest {
+
+    private static final SearchFilter NO_FILTER = new SearchFilter(null, null, null, null);
+
+    @Test
+    void tokenizeFoldsCaseAndAccentsAndDropsStopWordsAndShortTokens() {
+        assertEquals(List.of("elegante", "table", "cafe", "places"),
+                ProductSearchIndex.tokenize("Élégante TABLE de Café, 2 places"));
+        assertTrue(ProductSearchIndex.tokenize("  ").isEmpty());
+        assertTrue(ProductSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void nameMatchOutranksDescriptionMatch() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(doc(1L, "Table basse", "Assortie à la chaise", 10L, 50.0, ProductStatus.APPROVED));
+        index.index(doc(2L, "Chaise en bois", "Robuste", 10L, 30.0, ProductStatus.APPROVED));
+
+        SearchResult result = index.search("chaise", NO_FILTER, 0, 10);
+
+        assertEquals(2, result.getTotalHits());
+        assertEquals(List.of(2L, 1L), ids(result));
+    }
+
+    @Test
+    void categoryNameIsSearchable() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(new SearchDocument(1L, "Fauteuil", null, 7L, "Mobilier", 80.0, ProductStatus.APPROVED));
+
+        assertEquals(List.of(1L), ids(index.search("mobilier", NO_FILTER, 0, 10)));
+    }
+
+    @Test
+    void queryWithoutIndexedTermsFindsNothing() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(doc(1L, "Lampe", null, 1L, 10.0, ProductStatus.APPROVED));
+
+        assertEquals(0, index.search("de la", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(0, index.search("inconnu", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(0, new ProductSearchIndex().search("lampe", NO_FILTER, 0, 10).getTotalHits());
+    }
+
+    @Test
+    void reindexReplacesPreviousVersion() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(doc(1L, "Lampe", null, 1L, 10.0, ProductStatus.PENDING));
+        index.index(doc(1L, "Bureau", null, 1L, 10.0, ProductStatus.APPROVED));
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.search("lampe", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(List.of(1L), ids(index.search("bureau", NO_FILTER, 0, 10)));
+    }
+
+    @Test
+    void removedProductIsNoLongerFound() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(doc(1L, "Lampe", null, 1L, 10.0, ProductStatus.APPROVED));
+        index.index(doc(2L, "Lampe", null, 1L, 12.0, ProductStatus.APPROVED));
+
+        index.remove(1L);
+        index.remove(99L); // inconnu : sans effet
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(2L), index.productIds());
+        assertEquals(List.of(2L), ids(index.search("lampe", NO_FILTER, 0, 10)));
+    }
+
+    @Test
+    void filtersApplyToCategoryPriceAndStatus() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(doc(1L, "Lampe", null, 1L, 10.0, ProductStatus.APPROVED));
+        index.index(doc(2L, "Lampe", null, 2L, 20.0, ProductStatus.APPROVED));
+        index.index(doc(3L, "Lampe", null, 2L, 30.0, ProductStatus.PENDING));
+        index.index(doc(4L, "Lampe", null, null, 40.0, ProductStatus.APPROVED));
+
+        assertEquals(Set.of(2L, 3L), idSet(index.search("lampe", new SearchFilter(2L, null, null, null), 0, 10)));
+        assertEquals(Set.of(2L, 3L), idSet(index.search("lampe", new SearchFilter(null, 15.0, 30.0, null), 0, 10)));
+        assertEquals(Set.of(3L), idSet(index.search("lampe", new SearchFilter(null, null, null, ProductStatus.PENDING), 0, 10)));
+        assertEquals(Set.of(2L), idSet(index.search("lampe", new SearchFilter(2L, null, 25.0, ProductStatus.APPROVED), 0, 10)));
+    }
+
+    @Test
+    void pagesFollowScoreOrderAndKeepTheTotal() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        // Même nom, descriptions de plus en plus longues : score strictement décroissant avec l'id
+        for (long id = 1; id <= 5; id++) {
+            String description = LongStream.rangeClosed(1, id).mapToObj(i -> "mot" + i).collect(Collectors.joining(" "));
+            index.index(doc(id, "Lampe", description, 1L, 10.0, ProductStatus.APPROVED));
+        }
+
+        SearchResult first = index.search("lampe", NO_FILTER, 0, 2);
+        SearchResult second = index.search("lampe", NO_FILTER, 2, 2);
+        SearchResult last = index.search("lampe", NO_FILTER, 4, 2);
+        SearchResult beyond = index.search("lampe", NO_FILTER, 10, 2);
+
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertEquals(List.of(5L), ids(last));
+        assertTrue(beyond.getHits().isEmpty());
+        assertEquals(5, first.getTotalHits());
+        assertEquals(5, beyond.getTotalHits());
+    }
+
+    @Test
+    void compactionDropsDeletedDocsAndTheirTerms() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (long id = 1; id <= 2000; id++) {
+            index.index(doc(id, "Lampe ref" + id, null, null, 10.0, ProductStatus.APPROVED));
+        }
+        // Le compactage se déclenche au 1024e doc supprimé
+        for (long id = 1; id <= 1024; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(976, index.size());
+        assertEquals(1 + 976, index.termCount());
+        assertEquals(976, index.search("lampe", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(0, index.search("ref1", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(List.of(2000L), ids(index.search("ref2000", NO_FILTER, 0, 10)));
+        assertEquals(LongStream.rangeClosed(1025, 2000).boxed().collect(Collectors.toSet()), new HashSet<>(index.productIds()));
+
+        // Les docIds renumérotés restent utilisables pour les mises à jour
+        index.index(doc(1500L, "Bureau", null, null, 10.0, ProductStatus.APPROVED));
+        assertEquals(975, index.search("lampe", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(List.of(1500L), ids(index.search("bureau", NO_FILTER, 0, 10)));
+    }
+
+    @Test
+    void snapshotRoundTripKeepsLiveDocsTermsAndFilters() throws IOException {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(doc(1L, "Chaise en bois", "Robuste", 10L, 30.0, ProductStatus.APPROVED));
+        index.index(doc(2L, "Table basse", "Assortie à la chaise", 10L, 50.0, ProductStatus.APPROVED));
+        index.index(doc(3L, "Chaise pliante", null, 20L, 15.0, ProductStatus.PENDING));
+        index.index(doc(4L, "Tabouret", null, 20L, 25.0, ProductStatus.APPROVED));
+        index.remove(4L);
+        index.index(doc(3L, "Chaise pliante", "Légère et pratique", 20L, 18.0, ProductStatus.APPROVED));
+
+        ProductSearchIndex copy = ProductSearchIndex.readFrom(roundTrip(index));
+
+        assertEquals(index.size(), copy.size());
+        assertEquals(new HashSet<>(index.productIds()), new HashSet<>(copy.productIds()));
+        assertEquals(index.search("chaise", NO_FILTER, 0, 10), copy.search("chaise", NO_FILTER, 0, 10));
+        assertEquals(0, copy.search("tabouret", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(List.of(3L), ids(copy.search("chaise", new SearchFilter(20L, 16.0, null, ProductStatus.APPROVED), 0, 10)));
+
+        // L'index relu accepte de nouvelles écritures
+        copy.index(doc(5L, "Chaise haute", null, 10L, 60.0, ProductStatus.APPROVED));
+        assertEquals(4, copy.search("chaise", NO_FILTER, 0, 10).getTotalHits());
+    }
+
+    @Test
+    void unknownSnapshotFormatIsRejected() {
+        byte[] garbage = new byte[] { 0, 0, 0, 1, 0, 0, 0, 1 };
+        assertThrows(IOException.class,
+                () -> ProductSearchIndex.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+
+    private static SearchDocument doc(Long id, String name, String description, Long categoryId, double price,
+                                      ProductStatus status) {
+        return new SearchDocument(id, name, description, categoryId, categoryId != null ? "Catégorie " + categoryId : null,
+                price, status);
+    }
+
+    private static List<Long> ids(SearchResult result) {
+        return result.getHits().stream().map(SearchHit::getProductId).collect(Collectors.toList());
+    }
+
+    private static Set<Long> idSet(SearchResult result) {
+        return new HashSet<>(ids(result));
+    }
+
+    private static DataInputStream roundTrip(ProductSearchIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
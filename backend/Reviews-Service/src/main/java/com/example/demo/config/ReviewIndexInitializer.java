@@ -0,0 +1,54 @@
+package com.example.demo.config;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Index que Hibernate (ddl-auto) ne sait pas déclarer : index partiels notamment.
+ * Créés au démarrage s'ils manquent, en CONCURRENTLY pour ne pas bloquer les écritures.
+ * Les avis supprimés sont déplacés vers reviews_archive (ReviewArchiveService).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ReviewIndexInitializer implements ApplicationRunner {
+
+    // Les lectures filtrent toutes active = true : index partiels, les avis supprimés n'y entrent pas
+    private static final List<String> INDEXES = List.of(
+            // Avis d'un produit par date (listing, premières pages en cache, version ETag)
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_product_created ON reviews (product_id, created_at DESC) WHERE active = true",
+            // Tri "plus utiles" d'un produit : parcours de plage déjà ordonné
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_product_helpful ON reviews (product_id, helpful_score DESC, id DESC) WHERE active = true",
+            // Avis d'un client par date
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_client_created ON reviews (client_id, created_at DESC) WHERE active = true",
+            // Derniers avis tous produits
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_created ON reviews (created_at DESC) WHERE active = true",
+            // Archivage : seuls les avis supprimés, par date de suppression (created_at si jamais modifiés),
+            // même expression que le prédicat de ArchivedReviewRepository.archiveInactiveBatch
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_inactive_modified ON reviews ((COALESCE(updated_at, created_at))) WHERE active = false",
+            // Remplacé par idx_reviews_inactive_modified (ignorait les avis sans updated_at)
+            "DROP INDEX CONCURRENTLY IF EXISTS idx_reviews_inactive_updated"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String ddl : INDEXES) {
+            try {
+                jdbcTemplate.execute(ddl);
+            } catch (DataAccessException e) {
+                log.warn("Création d'index impossible ({}): {}", ddl, e.getMessage());
+            }
+        }
+        log.info("{} index avis vérifiés", INDEXES.size());
+    }
+}
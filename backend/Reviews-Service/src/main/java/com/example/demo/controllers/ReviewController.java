@@ -1,41 +1,52 @@
 package com.example.demo.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.demo.dtos.BatchRatingStatsRequest;
 import com.example.demo.dtos.CanReviewResponse;
 import com.example.demo.dtos.CreateReviewRequest;
 import com.example.demo.dtos.ProductReviewStats;
+import com.example.demo.dtos.RatingSummaryResponse;
 import com.example.demo.dtos.ReviewResponse;
+import com.example.demo.dtos.ReviewSearchResponse;
 import com.example.demo.dtos.UpdateReviewRequest;
 import com.example.demo.exceptions.ErrorResponse;
 import com.example.demo.exceptions.InvalidFileException;
-import com.example.demo.service.FileStorageService;
+import com.example.demo.service.ImageServingService;
+import com.example.demo.service.PurchaseVerificationService;
+import com.example.demo.service.ReviewArchiveService;
 import com.example.demo.service.ReviewService;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/reviews")
 @RequiredArgsConstructor
 public class ReviewController {
     
+    // Recherche : au-delà, l'offset (page × size) n'a plus de sens pour un classement par pertinence
+    private static final int MAX_SEARCH_PAGE = 1000;
+    
     private final ReviewService reviewService;
-    private final FileStorageService fileStorageService;
+    private final ImageServingService imageServingService;
+    private final PurchaseVerificationService purchaseVerificationService;
+    private final ReviewArchiveService reviewArchiveService;
     
     /**
      * Créer un avis SANS image (image optionnelle ajoutée après)
@@ -99,30 +110,10 @@ public class ReviewController {
      * Servir les images (IMPORTANT pour afficher les images)
      */
     @GetMapping("/images/{filename:.+}")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
-        try {
-            Resource resource = fileStorageService.loadFileAsResource(filename);
-            
-            // Déterminer le content type
-            String contentType = "image/jpeg"; // Par défaut
-            try {
-                contentType = Files.probeContentType(
-                    Paths.get(resource.getFile().getAbsolutePath()));
-            } catch (IOException e) {
-                // Utiliser le type par défaut
-            }
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                           "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-                    
-        } catch (FileNotFoundException e) {
-            return ResponseEntity.notFound().build();
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public void getImage(@PathVariable String filename,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        imageServingService.serve(filename, request, response);
     }
     
     @PutMapping("/{reviewId}")
@@ -152,10 +143,39 @@ public class ReviewController {
     public ResponseEntity<Page<ReviewResponse>> getProductReviews(
             @PathVariable Long productId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "recent") String sort,
+            WebRequest webRequest) {
+        if (!"recent".equals(sort) && !"helpful".equals(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String etag = reviewService.getProductReviewsETag(productId, sort, page, size);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
-        Page<ReviewResponse> reviews = reviewService.getProductReviews(productId, pageable);
-        return ResponseEntity.ok(reviews);
+        Page<ReviewResponse> reviews = reviewService.getProductReviews(productId, "helpful".equals(sort), pageable);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(reviews);
+    }
+    
+    /**
+     * Vote "cet avis vous a-t-il été utile" (un par client), compteurs mis à jour par lots
+     */
+    @PostMapping("/{reviewId}/helpful")
+    public ResponseEntity<Map<String, Object>> voteHelpful(
+            @PathVariable Long reviewId,
+            @RequestParam Long clientId,
+            @RequestParam(defaultValue = "true") boolean helpful) {
+        boolean accepted = reviewService.voteHelpful(reviewId, clientId, helpful);
+        return ResponseEntity.status(accepted ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(Map.of("reviewId", reviewId, "accepted", accepted));
     }
     
     @GetMapping("/client/{clientId}")
@@ -174,6 +194,32 @@ public class ReviewController {
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * Recherche plein texte dans les avis, filtrable par produit et par note
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ReviewSearchResponse> searchReviews(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Integer minRating,
+            @RequestParam(required = false) Integer maxRating,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        if (query.isBlank() || page < 0 || page > MAX_SEARCH_PAGE || size <= 0 || size > 50) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(reviewService.searchReviews(query, productId, minRating, maxRating, page, size));
+    }
+    
+    /**
+     * Résumés de notes de plusieurs produits (500 max) en une réponse, pour les grilles du catalogue
+     */
+    @PostMapping("/stats/batch")
+    public ResponseEntity<List<RatingSummaryResponse>> getBatchStats(
+            @Valid @RequestBody BatchRatingStatsRequest request) {
+        return ResponseEntity.ok(reviewService.getBatchStats(request.getProductIds()));
+    }
+    
     @GetMapping("/can-review")
     public ResponseEntity<CanReviewResponse> canClientReview(
             @RequestParam Long clientId,
@@ -183,6 +229,27 @@ public class ReviewController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Reconstruction complète de l'index des achats depuis l'export d'Orders-Service
+     */
+    @PostMapping("/admin/purchases/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildPurchaseIndex() {
+        return ResponseEntity.ok(purchaseVerificationService.rebuildFromExport());
+    }
+    
+    @GetMapping("/admin/purchases/stats")
+    public ResponseEntity<Map<String, Object>> getPurchaseIndexStats() {
+        return ResponseEntity.ok(purchaseVerificationService.getStats());
+    }
+    
+    /**
+     * Archivage immédiat des avis supprimés depuis plus que la rétention
+     */
+    @PostMapping("/admin/archive")
+    public ResponseEntity<Map<String, Object>> archiveInactiveReviews() {
+        return ResponseEntity.ok(Map.of("archivedCount", reviewArchiveService.archiveInactiveReviews()));
+    }
+    
     /**
      * Exception handler pour les erreurs de fichiers
      */
@@ -0,0 +1,18 @@
+package com.example.demo.dtos;
+
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRatingStatsRequest {
+    
+    @NotEmpty(message = "La liste des produits est obligatoire")
+    @Size(max = 500, message = "500 produits maximum par requête")
+    private List<@NotNull Long> productIds;
+}
@@ -0,0 +1,19 @@
+package com.example.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Ligne de GET /orders/admin/export/delivered (Orders-Service)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DeliveredPurchaseExport {
+    private Long orderId;
+    private Long clientId;
+    private List<Long> productIds;
+}
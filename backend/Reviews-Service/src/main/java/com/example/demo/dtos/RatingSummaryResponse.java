@@ -0,0 +1,21 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résumé compact pour les grilles produits : moyenne arrondie, total et répartition
+ * des notes (stars[0] = 1 étoile ... stars[4] = 5 étoiles).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingSummaryResponse {
+    private Long productId;
+    private double average;
+    private long count;
+    private long[] stars;
+}
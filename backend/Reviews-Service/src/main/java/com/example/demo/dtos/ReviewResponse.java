@@ -21,4 +21,6 @@ public class ReviewResponse {
     private String imageUrl;
     private Boolean verified;
     private LocalDateTime createdAt;
+    private Integer helpfulCount;
+    private Integer unhelpfulCount;
 }
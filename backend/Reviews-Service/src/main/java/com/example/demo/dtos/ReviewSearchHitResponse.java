@@ -0,0 +1,16 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewSearchHitResponse {
+    private ReviewResponse review;
+    private float score;
+    private String highlight; // Extrait HTML échappé, termes trouvés entre <em></em>
+}
@@ -0,0 +1,61 @@
+package com.example.demo.entities;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Avis supprimé (soft delete) depuis plus que la rétention, déplacé hors de la table reviews.
+ * L'id est celui de l'avis d'origine ; alimenté uniquement par ArchivedReviewRepository.
+ */
+@Entity
+@Table(name = "reviews_archive", indexes = {
+    @Index(name = "idx_reviews_archive_client", columnList = "client_id"),
+    @Index(name = "idx_reviews_archive_product", columnList = "product_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedReview {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+    
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(nullable = false)
+    private Integer rating;
+    
+    @Column(columnDefinition = "TEXT")
+    private String comment;
+    
+    @Column(name = "image_path", length = 500)
+    private String imagePath;
+    
+    @Column(nullable = false)
+    private Boolean verified;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @Column(name = "helpful_count", nullable = false)
+    private Integer helpfulCount;
+    
+    @Column(name = "unhelpful_count", nullable = false)
+    private Integer unhelpfulCount;
+    
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
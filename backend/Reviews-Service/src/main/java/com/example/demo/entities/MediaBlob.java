@@ -0,0 +1,35 @@
+package com.example.demo.entities;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Image stockée par contenu : la clé est le SHA-256 du fichier,
+ * refCount le nombre d'avis qui y font référence.
+ */
+@Entity
+@Table(name = "media_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlob {
+    
+    @Id
+    @Column(length = 64)
+    private String hash;
+    
+    @Column(nullable = false, length = 32)
+    private String extension;
+    
+    @Column(name = "size_bytes", nullable = false)
+    private Long sizeBytes;
+    
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
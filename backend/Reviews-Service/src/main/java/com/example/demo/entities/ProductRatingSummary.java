@@ -0,0 +1,48 @@
+package com.example.demo.entities;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs de notes d'un produit (avis actifs uniquement), maintenus par deltas
+ * dans la même transaction que l'écriture de l'avis.
+ */
+@Entity
+@Table(name = "product_rating_summary")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingSummary {
+    
+    @Id
+    private Long productId;
+    
+    @Column(nullable = false)
+    private long oneStar;
+    
+    @Column(nullable = false)
+    private long twoStars;
+    
+    @Column(nullable = false)
+    private long threeStars;
+    
+    @Column(nullable = false)
+    private long fourStars;
+    
+    @Column(nullable = false)
+    private long fiveStars;
+    
+    @Column(nullable = false)
+    private long ratingSum; // Somme des notes, pour la moyenne
+    
+    private LocalDateTime updatedAt;
+    
+    public long getTotalReviews() {
+        return oneStar + twoStars + threeStars + fourStars + fiveStars;
+    }
+}
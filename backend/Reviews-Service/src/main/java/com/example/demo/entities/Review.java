@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -47,7 +48,24 @@ public class Review {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
     
     @Column(nullable = false)
     private Boolean active = true; // Pour soft delete
+    
+    // Votes d'utilité : écrits uniquement par le flush groupé de HelpfulnessService,
+    // jamais par la sauvegarde de l'entité (qui écraserait les compteurs)
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer helpfulCount;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Integer unhelpfulCount;
+    
+    // Borne basse de Wilson (95 %) de la part de votes utiles : clé de tri "plus utiles"
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Double helpfulScore;
 }
\ No newline at end of file
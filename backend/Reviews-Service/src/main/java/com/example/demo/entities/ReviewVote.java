@@ -0,0 +1,43 @@
+package com.example.demo.entities;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Vote "cet avis vous a-t-il été utile" : un par client et par avis (clé primaire).
+ * Écrit par lots en JDBC (HelpfulnessService), jamais par l'entité.
+ */
+@Entity
+@Table(name = "review_votes")
+@IdClass(ReviewVote.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewVote {
+    
+    @Id
+    @Column(name = "review_id")
+    private Long reviewId;
+    
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+    
+    @Column(nullable = false)
+    private Boolean helpful;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long reviewId;
+        private Long clientId;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.exceptions;
+
+public class PurchaseVerificationUnavailableException extends RuntimeException {
+    public PurchaseVerificationUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.exceptions;
+
+public class SearchUnavailableException extends RuntimeException {
+    public SearchUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.helpful;
+
+import java.util.Arrays;
+
+/**
+ * Votes "utile / pas utile" en attente d'écriture, répartis sur plusieurs bandes choisies
+ * par thread : une rafale de votes sur un avis populaire ne se dispute presque jamais le
+ * même verrou. Chaque bande accumule des triplets (avis, client, utile) dans des tableaux
+ * primitifs, vidés périodiquement par {@link #drainTo}.
+ */
+public class StripedVoteBuffer {
+
+    @FunctionalInterface
+    public interface VoteConsumer {
+        void accept(long reviewId, long clientId, boolean helpful);
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public StripedVoteBuffer(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+    }
+
+    public void add(long reviewId, long clientId, boolean helpful) {
+        long threadId = Thread.currentThread().threadId();
+        stripes[(int) ((threadId ^ (threadId >>> 16)) & mask)].add(reviewId, clientId, helpful);
+    }
+
+    /**
+     * Transmet puis vide toutes les bandes ; les votes arrivés après l'échange d'une bande
+     * seront vus au prochain appel.
+     */
+    public void drainTo(VoteConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            long[] reviews;
+            long[] clients;
+            boolean[] helpful;
+            int size;
+            synchronized (stripe) {
+                if (stripe.size == 0) {
+                    continue;
+                }
+                reviews = stripe.reviews;
+                clients = stripe.clients;
+                helpful = stripe.helpful;
+                size = stripe.size;
+                stripe.reset(INITIAL_CAPACITY);
+            }
+            for (int i = 0; i < size; i++) {
+                consumer.accept(reviews[i], clients[i], helpful[i]);
+            }
+        }
+    }
+
+    private static final class Stripe {
+        long[] reviews;
+        long[] clients;
+        boolean[] helpful;
+        int size;
+
+        Stripe() {
+            reset(INITIAL_CAPACITY);
+        }
+
+        void reset(int capacity) {
+            reviews = new long[capacity];
+            clients = new long[capacity];
+            helpful = new boolean[capacity];
+            size = 0;
+        }
+
+        synchronized void add(long reviewId, long clientId, boolean isHelpful) {
+            if (size == reviews.length) {
+                int capacity = reviews.length * 2;
+                reviews = Arrays.copyOf(reviews, capacity);
+                clients = Arrays.copyOf(clients, capacity);
+                helpful = Arrays.copyOf(helpful, capacity);
+            }
+            reviews[size] = reviewId;
+            clients[size] = clientId;
+            helpful[size] = isHelpful;
+            size++;
+        }
+    }
+}
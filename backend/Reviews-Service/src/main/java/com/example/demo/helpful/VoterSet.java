@@ -0,0 +1,89 @@
+package com.example.demo.helpful;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble compact des votes déjà acceptés : une empreinte de 64 bits par couple
+ * (avis, client), rangée dans des tableaux de long à adressage ouvert (8 octets par vote,
+ * aucun objet). Sert à rejeter en mémoire les votes répétés d'une rafale ; la clé primaire
+ * de review_votes reste l'arbitre (autres instances, votes antérieurs au démarrage).
+ *
+ * Découpé en segments verrouillés séparément. Un segment plein est vidé plutôt
+ * qu'agrandi : la mémoire reste bornée, la base rattrape les doublons éventuels.
+ */
+public class VoterSet {
+
+    private static final int SEGMENTS = 16;
+    private static final float MAX_LOAD = 0.6f;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public VoterSet(int maxEntries) {
+        int perSegment = Math.max(64, maxEntries / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * @return true si le vote n'était pas encore connu (il est alors enregistré)
+     */
+    public boolean addIfAbsent(long reviewId, long clientId) {
+        long fingerprint = fingerprint(reviewId, clientId);
+        return segments[(int) (fingerprint >>> 60)].addIfAbsent(fingerprint);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static final class Segment {
+        private final int maxEntries;
+        private final long[] slots;
+        private int size;
+
+        Segment(int maxEntries) {
+            this.maxEntries = maxEntries;
+            int needed = (int) Math.ceil(maxEntries / MAX_LOAD);
+            this.slots = new long[Integer.highestOneBit(needed - 1) << 1];
+        }
+
+        synchronized boolean addIfAbsent(long fingerprint) {
+            int mask = slots.length - 1;
+            int slot = (int) fingerprint & mask;
+            while (slots[slot] != 0) {
+                if (slots[slot] == fingerprint) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (size == maxEntries) {
+                Arrays.fill(slots, 0L);
+                size = 0;
+                slot = (int) fingerprint & mask;
+            }
+            slots[slot] = fingerprint;
+            size++;
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+    }
+
+    // Finaliseur de MurmurHash3 ; 0 est réservé aux emplacements libres
+    static long fingerprint(long reviewId, long clientId) {
+        long h = reviewId * 0x9E3779B97F4A7C15L + clientId;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h != 0 ? h : 1L;
+    }
+}
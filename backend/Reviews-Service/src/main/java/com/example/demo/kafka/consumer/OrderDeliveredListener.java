@@ -0,0 +1,51 @@
+package com.example.demo.kafka.consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.events.OrderDeliveredEvent;
+import com.example.demo.service.PurchaseVerificationService;
+
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Alimente l'index local des achats livrés.
+ * Chaque instance a son propre groupId et se positionne sur les offsets de son snapshot :
+ * l'index ne dépend pas des offsets commités dans Kafka.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderDeliveredListener implements ConsumerSeekAware {
+
+    private static final String GROUP_ID = "${reviews.purchases.group-id:reviews-purchases-${HOSTNAME:local}}";
+
+    private final PurchaseVerificationService purchaseVerificationService;
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            OptionalLong offset = purchaseVerificationService.nextOffset(partition.partition());
+            if (offset.isPresent()) {
+                callback.seek(partition.topic(), partition.partition(), offset.getAsLong());
+            } else {
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            }
+        }
+    }
+
+    @KafkaListener(topics = "order-delivered", groupId = GROUP_ID)
+    public void handleOrderDelivered(OrderDeliveredEvent event,
+                                     @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                                     @Header(KafkaHeaders.OFFSET) long offset) {
+        log.debug("📬 Commande livrée reçue: {}", event.getOrderId());
+        purchaseVerificationService.onOrderDelivered(event, partition, offset);
+    }
+}
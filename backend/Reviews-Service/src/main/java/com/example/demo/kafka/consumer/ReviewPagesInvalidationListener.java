@@ -0,0 +1,28 @@
+package com.example.demo.kafka.consumer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.events.ReviewPagesInvalidationEvent;
+import com.example.demo.service.ProductReviewsPageCache;
+
+/**
+ * Diffusion des invalidations du cache des pages d'avis : un groupId par instance pour que
+ * chaque réplica reçoive tous les messages, et lecture depuis la fin du topic uniquement
+ * (un cache vide au démarrage n'a rien à invalider).
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewPagesInvalidationListener {
+
+    private final ProductReviewsPageCache productReviewsPageCache;
+
+    @KafkaListener(
+            topics = ProductReviewsPageCache.INVALIDATION_TOPIC,
+            groupId = "${reviews.product-pages.cache.group-id:reviews-pages-${HOSTNAME:local}}",
+            properties = {"auto.offset.reset=latest"})
+    public void handleInvalidation(ReviewPagesInvalidationEvent event) {
+        productReviewsPageCache.onRemoteInvalidation(event);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.demo.purchases;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index des achats livrés : (clientId, productId) -> orderId.
+ *
+ * Table à adressage ouvert sur trois tableaux de long (aucun objet par entrée, ~24 octets
+ * par slot), précédée d'un filtre de Bloom par blocs : les k bits d'une clé tombent dans
+ * le même mot de 64 bits, un « pas acheté » (cas le plus fréquent) coûte un seul accès
+ * mémoire. Le filtre est redimensionné avec la table, son taux de faux positifs reste
+ * autour de 1 %.
+ *
+ * Les ids valides sont strictement positifs : 0 marque un slot vide.
+ * Thread-safe : lectures concurrentes, écritures exclusives.
+ */
+public class PurchaseIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x50555258;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final float MAX_LOAD = 0.7f;
+    private static final int BLOOM_BITS_PER_SLOT = 10;
+    private static final int BLOOM_HASHES = 5;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] clients;
+    private long[] products;
+    private long[] orders;
+    private long[] bloom;
+    private int size;
+
+    public PurchaseIndex() {
+        this(1024);
+    }
+
+    public PurchaseIndex(int expectedEntries) {
+        allocate(tableCapacityFor(expectedEntries));
+    }
+
+    // ==================== ÉCRITURE ====================
+
+    /**
+     * Enregistre un achat ; la première commande connue pour la paire est conservée.
+     *
+     * @return true si la paire était absente
+     */
+    public boolean add(long clientId, long productId, long orderId) {
+        if (clientId <= 0 || productId <= 0 || orderId <= 0) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > clients.length * MAX_LOAD) {
+                resize(clients.length * 2);
+            }
+            return insert(clientId, productId, orderId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean insert(long clientId, long productId, long orderId) {
+        long hash = hash(clientId, productId);
+        int mask = clients.length - 1;
+        int slot = (int) hash & mask;
+        while (clients[slot] != 0) {
+            if (clients[slot] == clientId && products[slot] == productId) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        clients[slot] = clientId;
+        products[slot] = productId;
+        orders[slot] = orderId;
+        size++;
+        bloomAdd(hash);
+        return true;
+    }
+
+    private void resize(int capacity) {
+        long[] oldClients = clients;
+        long[] oldProducts = products;
+        long[] oldOrders = orders;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldClients.length; i++) {
+            if (oldClients[i] != 0) {
+                insert(oldClients[i], oldProducts[i], oldOrders[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        clients = new long[capacity];
+        products = new long[capacity];
+        orders = new long[capacity];
+        bloom = new long[Math.max(1, capacity * BLOOM_BITS_PER_SLOT / 64)];
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * @return l'id de la commande livrée contenant ce produit, 0 si aucun achat connu
+     */
+    public long findOrderId(long clientId, long productId) {
+        lock.readLock().lock();
+        try {
+            long hash = hash(clientId, productId);
+            if (!bloomMightContain(hash)) {
+                return 0L;
+            }
+            int mask = clients.length - 1;
+            int slot = (int) hash & mask;
+            while (clients[slot] != 0) {
+                if (clients[slot] == clientId && products[slot] == productId) {
+                    return orders[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return 0L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) clients.length * 3 * Long.BYTES + (long) bloom.length * Long.BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== FILTRE DE BLOOM ====================
+
+    // Mot choisi par les bits hauts, positions dans le mot par tranches de 6 bits du hash remélangé
+    private void bloomAdd(long hash) {
+        bloom[bloomWord(hash)] |= bloomMask(hash);
+    }
+
+    private boolean bloomMightContain(long hash) {
+        long mask = bloomMask(hash);
+        return (bloom[bloomWord(hash)] & mask) == mask;
+    }
+
+    private int bloomWord(long hash) {
+        return (int) ((hash >>> 32) % bloom.length);
+    }
+
+    private static long bloomMask(long hash) {
+        long bits = mix(hash);
+        long mask = 0L;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            mask |= 1L << ((bits >>> (i * 6)) & 63);
+        }
+        return mask;
+    }
+
+    // ==================== HACHAGE ====================
+
+    private static long hash(long clientId, long productId) {
+        return mix(clientId * 0x9E3779B97F4A7C15L + productId);
+    }
+
+    // Finaliseur de MurmurHash3 (64 bits)
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static int tableCapacityFor(int entries) {
+        int needed = (int) Math.ceil(Math.max(16, entries) / MAX_LOAD);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(size);
+            for (int i = 0; i < clients.length; i++) {
+                if (clients[i] != 0) {
+                    out.writeLong(clients[i]);
+                    out.writeLong(products[i]);
+                    out.writeLong(orders[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static PurchaseIndex readFrom(DataInput in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Format de snapshot inconnu");
+        }
+        int count = in.readInt();
+        PurchaseIndex index = new PurchaseIndex(count);
+        for (int i = 0; i < count; i++) {
+            index.insert(in.readLong(), in.readLong(), in.readLong());
+        }
+        return index;
+    }
+}
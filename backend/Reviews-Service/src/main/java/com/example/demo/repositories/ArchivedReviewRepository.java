@@ -0,0 +1,32 @@
+package com.example.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.ArchivedReview;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ArchivedReviewRepository extends JpaRepository<ArchivedReview, Long> {
+    
+    // Déplace un lot d'avis désactivés avant :before vers reviews_archive (et supprime leurs votes)
+    // en une seule instruction ; SKIP LOCKED laisse passer un archivage concurrent.
+    // Les avis jamais modifiés n'ont pas d'updated_at : created_at en tient lieu (index idx_reviews_inactive_modified)
+    @Modifying
+    @Query(value = "WITH batch AS (" +
+            "SELECT id FROM reviews WHERE active = false AND COALESCE(updated_at, created_at) < :before " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED), " +
+            "moved AS (DELETE FROM reviews r USING batch b WHERE r.id = b.id RETURNING r.*), " +
+            "votes AS (DELETE FROM review_votes v USING moved m WHERE v.review_id = m.id) " +
+            "INSERT INTO reviews_archive (id, client_id, product_id, order_id, rating, comment, image_path, " +
+            "verified, created_at, updated_at, helpful_count, unhelpful_count, archived_at) " +
+            "SELECT id, client_id, product_id, order_id, rating, comment, image_path, " +
+            "verified, created_at, updated_at, helpful_count, unhelpful_count, now() FROM moved " +
+            "ON CONFLICT (id) DO NOTHING",
+            nativeQuery = true)
+    int archiveInactiveBatch(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
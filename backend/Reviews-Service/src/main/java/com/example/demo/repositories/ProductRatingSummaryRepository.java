@@ -0,0 +1,71 @@
+package com.example.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.ProductRatingSummary;
+
+@Repository
+public interface ProductRatingSummaryRepository extends JpaRepository<ProductRatingSummary, Long> {
+    
+    // Applique un delta (+1 / -1) sur le compteur d'une note : upsert atomique, sans lecture préalable
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_summary AS s " +
+            "(product_id, one_star, two_stars, three_stars, four_stars, five_stars, rating_sum, updated_at) " +
+            "VALUES (:productId, " +
+            "CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+            "CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+            "CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+            "CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+            "CASE WHEN :rating = 5 THEN :delta ELSE 0 END, " +
+            ":rating * :delta, now()) " +
+            "ON CONFLICT (product_id) DO UPDATE SET " +
+            "one_star = s.one_star + EXCLUDED.one_star, " +
+            "two_stars = s.two_stars + EXCLUDED.two_stars, " +
+            "three_stars = s.three_stars + EXCLUDED.three_stars, " +
+            "four_stars = s.four_stars + EXCLUDED.four_stars, " +
+            "five_stars = s.five_stars + EXCLUDED.five_stars, " +
+            "rating_sum = s.rating_sum + EXCLUDED.rating_sum, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int applyDelta(@Param("productId") Long productId, @Param("rating") int rating, @Param("delta") int delta);
+    
+    // Verrou consultatif de transaction : partagé par les deltas, exclusif pour le recalcul complet
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock_shared(:key)) l", nativeQuery = true)
+    Integer lockShared(@Param("key") long key);
+    
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) l", nativeQuery = true)
+    Integer lockExclusive(@Param("key") long key);
+    
+    // Recalcul complet depuis les avis actifs (correction de dérive)
+    @Modifying
+    @Query(value = "INSERT INTO product_rating_summary AS s " +
+            "(product_id, one_star, two_stars, three_stars, four_stars, five_stars, rating_sum, updated_at) " +
+            "SELECT r.product_id, " +
+            "COUNT(*) FILTER (WHERE r.rating = 1), " +
+            "COUNT(*) FILTER (WHERE r.rating = 2), " +
+            "COUNT(*) FILTER (WHERE r.rating = 3), " +
+            "COUNT(*) FILTER (WHERE r.rating = 4), " +
+            "COUNT(*) FILTER (WHERE r.rating = 5), " +
+            "COALESCE(SUM(r.rating), 0), now() " +
+            "FROM reviews r WHERE r.active = true GROUP BY r.product_id " +
+            "ON CONFLICT (product_id) DO UPDATE SET " +
+            "one_star = EXCLUDED.one_star, two_stars = EXCLUDED.two_stars, three_stars = EXCLUDED.three_stars, " +
+            "four_stars = EXCLUDED.four_stars, five_stars = EXCLUDED.five_stars, rating_sum = EXCLUDED.rating_sum, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "WHERE (s.one_star, s.two_stars, s.three_stars, s.four_stars, s.five_stars, s.rating_sum) " +
+            "IS DISTINCT FROM (EXCLUDED.one_star, EXCLUDED.two_stars, EXCLUDED.three_stars, " +
+            "EXCLUDED.four_stars, EXCLUDED.five_stars, EXCLUDED.rating_sum)",
+            nativeQuery = true)
+    int rebuildAll();
+    
+    // Produits dont tous les avis ont été supprimés depuis
+    @Modifying
+    @Query(value = "DELETE FROM product_rating_summary s WHERE NOT EXISTS " +
+            "(SELECT 1 FROM reviews r WHERE r.product_id = s.product_id AND r.active = true)",
+            nativeQuery = true)
+    int deleteOrphans();
+}
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import com.example.demo.entities.Review;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +25,9 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     // Récupérer tous les avis d'un produit (actifs seulement)
     Page<Review> findByProductIdAndActiveTrueOrderByCreatedAtDesc(Long productId, Pageable pageable);
     
+    // Avis d'un produit les plus utiles d'abord (index partiel product_id, helpful_score, id)
+    Page<Review> findByProductIdAndActiveTrueOrderByHelpfulScoreDescIdDesc(Long productId, Pageable pageable);
+    
     // Récupérer tous les avis d'un client
     Page<Review> findByClientIdAndActiveTrueOrderByCreatedAtDesc(Long clientId, Pageable pageable);
     
@@ -44,6 +48,19 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     Page<Review> findByProductIdAndVerifiedTrueAndActiveTrueOrderByCreatedAtDesc(
         Long productId, Pageable pageable);
     
+    // Version de la liste des avis d'un produit (ETag), sur les avis actifs (index partiel) :
+    // une suppression change le nombre, une création ou une modification le max d'updatedAt
+    @Query("SELECT COUNT(r), MAX(COALESCE(r.updatedAt, r.createdAt)) FROM Review r WHERE r.productId = :productId AND r.active = true")
+    List<Object[]> findProductReviewsVersion(@Param("productId") Long productId);
+    
+    // Index de recherche : parcours par clé (id) des avis actifs
+    @Query("SELECT r FROM Review r WHERE r.active = true AND r.id > :afterId ORDER BY r.id")
+    List<Review> findActiveBatch(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Avis créés, modifiés ou désactivés depuis une date (rattrapage après chargement d'un snapshot)
+    @Query("SELECT r FROM Review r WHERE COALESCE(r.updatedAt, r.createdAt) > :since")
+    List<Review> findModifiedSince(@Param("since") LocalDateTime since);
+    
     // Vérifier si un client a acheté un produit via une commande
     boolean existsByClientIdAndProductIdAndOrderIdAndActiveTrue(
         Long clientId, Long productId, Long orderId);
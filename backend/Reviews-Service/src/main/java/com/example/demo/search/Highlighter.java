@@ -0,0 +1,94 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extrait d'un commentaire centré sur le premier terme trouvé, termes entourés de
+ * &lt;em&gt;. Le texte est échappé (HTML) : l'extrait peut être inséré tel quel.
+ */
+public final class Highlighter {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final String OPEN = "<em>";
+    private static final String CLOSE = "</em>";
+    private static final String ELLIPSIS = "…";
+
+    private Highlighter() {
+    }
+
+    public static String highlight(String text, String query, int maxLength) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        Set<String> terms = new HashSet<>(ReviewSearchIndex.tokenize(query));
+        List<int[]> matches = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            if (terms.contains(ReviewSearchIndex.normalize(matcher.group()))) {
+                matches.add(new int[] { matcher.start(), matcher.end() });
+            }
+        }
+
+        int start = 0;
+        int end = text.length();
+        if (text.length() > maxLength) {
+            int anchor = matches.isEmpty() ? 0 : matches.get(0)[0];
+            start = Math.max(0, anchor - maxLength / 4);
+            end = Math.min(text.length(), start + maxLength);
+            start = Math.max(0, end - maxLength);
+            // Coupure sur un espace pour ne pas tronquer de mot
+            if (start > 0) {
+                int space = text.indexOf(' ', start);
+                if (space >= 0 && space < anchor) {
+                    start = space + 1;
+                }
+            }
+            if (end < text.length()) {
+                int space = text.lastIndexOf(' ', end);
+                if (space > start) {
+                    end = space;
+                }
+            }
+        }
+
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append(ELLIPSIS);
+        }
+        int position = start;
+        for (int[] match : matches) {
+            if (match[0] < start || match[1] > end) {
+                continue;
+            }
+            escape(text, position, match[0], snippet);
+            snippet.append(OPEN);
+            escape(text, match[0], match[1], snippet);
+            snippet.append(CLOSE);
+            position = match[1];
+        }
+        escape(text, position, end, snippet);
+        if (end < text.length()) {
+            snippet.append(ELLIPSIS);
+        }
+        return snippet.toString();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package com.example.demo.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur le commentaire des avis actifs.
+ *
+ * Chaque avis reçoit un docId interne croissant ; les postings sont des tableaux d'int
+ * (docId, fréquence) triés par construction. Une mise à jour supprime logiquement
+ * l'ancien docId (bitset) et en ajoute un nouveau ; l'index est compacté quand la
+ * proportion de docs supprimés devient trop importante. Le classement utilise BM25 ;
+ * chaque liste tient le nombre de ses docs vivants (décrémenté à la suppression via les
+ * termes du doc), l'IDF ne dépend donc pas des docs supprimés en attente de compactage.
+ *
+ * Le coût d'une requête ne dépend pas du nombre total d'avis : sans filtre produit, les
+ * postings des termes sont fusionnés doc par doc (aucun tableau à la taille du corpus) ;
+ * avec un filtre produit, seuls les avis de ce produit sont parcourus et chaque terme est
+ * cherché par dichotomie dans ses postings.
+ *
+ * Thread-safe : lectures concurrentes, écritures exclusives.
+ */
+public class ReviewSearchIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x52534958;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final double COMPACT_RATIO = 0.25;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "de", "des", "du", "un", "une", "et", "en", "pour", "avec", "sur", "au", "aux",
+            "est", "il", "elle", "ce", "ca", "je", "tres", "pas", "que", "qui",
+            "the", "a", "an", "and", "of", "for", "with", "to", "in", "on", "is", "it", "this", "very");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docIdByReview = new HashMap<>();
+    private final Map<Long, IntList> docsByProduct = new HashMap<>();
+    private final List<DocEntry> docs = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private long totalLength;
+
+    // ==================== ÉCRITURE ====================
+
+    public void index(SearchDocument doc) {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        for (String token : tokenize(doc.getComment())) {
+            termFreqs.merge(token, 1, Integer::sum);
+        }
+        int length = termFreqs.values().stream().mapToInt(Integer::intValue).sum();
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(doc.getReviewId());
+            if (length == 0) {
+                return; // sans commentaire, aucune requête ne peut le trouver
+            }
+            int docId = docs.size();
+            Postings[] terms = new Postings[termFreqs.size()];
+            int t = 0;
+            for (Map.Entry<String, Integer> e : termFreqs.entrySet()) {
+                Postings list = postings.computeIfAbsent(e.getKey(), k -> new Postings());
+                list.add(docId, e.getValue());
+                terms[t++] = list;
+            }
+            docs.add(new DocEntry(doc.getReviewId(), doc.getProductId(), (byte) doc.getRating(), length, terms));
+            docIdByReview.put(doc.getReviewId(), docId);
+            docsByProduct.computeIfAbsent(doc.getProductId(), p -> new IntList()).add(docId);
+            totalLength += length;
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long reviewId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(reviewId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long reviewId) {
+        Integer docId = docIdByReview.remove(reviewId);
+        if (docId != null) {
+            DocEntry entry = docs.get(docId);
+            IntList productDocs = docsByProduct.get(entry.productId);
+            if (productDocs != null && productDocs.remove(docId) && productDocs.size == 0) {
+                docsByProduct.remove(entry.productId);
+            }
+            for (Postings list : entry.terms) {
+                list.live--;
+            }
+            deleted.set(docId);
+            totalLength -= entry.length;
+            docs.set(docId, null);
+        }
+    }
+
+    // Réécrit les postings sans les docs supprimés, avec des docIds contigus (l'ordre est conservé)
+    private void compactIfNeeded() {
+        int dead = deleted.cardinality();
+        if (dead < 1024 || dead < docs.size() * COMPACT_RATIO) {
+            return;
+        }
+        int[] remap = new int[docs.size()];
+        List<DocEntry> live = new ArrayList<>(docs.size() - dead);
+        for (int i = 0; i < docs.size(); i++) {
+            DocEntry entry = docs.get(i);
+            if (entry == null) {
+                remap[i] = -1;
+            } else {
+                remap[i] = live.size();
+                live.add(entry);
+            }
+        }
+        postings.values().removeIf(p -> p.compact(remap) == 0);
+        docs.clear();
+        docs.addAll(live);
+        deleted.clear();
+        rebuildDocMaps();
+    }
+
+    private void rebuildDocMaps() {
+        docIdByReview.clear();
+        docsByProduct.clear();
+        for (int i = 0; i < docs.size(); i++) {
+            DocEntry entry = docs.get(i);
+            docIdByReview.put(entry.reviewId, i);
+            docsByProduct.computeIfAbsent(entry.productId, p -> new IntList()).add(i);
+        }
+    }
+
+    // ==================== RECHERCHE ====================
+
+    public SearchResult search(String query, SearchFilter filter, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new SearchResult(0, Collections.emptyList());
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveCount = docIdByReview.size();
+            if (liveCount == 0) {
+                return new SearchResult(0, Collections.emptyList());
+            }
+            float avgLength = (float) totalLength / liveCount;
+
+            List<Postings> lists = new ArrayList<>(terms.size());
+            List<Double> idfs = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list != null && list.live > 0) {
+                    lists.add(list);
+                    idfs.add(Math.log(1 + (liveCount - list.live + 0.5) / (list.live + 0.5)));
+                }
+            }
+            if (lists.isEmpty()) {
+                return new SearchResult(0, Collections.emptyList());
+            }
+
+            TopHits top = new TopHits(offset + limit);
+            if (filter.getProductId() != null) {
+                searchProduct(filter, lists, idfs, avgLength, top);
+            } else {
+                searchAll(filter, lists, idfs, avgLength, top);
+            }
+            return new SearchResult(top.total, top.page(offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Fusion des postings (triés par docId) : chaque doc candidat est vu une seule fois
+    private void searchAll(SearchFilter filter, List<Postings> lists, List<Double> idfs, float avgLength, TopHits top) {
+        int[] cursors = new int[lists.size()];
+        while (true) {
+            int current = Integer.MAX_VALUE;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings list = lists.get(t);
+                if (cursors[t] < list.size) {
+                    current = Math.min(current, list.docs[cursors[t]]);
+                }
+            }
+            if (current == Integer.MAX_VALUE) {
+                return;
+            }
+            DocEntry entry = docs.get(current);
+            float score = 0f;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings list = lists.get(t);
+                if (cursors[t] < list.size && list.docs[cursors[t]] == current) {
+                    if (entry != null) {
+                        score += bm25(idfs.get(t), list.freqs[cursors[t]], entry.length, avgLength);
+                    }
+                    cursors[t]++;
+                }
+            }
+            if (entry != null && filter.acceptsRating(entry.rating)) {
+                top.offer(entry.reviewId, score);
+            }
+        }
+    }
+
+    // Avis d'un seul produit : parcours de ses docs, fréquence de chaque terme par dichotomie
+    private void searchProduct(SearchFilter filter, List<Postings> lists, List<Double> idfs, float avgLength, TopHits top) {
+        IntList productDocs = docsByProduct.get(filter.getProductId());
+        if (productDocs == null) {
+            return;
+        }
+        for (int i = 0; i < productDocs.size; i++) {
+            int docId = productDocs.values[i];
+            DocEntry entry = docs.get(docId);
+            if (entry == null || !filter.acceptsRating(entry.rating)) {
+                continue;
+            }
+            float score = 0f;
+            boolean matched = false;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings list = lists.get(t);
+                int pos = Arrays.binarySearch(list.docs, 0, list.size, docId);
+                if (pos >= 0) {
+                    score += bm25(idfs.get(t), list.freqs[pos], entry.length, avgLength);
+                    matched = true;
+                }
+            }
+            if (matched) {
+                top.offer(entry.reviewId, score);
+            }
+        }
+    }
+
+    private static float bm25(double idf, int tf, int length, float avgLength) {
+        float norm = K1 * (1 - B + B * length / avgLength);
+        return (float) (idf * (tf * (K1 + 1)) / (tf + norm));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdByReview.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== ANALYSE ====================
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (token.length() >= 2 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    static String normalize(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            // Les docIds sont renumérotés pour ne pas écrire les docs supprimés
+            int[] remap = new int[docs.size()];
+            int next = 0;
+            for (int i = 0; i < docs.size(); i++) {
+                remap[i] = docs.get(i) == null ? -1 : next++;
+            }
+
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(next);
+            for (DocEntry entry : docs) {
+                if (entry != null) {
+                    out.writeLong(entry.reviewId);
+                    out.writeLong(entry.productId);
+                    out.writeByte(entry.rating);
+                    out.writeInt(entry.length);
+                }
+            }
+
+            Map<String, int[][]> livePostings = new LinkedHashMap<>();
+            for (Map.Entry<String, Postings> e : postings.entrySet()) {
+                int[][] pairs = e.getValue().remapped(remap);
+                if (pairs[0].length > 0) {
+                    livePostings.put(e.getKey(), pairs);
+                }
+            }
+            out.writeInt(livePostings.size());
+            for (Map.Entry<String, int[][]> e : livePostings.entrySet()) {
+                int[][] pairs = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeInt(pairs[0].length);
+                for (int i = 0; i < pairs[0].length; i++) {
+                    out.writeInt(pairs[0][i]);
+                    out.writeInt(pairs[1][i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static ReviewSearchIndex readFrom(DataInput in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Format de snapshot inconnu");
+        }
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        int docCount = in.readInt();
+        long[] reviewIds = new long[docCount];
+        long[] productIds = new long[docCount];
+        byte[] ratings = new byte[docCount];
+        int[] lengths = new int[docCount];
+        for (int i = 0; i < docCount; i++) {
+            reviewIds[i] = in.readLong();
+            productIds[i] = in.readLong();
+            ratings[i] = in.readByte();
+            lengths[i] = in.readInt();
+        }
+        int termCount = in.readInt();
+        List<Postings> lists = new ArrayList<>(termCount);
+        int[] termsPerDoc = new int[docCount];
+        for (int t = 0; t < termCount; t++) {
+            String term = in.readUTF();
+            int size = in.readInt();
+            Postings list = new Postings(size);
+            for (int i = 0; i < size; i++) {
+                int docId = in.readInt();
+                list.add(docId, in.readInt());
+                termsPerDoc[docId]++;
+            }
+            index.postings.put(term, list);
+            lists.add(list);
+        }
+
+        // Termes de chaque doc, pour le décompte des docs vivants à la suppression
+        Postings[][] terms = new Postings[docCount][];
+        for (int i = 0; i < docCount; i++) {
+            terms[i] = new Postings[termsPerDoc[i]];
+            termsPerDoc[i] = 0;
+        }
+        for (Postings list : lists) {
+            for (int i = 0; i < list.size; i++) {
+                int docId = list.docs[i];
+                terms[docId][termsPerDoc[docId]++] = list;
+            }
+        }
+        for (int i = 0; i < docCount; i++) {
+            index.docs.add(new DocEntry(reviewIds[i], productIds[i], ratings[i], lengths[i], terms[i]));
+            index.totalLength += lengths[i];
+        }
+        index.rebuildDocMaps();
+        return index;
+    }
+
+    // ==================== STRUCTURES INTERNES ====================
+
+    private static final class DocEntry {
+        final long reviewId;
+        final long productId;
+        final byte rating;
+        final int length;
+        final Postings[] terms;
+
+        DocEntry(long reviewId, long productId, byte rating, int length, Postings[] terms) {
+            this.reviewId = reviewId;
+            this.productId = productId;
+            this.rating = rating;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    // Top (offset + limit) par tas min, à égalité l'avis le plus récent (id le plus grand) d'abord
+    private static final class TopHits {
+        final int wanted;
+        final PriorityQueue<SearchHit> heap;
+        long total;
+
+        TopHits(int wanted) {
+            this.wanted = wanted;
+            this.heap = new PriorityQueue<>(Math.max(1, wanted), TopHits::compareAscending);
+        }
+
+        void offer(long reviewId, float score) {
+            total++;
+            if (wanted <= 0) {
+                return;
+            }
+            SearchHit hit = new SearchHit(reviewId, score);
+            if (heap.size() < wanted) {
+                heap.add(hit);
+            } else if (compareAscending(hit, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<SearchHit> page(int offset, int limit) {
+            List<SearchHit> ranked = new ArrayList<>(heap);
+            ranked.sort((a, b) -> compareAscending(b, a));
+            if (offset >= ranked.size()) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<>(ranked.subList(offset, Math.min(ranked.size(), offset + limit)));
+        }
+
+        static int compareAscending(SearchHit a, SearchHit b) {
+            int byScore = Float.compare(a.getScore(), b.getScore());
+            return byScore != 0 ? byScore : Long.compare(a.getReviewId(), b.getReviewId());
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        // Valeurs triées (docIds croissants) : recherche par dichotomie puis décalage
+        boolean remove(int value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+
+    private static final class Postings {
+        int[] docs;
+        int[] freqs;
+        int size;
+        int live;
+
+        Postings() {
+            this(4);
+        }
+
+        Postings(int capacity) {
+            docs = new int[Math.max(1, capacity)];
+            freqs = new int[Math.max(1, capacity)];
+        }
+
+        void add(int docId, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = docId;
+            freqs[size] = freq;
+            size++;
+            live++;
+        }
+
+        int compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int newId = remap[docs[i]];
+                if (newId >= 0) {
+                    docs[kept] = newId;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            live = kept;
+            return kept;
+        }
+
+        int[][] remapped(int[] remap) {
+            int[] newDocs = new int[size];
+            int[] newFreqs = new int[size];
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int newId = remap[docs[i]];
+                if (newId >= 0) {
+                    newDocs[kept] = newId;
+                    newFreqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            return new int[][] { Arrays.copyOf(newDocs, kept), Arrays.copyOf(newFreqs, kept) };
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.search;
+
+import lombok.Value;
+
+/**
+ * Vue d'un avis telle qu'indexée (capturée dans la transaction, appliquée après commit).
+ */
+@Value
+public class SearchDocument {
+    Long reviewId;
+    Long productId;
+    int rating;
+    String comment;
+}
@@ -0,0 +1,18 @@
+package com.example.demo.search;
+
+import lombok.Value;
+
+/**
+ * Filtres appliqués pendant le parcours (null = pas de filtre).
+ */
+@Value
+public class SearchFilter {
+    Long productId;
+    Integer minRating;
+    Integer maxRating;
+
+    boolean acceptsRating(int rating) {
+        return (minRating == null || rating >= minRating)
+                && (maxRating == null || rating <= maxRating);
+    }
+}
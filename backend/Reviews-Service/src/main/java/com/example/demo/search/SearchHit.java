@@ -0,0 +1,9 @@
+package com.example.demo.search;
+
+import lombok.Value;
+
+@Value
+public class SearchHit {
+    long reviewId;
+    float score;
+}
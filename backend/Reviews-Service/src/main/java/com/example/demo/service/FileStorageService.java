@@ -4,12 +4,13 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -23,33 +24,62 @@ import com.example.demo.exceptions.InvalidFileException;
 import com.example.demo.exceptions.ReviewAlreadyExistsException;
 import com.example.demo.exceptions.ReviewNotFoundException;
 import com.example.demo.exceptions.UnauthorizedException;
+import com.example.demo.repositories.MediaBlobRepository;
 import com.example.demo.repositories.ReviewRepository;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
+/**
+ * Stockage des images d'avis adressé par contenu (SHA-256 calculé pendant la copie).
+ * Les fichiers sont rangés sous ab/cd/ ; une image déjà présente n'est pas réécrite
+ * (elle garde l'extension de son premier dépôt) et n'est effacée qu'à la libération
+ * de sa dernière référence.
+ * Les anciens noms (UUID) restent servis depuis la racine du répertoire.
+ */
 @Service
 @Slf4j
 public class FileStorageService {
     
     private final Path fileStorageLocation;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Sérialise, par hash, le couple (compteur en base, fichier sur disque)
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    
     private static final List<String> ALLOWED_EXTENSIONS = 
         Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
+    private static final Pattern CONTENT_NAME = Pattern.compile("^[0-9a-f]{64}\\..+");
+    private static final int LOCK_STRIPES = 64;
     
     @Autowired
-    public FileStorageService(@Value("${app.upload.dir}") String uploadDir) throws IOException {
+    public FileStorageService(@Value("${app.upload.dir}") String uploadDir,
+                              MediaBlobRepository mediaBlobRepository,
+                              PlatformTransactionManager transactionManager) throws IOException {
         this.fileStorageLocation = Paths.get(uploadDir)
                 .toAbsolutePath()
                 .normalize();
+        this.mediaBlobRepository = mediaBlobRepository;
+        // Le compteur est validé tout de suite, sous le verrou du hash
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
         
         Files.createDirectories(this.fileStorageLocation);
     }
@@ -58,42 +88,90 @@ public class FileStorageService {
         // Validation du fichier
         validateFile(file);
         
-        // Générer un nom unique
         String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String extension = getFileExtension(originalFilename);
-        String newFilename = UUID.randomUUID().toString() + "." + extension;
+        String extension = getFileExtension(originalFilename).toLowerCase();
         
-        // Copier le fichier
-        Path targetLocation = this.fileStorageLocation.resolve(newFilename);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-        
-        log.info("Fichier sauvegardé: {}", newFilename);
-        return newFilename;
+        // Copie dans un fichier temporaire en calculant le hash au passage
+        Path tempDir = this.fileStorageLocation.resolve(".tmp");
+        Files.createDirectories(tempDir);
+        Path tempFile = tempDir.resolve(UUID.randomUUID().toString());
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(tempFile)) {
+                size = in.transferTo(out);
+            }
+            
+            String hash = HexFormat.of().formatHex(digest.digest());
+            
+            synchronized (lockFor(hash)) {
+                // Le même contenu déposé avec une autre extension réutilise le nom déjà enregistré
+                String storedExtension = transactionTemplate.execute(status -> {
+                    mediaBlobRepository.acquire(hash, extension, size);
+                    return mediaBlobRepository.findExtension(hash);
+                });
+                String newFilename = hash + "." + storedExtension;
+                Path targetLocation = resolvePath(newFilename);
+                if (Files.exists(targetLocation)) {
+                    log.info("Fichier déjà présent, référence ajoutée: {}", newFilename);
+                } else {
+                    Files.createDirectories(targetLocation.getParent());
+                    Files.move(tempFile, targetLocation, StandardCopyOption.ATOMIC_MOVE);
+                    log.info("Fichier sauvegardé: {}", newFilename);
+                }
+                return newFilename;
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
     }
     
+    /**
+     * Libère une référence vers l'image : le fichier n'est effacé
+     * que lorsque plus aucun avis ne l'utilise. La libération attend le commit
+     * de la transaction appelante : un avis annulé garde son image.
+     */
     public void deleteFile(String filename) {
+        TransactionCallbacks.afterCommit(() -> release(filename));
+    }
+    
+    private void release(String filename) {
+        if (!CONTENT_NAME.matcher(filename).matches()) {
+            // Ancien nom (UUID) : fichier propre à un seul avis
+            deletePhysical(filename);
+            return;
+        }
+        String hash = filename.substring(0, 64);
+        synchronized (lockFor(hash)) {
+            Integer removed = transactionTemplate.execute(status ->
+                    mediaBlobRepository.decrement(hash) > 0 ? mediaBlobRepository.deleteIfUnreferenced(hash) : 0);
+            if (removed != null && removed > 0) {
+                deletePhysical(filename);
+            } else {
+                log.info("Référence libérée, fichier conservé: {}", filename);
+            }
+        }
+    }
+    
+    private void deletePhysical(String filename) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(filename).normalize();
-            Files.deleteIfExists(filePath);
+            Files.deleteIfExists(resolvePath(filename));
             log.info("Fichier supprimé: {}", filename);
         } catch (IOException e) {
             log.error("Erreur lors de la suppression du fichier: {}", filename, e);
         }
     }
     
-    public Resource loadFileAsResource(String filename) throws IOException {
-        try {
-            Path filePath = this.fileStorageLocation.resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new FileNotFoundException("Fichier non trouvé: " + filename);
-            }
-        } catch (MalformedURLException e) {
-            throw new FileNotFoundException("Fichier non trouvé: " + filename);
+    /**
+     * Chemin physique : ab/cd/ pour les noms adressés par contenu, racine pour les anciens noms.
+     */
+    public Path resolvePath(String filename) {
+        Path root = this.fileStorageLocation;
+        if (CONTENT_NAME.matcher(filename).matches()) {
+            root = root.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4));
         }
+        return root.resolve(filename).normalize();
     }
     
     private void validateFile(MultipartFile file) {
@@ -124,6 +202,18 @@ public class FileStorageService {
         }
     }
     
+    private Object lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+    
     private String getFileExtension(String filename) {
         if (filename == null || filename.isEmpty()) {
             throw new InvalidFileException("Nom de fichier invalide");
@@ -0,0 +1,213 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.helpful.StripedVoteBuffer;
+import com.example.demo.helpful.VoterSet;
+
+import jakarta.annotation.PreDestroy;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Votes "cet avis vous a-t-il été utile" : acceptés en mémoire (un par client et par avis),
+ * mis en tampon sans écriture en base, puis écrits toutes les quelques secondes en une
+ * transaction : insertion groupée dans review_votes (la clé primaire écarte les doublons),
+ * puis une seule mise à jour par avis des compteurs et du score de Wilson.
+ *
+ * Une rafale de votes sur un avis populaire coûte donc une ligne review_votes par vote
+ * et une mise à jour de reviews par intervalle, au lieu d'une mise à jour par vote.
+ * Les pages en cache des produits concernés sont retirées après le commit du lot.
+ */
+@Service
+@Slf4j
+public class HelpfulnessService {
+
+    // Avis inexistant, désactivé ou vote sur son propre avis : ignoré
+    private static final String INSERT_VOTE_SQL =
+            "INSERT INTO review_votes (review_id, client_id, helpful, created_at) " +
+            "SELECT ?, ?, ?, ? WHERE EXISTS (" +
+            "SELECT 1 FROM reviews WHERE id = ? AND active = true AND client_id <> ?) " +
+            "ON CONFLICT DO NOTHING";
+
+    // Deltas appliqués à la version courante de la ligne (pas à un instantané) : deux instances
+    // qui écrivent le même avis en même temps ne perdent aucun vote
+    private static final String UPDATE_COUNTS_SQL =
+            "UPDATE reviews r SET helpful_count = r.helpful_count + d.dh, " +
+            "unhelpful_count = r.unhelpful_count + d.du, updated_at = now(), " +
+            "helpful_score = " + wilsonScore("r.helpful_count + d.dh", "r.unhelpful_count + d.du") + " " +
+            "FROM (SELECT CAST(? AS int) AS dh, CAST(? AS int) AS du) d WHERE r.id = ?";
+    // Recomptage depuis review_votes quand le pilote ne renvoie pas le nombre de lignes insérées
+    private static final String RECOUNT_SQL =
+            "UPDATE reviews r SET helpful_count = c.h, unhelpful_count = c.u, updated_at = now(), " +
+            "helpful_score = " + wilsonScore("c.h", "c.u") + " " +
+            "FROM (SELECT COUNT(*) FILTER (WHERE v.helpful) AS h, COUNT(*) FILTER (WHERE NOT v.helpful) AS u " +
+            "FROM review_votes v WHERE v.review_id = ?) c WHERE r.id = ?";
+    private static final String PRODUCTS_OF_REVIEWS_SQL =
+            "SELECT DISTINCT product_id FROM reviews WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedVoteBuffer buffer;
+    private final VoterSet voters;
+    private final ProductReviewsPageCache productReviewsPageCache;
+
+    public HelpfulnessService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ProductReviewsPageCache productReviewsPageCache,
+                              @Value("${reviews.helpful.stripes:32}") int stripes,
+                              @Value("${reviews.helpful.voter-set-size:4000000}") int voterSetSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new StripedVoteBuffer(stripes);
+        this.voters = new VoterSet(voterSetSize);
+        this.productReviewsPageCache = productReviewsPageCache;
+    }
+
+    // ==================== VOTE ====================
+
+    /**
+     * L'appelant a vérifié que l'avis existe, est actif et n'appartient pas au votant.
+     *
+     * @return false si ce client a déjà voté pour cet avis (vu par cette instance)
+     */
+    public boolean vote(Long reviewId, Long clientId, boolean helpful) {
+        if (!voters.addIfAbsent(reviewId, clientId)) {
+            return false;
+        }
+        buffer.add(reviewId, clientId, helpful);
+        return true;
+    }
+
+    // ==================== ÉCRITURE GROUPÉE ====================
+
+    @Scheduled(fixedDelayString = "${reviews.helpful.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public synchronized void flush() {
+        List<long[]> votes = new ArrayList<>();
+        buffer.drainTo((reviewId, clientId, helpful) ->
+                votes.add(new long[] { reviewId, clientId, helpful ? 1L : 0L }));
+        if (votes.isEmpty()) {
+            return;
+        }
+
+        try {
+            int updated = transactionTemplate.execute(status -> write(votes));
+            log.debug("{} votes d'utilité écrits, {} avis mis à jour", votes.size(), updated);
+        } catch (RuntimeException e) {
+            // Remis en tampon pour le prochain passage
+            votes.forEach(vote -> buffer.add(vote[0], vote[1], vote[2] == 1L));
+            log.warn("Écriture des votes d'utilité impossible ({} en attente): {}", votes.size(), e.getMessage());
+        }
+    }
+
+    private int write(List<long[]> votes) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_VOTE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long[] vote = votes.get(i);
+                ps.setLong(1, vote[0]);
+                ps.setLong(2, vote[1]);
+                ps.setBoolean(3, vote[2] == 1L);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, vote[0]);
+                ps.setLong(6, vote[1]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return votes.size();
+            }
+        });
+
+        // Deltas par avis à partir des seules lignes réellement insérées
+        Map<Long, int[]> deltas = new LinkedHashMap<>();
+        List<Long> recount = new ArrayList<>();
+        for (int i = 0; i < votes.size(); i++) {
+            long[] vote = votes.get(i);
+            if (inserted[i] == Statement.SUCCESS_NO_INFO) {
+                recount.add(vote[0]);
+            } else if (inserted[i] > 0) {
+                deltas.computeIfAbsent(vote[0], id -> new int[2])[vote[2] == 1L ? 0 : 1]++;
+            }
+        }
+        recount.forEach(deltas::remove);
+
+        List<Map.Entry<Long, int[]>> rows = new ArrayList<>(deltas.entrySet());
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_COUNTS_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Map.Entry<Long, int[]> row = rows.get(i);
+                    ps.setInt(1, row.getValue()[0]);
+                    ps.setInt(2, row.getValue()[1]);
+                    ps.setLong(3, row.getKey());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows.size();
+                }
+            });
+        }
+        List<Long> recountIds = recount.stream().distinct().toList();
+        if (!recountIds.isEmpty()) {
+            jdbcTemplate.batchUpdate(RECOUNT_SQL, recountIds, recountIds.size(),
+                    (ps, reviewId) -> {
+                        ps.setLong(1, reviewId);
+                        ps.setLong(2, reviewId);
+                    });
+        }
+        invalidateProductPages(rows, recountIds);
+        return rows.size() + recountIds.size();
+    }
+
+    // Compteurs et score des avis modifiés : leurs produits quittent le cache des pages après commit
+    private void invalidateProductPages(List<Map.Entry<Long, int[]>> rows, List<Long> recountIds) {
+        Set<Long> reviewIds = new HashSet<>(recountIds);
+        rows.forEach(row -> reviewIds.add(row.getKey()));
+        if (reviewIds.isEmpty()) {
+            return;
+        }
+        List<Long> productIds = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(PRODUCTS_OF_REVIEWS_SQL);
+            ps.setArray(1, connection.createArrayOf("bigint", reviewIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+        productReviewsPageCache.invalidateAllAfterCommit(productIds);
+    }
+
+    /**
+     * Borne basse de Wilson à 95 % (z = 1.96) de la part de votes utiles,
+     * en SQL, pour les compteurs donnés par les expressions h et u.
+     */
+    private static String wilsonScore(String h, String u) {
+        String hf = "CAST(" + h + " AS float8)";
+        String n = "CAST((" + h + ") + (" + u + ") AS float8)";
+        return "CASE WHEN (" + h + ") + (" + u + ") = 0 THEN 0 ELSE " +
+                "((" + hf + " + 1.9208) / " + n + " - 1.96 * SQRT(" + hf + " * (" + u + ") / " + n + " + 0.9604) / " + n + ") " +
+                "/ (1 + 3.8416 / " + n + ") END";
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dtos.ReviewResponse;
+import com.example.demo.events.ReviewPagesInvalidationEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache local des premières pages d'avis d'un produit (tri par date décroissante),
+ * ETag compris : une page en cache est servie sans aucune requête.
+ *
+ * Une entrée par produit regroupe ses pages ; la création, la modification ou la
+ * suppression d'un avis retire l'entrée du produit après commit. Une lecture commencée
+ * avant l'invalidation range sa page dans l'entrée retirée, jamais dans la nouvelle.
+ * L'écriture groupée des votes d'utilité retire aussi les produits concernés.
+ * Chaque invalidation est diffusée aux autres instances via le topic
+ * review-pages-invalidation ; le TTL ne borne plus que la perte d'un message.
+ *
+ * Seules quelques tailles de page sont mises en cache (celles des clients) : une entrée
+ * produit contient au plus pages × tailles pages, quelle que soit la taille demandée.
+ */
+@Service
+@Slf4j
+public class ProductReviewsPageCache {
+
+    public static final String INVALIDATION_TOPIC = "review-pages-invalidation";
+
+    private final Cache<Long, ProductPages> cache;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final int cachedPages;
+    private final Set<Integer> cachedPageSizes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ProductReviewsPageCache(MeterRegistry meterRegistry,
+                                   KafkaTemplate<String, Object> kafkaTemplate,
+                                   @Value("${reviews.product-pages.cache.max-products:20000}") long maxProducts,
+                                   @Value("${reviews.product-pages.cache.ttl-seconds:300}") long ttlSeconds,
+                                   @Value("${reviews.product-pages.cache.pages:2}") int cachedPages,
+                                   @Value("${reviews.product-pages.cache.page-sizes:10,20}") List<Integer> cachedPageSizes) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.cachedPages = cachedPages;
+        this.cachedPageSizes = Set.copyOf(cachedPageSizes);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reviews.product.pages");
+
+        // Ratio calculé sur les pages (une entrée produit sert plusieurs pages)
+        this.hits = Counter.builder("reviews.product.pages.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("reviews.product.pages.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("reviews.product.pages.hit.ratio", this, ProductReviewsPageCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    public boolean isCacheable(int page, int size) {
+        return page >= 0 && page < cachedPages && cachedPageSizes.contains(size);
+    }
+
+    /**
+     * Version des avis du produit (partie variable de l'ETag), calculée au plus une fois par entrée.
+     */
+    public String getVersion(Long productId, Supplier<String> versionLoader) {
+        return entry(productId, versionLoader).version;
+    }
+
+    public Page<ReviewResponse> getPage(Long productId, int page, int size,
+                                        Supplier<String> versionLoader,
+                                        Supplier<Page<ReviewResponse>> pageLoader) {
+        ProductPages entry = entry(productId, versionLoader);
+        long key = ((long) page << 32) | size;
+        Page<ReviewResponse> cached = entry.pages.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        Page<ReviewResponse> loaded = pageLoader.get();
+        entry.pages.putIfAbsent(key, loaded);
+        return loaded;
+    }
+
+    public void invalidateAfterCommit(Long productId) {
+        invalidateAllAfterCommit(List.of(productId));
+    }
+
+    /**
+     * Retire les produits après le commit de la transaction courante et prévient les autres instances.
+     */
+    public void invalidateAllAfterCommit(Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                cache.invalidateAll(productIds);
+                broadcast(List.copyOf(productIds));
+            });
+        }
+    }
+
+    /**
+     * Invalidation reçue d'une autre instance (ses propres messages sont ignorés).
+     */
+    public void onRemoteInvalidation(ReviewPagesInvalidationEvent event) {
+        if (instanceId.equals(event.getSourceInstance()) || event.getProductIds() == null) {
+            return;
+        }
+        cache.invalidateAll(event.getProductIds());
+        log.debug("{} produits invalidés par l'instance {}", event.getProductIds().size(), event.getSourceInstance());
+    }
+
+    private void broadcast(List<Long> productIds) {
+        ReviewPagesInvalidationEvent event = ReviewPagesInvalidationEvent.builder()
+                .productIds(productIds)
+                .sourceInstance(instanceId)
+                .build();
+        try {
+            kafkaTemplate.send(INVALIDATION_TOPIC, event).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.warn("Diffusion de l'invalidation des pages impossible: {}", ex.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Diffusion de l'invalidation des pages impossible: {}", e.getMessage());
+        }
+    }
+
+    private ProductPages entry(Long productId, Supplier<String> versionLoader) {
+        return cache.get(productId, id -> new ProductPages(versionLoader.get()));
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total > 0 ? hits.count() / total : 0.0;
+    }
+
+    private static final class ProductPages {
+        final String version;
+        final Map<Long, Page<ReviewResponse>> pages = new ConcurrentHashMap<>();
+
+        ProductPages(String version) {
+            this.version = version;
+        }
+    }
+}
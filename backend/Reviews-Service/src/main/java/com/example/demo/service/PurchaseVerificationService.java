@@ -0,0 +1,292 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.demo.dtos.DeliveredPurchaseExport;
+import com.example.demo.events.OrderDeliveredEvent;
+import com.example.demo.purchases.PurchaseIndex;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Vérification d'achat locale : index (clientId, productId) -> orderId alimenté par les
+ * événements order-delivered.
+ *
+ * Le snapshot sur disque contient l'index et, par partition, le prochain offset à lire :
+ * au redémarrage le consommateur reprend exactement là où le snapshot s'arrête (ou au
+ * début du topic sans snapshot). Une reconstruction complète depuis l'export des
+ * commandes livrées d'Orders-Service couvre la rétention du topic.
+ */
+@Service
+@Slf4j
+public class PurchaseVerificationService {
+
+    private static final String EXPORT_URL =
+            "http://ORDERS-SERVICE/orders/admin/export/delivered?afterId={afterId}&size={size}&archived={archived}";
+
+    private final RestTemplate restTemplate;
+    private final Path snapshotFile;
+    private final int exportPageSize;
+    private final long rebuildRetryInitialMs;
+    private final long rebuildRetryMaxMs;
+
+    private volatile PurchaseIndex index = new PurchaseIndex();
+    private volatile boolean ready;
+    private volatile boolean snapshotLoaded;
+
+    // Prochain offset à lire par partition (cohérent avec l'index écrit dans le snapshot)
+    private final Map<Integer, Long> nextOffsets = new HashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Achats reçus pendant une reconstruction, rejoués sur le nouvel index avant la bascule
+    private final List<long[]> receivedDuringRebuild = new ArrayList<>();
+
+    public PurchaseVerificationService(RestTemplate restTemplate,
+                                       @Value("${reviews.purchases.snapshot-file:data/purchases.idx}") String snapshotFile,
+                                       @Value("${reviews.purchases.export-page-size:2000}") int exportPageSize,
+                                       @Value("${reviews.purchases.rebuild-retry-initial-ms:5000}") long rebuildRetryInitialMs,
+                                       @Value("${reviews.purchases.rebuild-retry-max-ms:300000}") long rebuildRetryMaxMs) {
+        this.restTemplate = restTemplate;
+        this.snapshotFile = Paths.get(snapshotFile).toAbsolutePath().normalize();
+        this.exportPageSize = exportPageSize;
+        this.rebuildRetryInitialMs = rebuildRetryInitialMs;
+        this.rebuildRetryMaxMs = rebuildRetryMaxMs;
+    }
+
+    // ==================== DÉMARRAGE ====================
+
+    // Chargé avant le démarrage des consommateurs Kafka : les offsets du snapshot servent au positionnement
+    @PostConstruct
+    public void loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            log.info("Aucun snapshot d'achats trouvé: {}", snapshotFile);
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            int partitions = in.readInt();
+            Map<Integer, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitions; i++) {
+                offsets.put(in.readInt(), in.readLong());
+            }
+            PurchaseIndex loaded = PurchaseIndex.readFrom(in);
+            synchronized (this) {
+                index = loaded;
+                nextOffsets.putAll(offsets);
+            }
+            snapshotLoaded = true;
+            ready = true;
+            log.info("Index des achats chargé: {} achats, {} partitions", loaded.size(), partitions);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot d'achats illisible, reconstruction nécessaire: {}", e.getMessage());
+        }
+    }
+
+    // Premier démarrage : l'historique complet vient de l'export (le topic peut avoir expiré).
+    // Tant que l'export n'a pas abouti l'index est incomplet : pas prêt (503), nouvel essai avec backoff
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (snapshotLoaded) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            long delay = rebuildRetryInitialMs;
+            while (!ready) {
+                try {
+                    rebuildFromExport();
+                } catch (Exception e) {
+                    log.warn("Reconstruction initiale des achats impossible, nouvel essai dans {} ms: {}",
+                            delay, e.getMessage());
+                }
+                if (ready) {
+                    return;
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delay = Math.min(delay * 2, rebuildRetryMaxMs);
+            }
+        });
+    }
+
+    // ==================== ÉVÉNEMENTS ====================
+
+    public void onOrderDelivered(OrderDeliveredEvent event, int partition, long offset) {
+        synchronized (this) {
+            if (event.getProductIds() != null && event.getClientId() != null && event.getOrderId() != null) {
+                for (Long productId : event.getProductIds()) {
+                    if (productId == null) {
+                        continue;
+                    }
+                    index.add(event.getClientId(), productId, event.getOrderId());
+                    if (rebuilding.get()) {
+                        receivedDuringRebuild.add(new long[] { event.getClientId(), productId, event.getOrderId() });
+                    }
+                }
+            }
+            nextOffsets.put(partition, offset + 1);
+        }
+        dirty.set(true);
+    }
+
+    /**
+     * Offset de reprise d'une partition d'après le snapshot (vide : relire depuis le début).
+     */
+    public synchronized OptionalLong nextOffset(int partition) {
+        Long offset = nextOffsets.get(partition);
+        return offset != null ? OptionalLong.of(offset) : OptionalLong.empty();
+    }
+
+    // ==================== VÉRIFICATION ====================
+
+    /**
+     * Commande livrée prouvant l'achat, vide si aucun achat connu.
+     */
+    public OptionalLong findPurchase(Long clientId, Long productId) {
+        if (clientId == null || productId == null) {
+            return OptionalLong.empty();
+        }
+        long orderId = index.findOrderId(clientId, productId);
+        return orderId > 0 ? OptionalLong.of(orderId) : OptionalLong.empty();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Map<String, Object> getStats() {
+        PurchaseIndex current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("purchases", current.size());
+        stats.put("estimatedBytes", current.estimatedBytes());
+        stats.put("rebuilding", rebuilding.get());
+        return stats;
+    }
+
+    // ==================== RECONSTRUCTION ====================
+
+    /**
+     * Reconstruit l'index depuis l'export des commandes livrées (tables actives puis archive).
+     * Les événements reçus pendant ce temps sont appliqués aux deux index ; la bascule
+     * conserve les offsets courants.
+     */
+    public Map<String, Object> rebuildFromExport() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstruction des achats déjà en cours");
+            return getStats();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            PurchaseIndex fresh = new PurchaseIndex(Math.max(1024, index.size()));
+            long orders = exportInto(fresh, false) + exportInto(fresh, true);
+
+            synchronized (this) {
+                for (long[] purchase : receivedDuringRebuild) {
+                    fresh.add(purchase[0], purchase[1], purchase[2]);
+                }
+                receivedDuringRebuild.clear();
+                index = fresh;
+            }
+            ready = true;
+            dirty.set(true);
+            log.info("Index des achats reconstruit: {} commandes, {} achats en {} ms",
+                    orders, fresh.size(), System.currentTimeMillis() - start);
+            return getStats();
+        } finally {
+            synchronized (this) {
+                // Échec : les achats reçus sont déjà dans l'index courant
+                receivedDuringRebuild.clear();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    private long exportInto(PurchaseIndex target, boolean archived) {
+        long afterId = 0L;
+        long orders = 0L;
+        while (true) {
+            DeliveredPurchaseExport[] page = restTemplate.getForObject(
+                    EXPORT_URL, DeliveredPurchaseExport[].class, afterId, exportPageSize, archived);
+            if (page == null || page.length == 0) {
+                return orders;
+            }
+            for (DeliveredPurchaseExport purchase : page) {
+                if (purchase.getProductIds() != null && purchase.getClientId() != null) {
+                    for (Long productId : purchase.getProductIds()) {
+                        if (productId != null) {
+                            target.add(purchase.getClientId(), productId, purchase.getOrderId());
+                        }
+                    }
+                }
+                afterId = Math.max(afterId, purchase.getOrderId());
+            }
+            orders += page.length;
+            if (page.length < exportPageSize) {
+                return orders;
+            }
+        }
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    // Pas de snapshot d'un index incomplet : au redémarrage il passerait pour complet
+    @Scheduled(fixedDelayString = "${reviews.purchases.snapshot-interval-ms:60000}")
+    public void snapshotIfDirty() {
+        if (ready && dirty.compareAndSet(true, false)) {
+            writeSnapshot();
+        }
+    }
+
+    // Index et offsets écrits sous le même verrou que les événements : l'un ne peut pas devancer l'autre
+    @PreDestroy
+    public synchronized void writeSnapshot() {
+        if (!ready) {
+            return;
+        }
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(nextOffsets.size());
+                for (Map.Entry<Integer, Long> entry : nextOffsets.entrySet()) {
+                    out.writeInt(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+                index.writeTo(out);
+            }
+            Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Snapshot des achats écrit: {}", snapshotFile);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Écriture du snapshot des achats impossible", e);
+        }
+    }
+}
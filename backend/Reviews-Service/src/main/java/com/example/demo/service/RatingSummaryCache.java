@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dtos.RatingSummaryResponse;
+import com.example.demo.entities.ProductRatingSummary;
+import com.example.demo.repositories.ProductRatingSummaryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache local des résumés de notes, pour les grilles produits.
+ *
+ * Les absents d'un lot sont chargés ensemble par une seule requête IN sur
+ * product_rating_summary ; les produits sans avis sont mis en cache aussi (résumé vide).
+ * Invalidé après commit sur cette instance ; le TTL court borne le retard des autres.
+ */
+@Service
+@Slf4j
+public class RatingSummaryCache {
+    
+    private final Cache<Long, RatingSummaryResponse> cache;
+    private final ProductRatingSummaryRepository summaryRepository;
+    
+    public RatingSummaryCache(ProductRatingSummaryRepository summaryRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${reviews.rating-summary.cache.max-size:100000}") long maxSize,
+                              @Value("${reviews.rating-summary.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.summaryRepository = summaryRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "reviews.rating.summary");
+    }
+    
+    /**
+     * Résumés dans l'ordre de la demande (doublons retirés), une requête au plus pour les absents.
+     */
+    public List<RatingSummaryResponse> getAll(Collection<Long> productIds) {
+        Map<Long, RatingSummaryResponse> found = cache.getAll(productIds, this::load);
+        return productIds.stream().distinct().map(found::get).toList();
+    }
+    
+    public void invalidateAfterCommit(Long productId) {
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(productId));
+    }
+    
+    public void invalidateAll() {
+        cache.invalidateAll();
+        log.info("Cache des résumés de notes vidé");
+    }
+    
+    private Map<Long, RatingSummaryResponse> load(Set<? extends Long> productIds) {
+        Map<Long, RatingSummaryResponse> loaded = new HashMap<>();
+        for (ProductRatingSummary summary : summaryRepository.findAllById(List.copyOf(productIds))) {
+            loaded.put(summary.getProductId(), toResponse(summary));
+        }
+        for (Long productId : productIds) {
+            loaded.computeIfAbsent(productId, id -> new RatingSummaryResponse(id, 0.0, 0L, new long[5]));
+        }
+        return loaded;
+    }
+    
+    private static RatingSummaryResponse toResponse(ProductRatingSummary summary) {
+        long count = summary.getTotalReviews();
+        double average = count > 0 ? Math.round(summary.getRatingSum() * 100.0 / count) / 100.0 : 0.0;
+        return RatingSummaryResponse.builder()
+                .productId(summary.getProductId())
+                .average(average)
+                .count(count)
+                .stars(new long[] {
+                        summary.getOneStar(), summary.getTwoStars(), summary.getThreeStars(),
+                        summary.getFourStars(), summary.getFiveStars() })
+                .build();
+    }
+}
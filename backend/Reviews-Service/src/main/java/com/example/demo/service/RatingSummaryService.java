@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.dtos.ProductReviewStats;
+import com.example.demo.dtos.RatingSummaryResponse;
+import com.example.demo.entities.ProductRatingSummary;
+import com.example.demo.repositories.ProductRatingSummaryRepository;
+import com.example.demo.repositories.ReviewRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Résumé des notes par produit (table product_rating_summary).
+ *
+ * Chaque écriture d'avis applique un delta par upsert atomique dans la transaction de
+ * l'appelant : la ligne est verrouillée le temps du commit, sans lecture préalable ni
+ * perte de mise à jour. Les statistiques se lisent alors par clé primaire. Un recalcul
+ * complet depuis la table reviews corrige une éventuelle dérive (SQL direct, incidents).
+ *
+ * Les deltas prennent un verrou consultatif partagé et le recalcul le même verrou en
+ * exclusif : le recalcul attend les transactions d'avis en cours et les suivantes
+ * attendent sa fin, aucun delta n'est écrasé. Les compteurs ne sont pas bornés à zéro :
+ * une valeur négative signale une dérive au lieu de la masquer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RatingSummaryService {
+    
+    private static final long SUMMARY_LOCK_KEY = 0x52415449L; // "RATI"
+    
+    private final ProductRatingSummaryRepository summaryRepository;
+    private final ReviewRepository reviewRepository;
+    private final RatingSummaryCache ratingSummaryCache;
+    
+    // ==================== DELTAS ====================
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewAdded(Long productId, Integer rating) {
+        if (isValid(rating)) {
+            summaryRepository.lockShared(SUMMARY_LOCK_KEY);
+            summaryRepository.applyDelta(productId, rating, 1);
+            ratingSummaryCache.invalidateAfterCommit(productId);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewRemoved(Long productId, Integer rating) {
+        if (isValid(rating)) {
+            summaryRepository.lockShared(SUMMARY_LOCK_KEY);
+            summaryRepository.applyDelta(productId, rating, -1);
+            ratingSummaryCache.invalidateAfterCommit(productId);
+        }
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ratingChanged(Long productId, Integer oldRating, Integer newRating) {
+        if (Objects.equals(oldRating, newRating)) {
+            return;
+        }
+        reviewRemoved(productId, oldRating);
+        reviewAdded(productId, newRating);
+    }
+    
+    // ==================== LECTURE ====================
+    
+    @Transactional(readOnly = true)
+    public ProductReviewStats getStats(Long productId) {
+        return summaryRepository.findById(productId)
+                .map(RatingSummaryService::toStats)
+                .orElseGet(() -> emptyStats(productId));
+    }
+    
+    /**
+     * Résumés d'un lot de produits (grilles du catalogue), servis depuis le cache local.
+     */
+    public List<RatingSummaryResponse> getSummaries(Collection<Long> productIds) {
+        return ratingSummaryCache.getAll(productIds);
+    }
+    
+    // ==================== RECALCUL ====================
+    
+    /**
+     * Recalcul complet, à lancer hors pointe : les écritures d'avis attendent sa fin.
+     * Le verrou est pris avant la lecture des avis, qui voit donc tous les deltas validés.
+     */
+    @Scheduled(cron = "${reviews.rating-summary.rebuild-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        summaryRepository.lockExclusive(SUMMARY_LOCK_KEY);
+        int updated = summaryRepository.rebuildAll();
+        int deleted = summaryRepository.deleteOrphans();
+        if (updated > 0 || deleted > 0) {
+            ratingSummaryCache.invalidateAll();
+        }
+        log.info("Résumés de notes recalculés: {} corrigés, {} supprimés ({} ms)",
+                 updated, deleted, System.currentTimeMillis() - start);
+    }
+    
+    // Premier démarrage : la table est remplie depuis les avis existants
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (summaryRepository.count() == 0 && reviewRepository.count() > 0) {
+            log.info("Table product_rating_summary vide, calcul initial depuis les avis");
+            rebuild();
+        }
+    }
+    
+    // ==================== INTERNE ====================
+    
+    private static boolean isValid(Integer rating) {
+        return rating != null && rating >= 1 && rating <= 5;
+    }
+    
+    static ProductReviewStats toStats(ProductRatingSummary summary) {
+        long total = summary.getTotalReviews();
+        return ProductReviewStats.builder()
+                .productId(summary.getProductId())
+                .totalReviews(total)
+                .averageRating(total > 0 ? (double) summary.getRatingSum() / total : 0.0)
+                .fiveStars(summary.getFiveStars())
+                .fourStars(summary.getFourStars())
+                .threeStars(summary.getThreeStars())
+                .twoStars(summary.getTwoStars())
+                .oneStar(summary.getOneStar())
+                .build();
+    }
+    
+    static ProductReviewStats emptyStats(Long productId) {
+        return ProductReviewStats.builder()
+                .productId(productId)
+                .totalReviews(0L)
+                .averageRating(0.0)
+                .fiveStars(0L)
+                .fourStars(0L)
+                .threeStars(0L)
+                .twoStars(0L)
+                .oneStar(0L)
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.repositories.ArchivedReviewRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archivage des avis supprimés.
+ *
+ * Les avis désactivés depuis plus que la rétention sont déplacés dans reviews_archive,
+ * par lots et chaque lot dans sa propre transaction : la table reviews et ses index
+ * restent proportionnels aux avis visibles.
+ */
+@Service
+@Slf4j
+public class ReviewArchiveService {
+    
+    private final ArchivedReviewRepository archivedReviewRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    
+    @Value("${reviews.archive.retention-days:30}")
+    private int retentionDays;
+    
+    @Value("${reviews.archive.batch-size:1000}")
+    private int batchSize;
+    
+    public ReviewArchiveService(ArchivedReviewRepository archivedReviewRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.archivedReviewRepository = archivedReviewRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("reviews.archive.archived")
+                .description("Avis supprimés déplacés vers reviews_archive")
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(cron = "${reviews.archive.cron:0 45 3 * * *}")
+    public void archiveScheduled() {
+        archiveInactiveReviews();
+    }
+    
+    public int archiveInactiveReviews() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        log.info("Archivage des avis supprimés avant {}", before);
+        
+        int total = 0;
+        while (true) {
+            Integer archived = transactionTemplate.execute(
+                    status -> archivedReviewRepository.archiveInactiveBatch(before, batchSize));
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+            archivedCounter.increment(archived);
+            if (archived < batchSize) {
+                break;
+            }
+        }
+        
+        log.info("{} avis archivés", total);
+        return total;
+    }
+}
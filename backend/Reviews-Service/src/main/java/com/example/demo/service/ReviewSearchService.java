@@ -0,0 +1,266 @@
+package com.example.demo.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entities.Review;
+import com.example.demo.exceptions.SearchUnavailableException;
+import com.example.demo.repositories.ReviewRepository;
+import com.example.demo.search.ReviewSearchIndex;
+import com.example.demo.search.SearchDocument;
+import com.example.demo.search.SearchFilter;
+import com.example.demo.search.SearchResult;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cycle de vie de l'index de recherche des avis : chargement du snapshot au démarrage,
+ * reconstruction complète depuis la base, mises à jour incrémentales après commit
+ * (création, modification, suppression logique) et sauvegarde périodique sur disque.
+ *
+ * Le snapshot commence par l'instant pris avant son écriture : le rattrapage au démarrage
+ * repart de cet instant (moins une marge pour les transactions encore en cours), pas de
+ * la date du fichier, postérieure aux avis validés pendant l'écriture.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewSearchService {
+
+    // Avis enregistrés (updated_at) avant le début du snapshot mais validés après
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    private final ReviewRepository reviewRepository;
+
+    @Value("${reviews.search.snapshot-file:data/review-search.idx}")
+    private String snapshotFile;
+
+    @Value("${reviews.search.rebuild-batch-size:1000}")
+    private int rebuildBatchSize;
+
+    private volatile ReviewSearchIndex index = new ReviewSearchIndex();
+    private volatile boolean ready;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Avis modifiés pendant une reconstruction, réindexés après la bascule
+    private final Set<Long> touchedDuringRebuild = new HashSet<>();
+
+    // ==================== DÉMARRAGE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                if (loadSnapshot()) {
+                    ready = true;
+                } else {
+                    rebuild();
+                }
+            } catch (Exception e) {
+                log.error("Initialisation de l'index de recherche des avis impossible", e);
+            }
+        });
+    }
+
+    private boolean loadSnapshot() {
+        Path path = snapshotPath();
+        if (!Files.exists(path)) {
+            log.info("Aucun snapshot d'index des avis trouvé: {}", path);
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            LocalDateTime snapshotStartedAt = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+            ReviewSearchIndex loaded = ReviewSearchIndex.readFrom(in);
+
+            // Rattrapage des avis créés, modifiés ou supprimés depuis le début de l'écriture du snapshot
+            List<Review> modified = reviewRepository.findModifiedSince(snapshotStartedAt.minus(CATCH_UP_MARGIN));
+            modified.forEach(review -> apply(loaded, review));
+
+            index = loaded;
+            log.info("Index des avis chargé: {} avis ({} rattrapés)", loaded.size(), modified.size());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Snapshot d'index des avis illisible, reconstruction: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== RECONSTRUCTION ====================
+
+    @Scheduled(cron = "${reviews.search.rebuild-cron:0 15 4 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstruction de l'index des avis déjà en cours");
+            return index.size();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            ReviewSearchIndex fresh = new ReviewSearchIndex();
+            long lastId = 0L;
+
+            while (true) {
+                List<Review> batch = reviewRepository.findActiveBatch(lastId, PageRequest.of(0, rebuildBatchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Review review : batch) {
+                    fresh.index(toDocument(review));
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            Set<Long> touched;
+            synchronized (touchedDuringRebuild) {
+                index = fresh;
+                touched = new HashSet<>(touchedDuringRebuild);
+                touchedDuringRebuild.clear();
+            }
+            if (!touched.isEmpty()) {
+                reindex(touched);
+            }
+
+            ready = true;
+            dirty.set(true);
+            log.info("Index des avis reconstruit: {} avis, {} termes en {} ms",
+                    fresh.size(), fresh.termCount(), System.currentTimeMillis() - start);
+            return fresh.size();
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private void reindex(Set<Long> reviewIds) {
+        Set<Long> missing = new HashSet<>(reviewIds);
+        for (Review review : reviewRepository.findAllById(reviewIds)) {
+            apply(index, review);
+            missing.remove(review.getId());
+        }
+        missing.forEach(index::remove);
+    }
+
+    // ==================== MISES À JOUR INCRÉMENTALES ====================
+
+    /**
+     * Indexe l'avis après le commit de la transaction courante (retiré s'il est inactif).
+     */
+    public void indexAfterCommit(Review review) {
+        SearchDocument doc = toDocument(review);
+        boolean active = Boolean.TRUE.equals(review.getActive());
+        TransactionCallbacks.afterCommit(() -> {
+            if (active) {
+                index.index(doc);
+            } else {
+                index.remove(doc.getReviewId());
+            }
+            markTouched(doc.getReviewId());
+        });
+    }
+
+    private void markTouched(Long reviewId) {
+        dirty.set(true);
+        if (rebuilding.get()) {
+            synchronized (touchedDuringRebuild) {
+                touchedDuringRebuild.add(reviewId);
+            }
+        }
+    }
+
+    private void apply(ReviewSearchIndex target, Review review) {
+        if (Boolean.TRUE.equals(review.getActive())) {
+            target.index(toDocument(review));
+        } else {
+            target.remove(review.getId());
+        }
+    }
+
+    // ==================== RECHERCHE ====================
+
+    /**
+     * @throws SearchUnavailableException tant que la première construction de l'index n'a pas abouti
+     */
+    public SearchResult search(String query, SearchFilter filter, int page, int size) {
+        if (!ready) {
+            throw new SearchUnavailableException(
+                "Index de recherche en cours de construction, réessayez dans quelques instants");
+        }
+        return index.search(query, filter, Math.multiplyExact(page, size), size);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ==================== SNAPSHOT ====================
+
+    @Scheduled(fixedDelayString = "${reviews.search.snapshot-interval-ms:600000}")
+    public void snapshotIfDirty() {
+        if (ready && dirty.compareAndSet(true, false)) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void writeSnapshot() {
+        if (!ready) {
+            return;
+        }
+        Path path = snapshotPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long startedAt = System.currentTimeMillis();
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeLong(startedAt);
+                index.writeTo(out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Snapshot de l'index des avis écrit: {}", path);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Écriture du snapshot de l'index des avis impossible", e);
+        }
+    }
+
+    private Path snapshotPath() {
+        return Paths.get(snapshotFile).toAbsolutePath().normalize();
+    }
+
+    private SearchDocument toDocument(Review review) {
+        return new SearchDocument(
+                review.getId(),
+                review.getProductId(),
+                review.getRating() != null ? review.getRating() : 0,
+                review.getComment());
+    }
+}
@@ -11,19 +11,34 @@ import org.springframework.web.multipart.MultipartFile;
 import com.example.demo.dtos.CanReviewResponse;
 import com.example.demo.dtos.CreateReviewRequest;
 import com.example.demo.dtos.ProductReviewStats;
+import com.example.demo.dtos.RatingSummaryResponse;
+import com.example.demo.dtos.ReviewSearchHitResponse;
+import com.example.demo.dtos.ReviewSearchResponse;
 import com.example.demo.dtos.ReviewResponse;
 import com.example.demo.dtos.UpdateReviewRequest;
 import com.example.demo.entities.Review;
+import com.example.demo.exceptions.PurchaseVerificationUnavailableException;
 import com.example.demo.exceptions.ReviewAlreadyExistsException;
 import com.example.demo.exceptions.ReviewNotFoundException;
 import com.example.demo.exceptions.UnauthorizedException;
 import com.example.demo.repositories.ReviewRepository;
+import com.example.demo.search.Highlighter;
+import com.example.demo.search.SearchFilter;
+import com.example.demo.search.SearchHit;
+import com.example.demo.search.SearchResult;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.UUID;
 
 @Service
@@ -33,18 +48,25 @@ public class ReviewService {
     
     private final ReviewRepository reviewRepository;
     private final FileStorageService fileStorageService;
+    private final RatingSummaryService ratingSummaryService;
+    private final ReviewSearchService reviewSearchService;
+    private final PurchaseVerificationService purchaseVerificationService;
+    private final HelpfulnessService helpfulnessService;
+    private final ProductReviewsPageCache productReviewsPageCache;
+    
+    private static final int HIGHLIGHT_LENGTH = 200;
     
     @Transactional
     public ReviewResponse createReview(CreateReviewRequest request) {
         log.info("Création d'un avis pour le produit {} par le client {}", 
                  request.getProductId(), request.getClientId());
         
-        validateReviewCreation(request.getClientId(), request.getProductId());
+        Long verifiedOrderId = validateReviewCreation(request.getClientId(), request.getProductId());
         
         Review review = Review.builder()
                 .clientId(request.getClientId())
                 .productId(request.getProductId())
-                .orderId(request.getOrderId())
+                .orderId(verifiedOrderId)
                 .rating(request.getRating())
                 .comment(request.getComment())
                 .verified(true)
@@ -52,6 +74,9 @@ public class ReviewService {
                 .build();
         
         review = reviewRepository.save(review);
+        ratingSummaryService.reviewAdded(review.getProductId(), review.getRating());
+        reviewSearchService.indexAfterCommit(review);
+        productReviewsPageCache.invalidateAfterCommit(review.getProductId());
         log.info("Avis créé avec succès: {}", review.getId());
         
         return mapToResponse(review);
@@ -63,12 +88,12 @@ public class ReviewService {
         log.info("Création d'un avis avec image pour le produit {} par le client {}", 
                  request.getProductId(), request.getClientId());
         
-        validateReviewCreation(request.getClientId(), request.getProductId());
+        Long verifiedOrderId = validateReviewCreation(request.getClientId(), request.getProductId());
         
         Review review = Review.builder()
                 .clientId(request.getClientId())
                 .productId(request.getProductId())
-                .orderId(request.getOrderId())
+                .orderId(verifiedOrderId)
                 .rating(request.getRating())
                 .comment(request.getComment())
                 .verified(true)
@@ -82,6 +107,9 @@ public class ReviewService {
         }
         
         review = reviewRepository.save(review);
+        ratingSummaryService.reviewAdded(review.getProductId(), review.getRating());
+        reviewSearchService.indexAfterCommit(review);
+        productReviewsPageCache.invalidateAfterCommit(review.getProductId());
         log.info("Avis créé avec succès avec image: {}", review.getId());
         
         return mapToResponse(review);
@@ -94,15 +122,15 @@ public class ReviewService {
         
         Review review = getReviewAndValidateOwnership(reviewId, clientId);
         
-        // Supprimer l'ancienne image si elle existe
-        if (review.getImagePath() != null) {
-            fileStorageService.deleteFile(review.getImagePath());
-        }
-        
-        // Sauvegarder la nouvelle image
+        // Sauvegarder la nouvelle image avant de libérer l'ancienne (même contenu = même fichier)
+        String oldImagePath = review.getImagePath();
         String filename = fileStorageService.storeFile(file);
         review.setImagePath(filename);
+        if (oldImagePath != null) {
+            fileStorageService.deleteFile(oldImagePath);
+        }
         review = reviewRepository.save(review);
+        productReviewsPageCache.invalidateAfterCommit(review.getProductId());
         
         log.info("Image uploadée avec succès pour l'avis {}: {}", reviewId, filename);
         return mapToResponse(review);
@@ -118,6 +146,7 @@ public class ReviewService {
             fileStorageService.deleteFile(review.getImagePath());
             review.setImagePath(null);
             reviewRepository.save(review);
+            productReviewsPageCache.invalidateAfterCommit(review.getProductId());
             log.info("Image supprimée avec succès pour l'avis {}", reviewId);
         }
     }
@@ -129,10 +158,15 @@ public class ReviewService {
         
         Review review = getReviewAndValidateOwnership(reviewId, clientId);
         
+        if (Boolean.TRUE.equals(review.getActive())) {
+            ratingSummaryService.ratingChanged(review.getProductId(), review.getRating(), request.getRating());
+        }
         review.setRating(request.getRating());
         review.setComment(request.getComment());
         
         review = reviewRepository.save(review);
+        reviewSearchService.indexAfterCommit(review);
+        productReviewsPageCache.invalidateAfterCommit(review.getProductId());
         log.info("Avis mis à jour avec succès: {}", reviewId);
         
         return mapToResponse(review);
@@ -144,24 +178,89 @@ public class ReviewService {
         
         Review review = getReviewAndValidateOwnership(reviewId, clientId);
         
-        // Supprimer l'image associée
+        // Déjà supprimé : ni l'image ni le résumé des notes ne doivent être libérés une seconde fois
+        if (!Boolean.TRUE.equals(review.getActive())) {
+            log.info("Avis {} déjà supprimé", reviewId);
+            return;
+        }
+        
+        // Libérer l'image associée
         if (review.getImagePath() != null) {
             fileStorageService.deleteFile(review.getImagePath());
+            review.setImagePath(null);
         }
         
         // Soft delete
+        ratingSummaryService.reviewRemoved(review.getProductId(), review.getRating());
         review.setActive(false);
         reviewRepository.save(review);
+        reviewSearchService.indexAfterCommit(review);
+        productReviewsPageCache.invalidateAfterCommit(review.getProductId());
         
         log.info("Avis supprimé avec succès: {}", reviewId);
     }
     
-    public Page<ReviewResponse> getProductReviews(Long productId, Pageable pageable) {
-        log.info("Récupération des avis pour le produit {}", productId);
+    /**
+     * @param mostHelpful tri par score de Wilson décroissant au lieu de la date
+     */
+    public Page<ReviewResponse> getProductReviews(Long productId, boolean mostHelpful, Pageable pageable) {
+        log.info("Récupération des avis pour le produit {} (tri {})", productId, mostHelpful ? "utilité" : "date");
+        if (mostHelpful) {
+            return reviewRepository.findByProductIdAndActiveTrueOrderByHelpfulScoreDescIdDesc(productId, pageable)
+                    .map(this::mapToResponse);
+        }
+        // Premières pages par date servies depuis le cache local, les suivantes depuis la base
+        if (productReviewsPageCache.isCacheable(pageable.getPageNumber(), pageable.getPageSize())) {
+            return productReviewsPageCache.getPage(productId, pageable.getPageNumber(), pageable.getPageSize(),
+                    () -> productReviewsVersion(productId),
+                    () -> loadRecentProductReviews(productId, pageable));
+        }
+        return loadRecentProductReviews(productId, pageable);
+    }
+    
+    private Page<ReviewResponse> loadRecentProductReviews(Long productId, Pageable pageable) {
         return reviewRepository.findByProductIdAndActiveTrueOrderByCreatedAtDesc(productId, pageable)
                 .map(this::mapToResponse);
     }
     
+    /**
+     * Vote d'utilité, écrit en base par lots (compteurs visibles après le prochain flush).
+     * L'avis est vérifié avant d'accepter le vote : un vote accepté n'est pas écarté au flush.
+     *
+     * @return false si ce client a déjà voté pour cet avis
+     */
+    public boolean voteHelpful(Long reviewId, Long clientId, boolean helpful) {
+        log.debug("Vote d'utilité du client {} pour l'avis {}: {}", clientId, reviewId, helpful);
+        Review review = reviewRepository.findById(reviewId)
+                .filter(r -> Boolean.TRUE.equals(r.getActive()))
+                .orElseThrow(() -> new ReviewNotFoundException("Avis non trouvé"));
+        if (review.getClientId().equals(clientId)) {
+            throw new UnauthorizedException("Vous ne pouvez pas voter pour votre propre avis");
+        }
+        return helpfulnessService.vote(reviewId, clientId, helpful);
+    }
+    
+    /**
+     * ETag des avis d'un produit, calculé sans charger ni mapper les avis.
+     * Les votes d'utilité mettent à jour updatedAt lors de leur écriture groupée.
+     */
+    public String getProductReviewsETag(Long productId, String sort, int page, int size) {
+        // Pages en cache : la version est celle de l'entrée, cohérente avec les pages servies
+        String version = "recent".equals(sort) && productReviewsPageCache.isCacheable(page, size)
+                ? productReviewsPageCache.getVersion(productId, () -> productReviewsVersion(productId))
+                : productReviewsVersion(productId);
+        return "\"r" + productId + "-" + sort + "-" + page + "-" + size + "-" + version + "\"";
+    }
+    
+    private String productReviewsVersion(Long productId) {
+        Object[] row = reviewRepository.findProductReviewsVersion(productId).get(0);
+        long count = ((Number) row[0]).longValue();
+        long lastModified = row[1] != null
+                ? ((LocalDateTime) row[1]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0L;
+        return count + "-" + lastModified;
+    }
+    
     public Page<ReviewResponse> getClientReviews(Long clientId, Pageable pageable) {
         log.info("Récupération des avis du client {}", clientId);
         return reviewRepository.findByClientIdAndActiveTrueOrderByCreatedAtDesc(clientId, pageable)
@@ -176,23 +275,53 @@ public class ReviewService {
     }
     
     public ProductReviewStats getProductStats(Long productId) {
-        log.info("Calcul des statistiques pour le produit {}", productId);
-        
-        Long totalReviews = reviewRepository.countByProductIdAndActiveTrue(productId);
-        Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
-        
-        return ProductReviewStats.builder()
-                .productId(productId)
-                .totalReviews(totalReviews)
-                .averageRating(averageRating != null ? averageRating : 0.0)
-                .fiveStars(reviewRepository.countByProductIdAndRatingAndActiveTrue(productId, 5))
-                .fourStars(reviewRepository.countByProductIdAndRatingAndActiveTrue(productId, 4))
-                .threeStars(reviewRepository.countByProductIdAndRatingAndActiveTrue(productId, 3))
-                .twoStars(reviewRepository.countByProductIdAndRatingAndActiveTrue(productId, 2))
-                .oneStar(reviewRepository.countByProductIdAndRatingAndActiveTrue(productId, 1))
+        log.info("Statistiques du produit {}", productId);
+        // Une seule lecture par clé primaire dans product_rating_summary
+        return ratingSummaryService.getStats(productId);
+    }
+    
+    /**
+     * Recherche plein texte dans les commentaires (index en mémoire), avec extraits surlignés.
+     */
+    public ReviewSearchResponse searchReviews(String query, Long productId, Integer minRating,
+                                              Integer maxRating, int page, int size) {
+        log.info("Recherche d'avis: '{}' (produit {}, page {}, size {})", query, productId, page, size);
+        
+        SearchResult result = reviewSearchService.search(query, new SearchFilter(productId, minRating, maxRating), page, size);
+        
+        // Chargement groupé puis remise dans l'ordre de pertinence
+        List<Long> ids = result.getHits().stream().map(SearchHit::getReviewId).collect(Collectors.toList());
+        Map<Long, Review> byId = reviewRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Review::getId, Function.identity()));
+        List<ReviewSearchHitResponse> hits = result.getHits().stream()
+                .filter(hit -> byId.containsKey(hit.getReviewId()))
+                .map(hit -> {
+                    Review review = byId.get(hit.getReviewId());
+                    return ReviewSearchHitResponse.builder()
+                            .review(mapToResponse(review))
+                            .score(hit.getScore())
+                            .highlight(Highlighter.highlight(review.getComment(), query, HIGHLIGHT_LENGTH))
+                            .build();
+                })
+                .collect(Collectors.toList());
+        
+        return ReviewSearchResponse.builder()
+                .hits(hits)
+                .totalHits(result.getTotalHits())
+                .page(page)
+                .size(size)
                 .build();
     }
     
+    public List<RatingSummaryResponse> getBatchStats(List<Long> productIds) {
+        log.info("Résumés de notes pour {} produits", productIds.size());
+        return ratingSummaryService.getSummaries(productIds);
+    }
+    
+    /**
+     * Éligibilité vérifiée sur l'index local des commandes livrées (aucun appel à Orders-Service).
+     * Le paramètre orderId n'est plus utilisé comme preuve d'achat, il reste accepté pour compatibilité.
+     */
     public CanReviewResponse canClientReview(Long clientId, Long productId, Long orderId) {
         log.info("Vérification si le client {} peut laisser un avis pour le produit {}", 
                  clientId, productId);
@@ -209,7 +338,7 @@ public class ReviewService {
                     .build();
         }
         
-        boolean hasPurchased = orderId != null;
+        boolean hasPurchased = findVerifiedOrderId(clientId, productId) != null;
         
         return CanReviewResponse.builder()
                 .canReview(hasPurchased)
@@ -222,11 +351,29 @@ public class ReviewService {
     
     // Méthodes utilitaires privées
     
-    private void validateReviewCreation(Long clientId, Long productId) {
+    /**
+     * @return la commande livrée prouvant l'achat, enregistrée sur l'avis
+     */
+    private Long validateReviewCreation(Long clientId, Long productId) {
         if (reviewRepository.existsByClientIdAndProductIdAndActiveTrue(clientId, productId)) {
             throw new ReviewAlreadyExistsException(
                 "Vous avez déjà laissé un avis pour ce produit");
         }
+        Long orderId = findVerifiedOrderId(clientId, productId);
+        if (orderId == null) {
+            throw new UnauthorizedException(
+                "Vous devez avoir acheté ce produit pour laisser un avis");
+        }
+        return orderId;
+    }
+    
+    private Long findVerifiedOrderId(Long clientId, Long productId) {
+        if (!purchaseVerificationService.isReady()) {
+            throw new PurchaseVerificationUnavailableException(
+                "Vérification des achats en cours d'initialisation, réessayez dans quelques instants");
+        }
+        OptionalLong orderId = purchaseVerificationService.findPurchase(clientId, productId);
+        return orderId.isPresent() ? orderId.getAsLong() : null;
     }
     
     private Review getReviewAndValidateOwnership(Long reviewId, Long clientId) {
@@ -258,6 +405,8 @@ public class ReviewService {
                 .imageUrl(imageUrl)
                 .verified(review.getVerified())
                 .createdAt(review.getCreatedAt())
+                .helpfulCount(review.getHelpfulCount() != null ? review.getHelpfulCount() : 0)
+                .unhelpfulCount(review.getUnhelpfulCount() != null ? review.getUnhelpfulCount() : 0)
                 .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.example.demo.helpful;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Ensemble des votes acceptés : doublons rejetés, couples distincts, empreinte jamais
+ * nulle et segments vidés (plutôt qu'agrandis) une fois pleins.
+ */
+class VoterSetTest {
+
+    @Test
+    void secondVoteForSamePairIsRejected() {
+        VoterSet voters = new VoterSet(1_000);
+
+        assertTrue(voters.addIfAbsent(1L, 2L));
+        assertFalse(voters.addIfAbsent(1L, 2L));
+        assertEquals(1, voters.size());
+    }
+
+    @Test
+    void pairsAreOrderedAndIndependent() {
+        VoterSet voters = new VoterSet(1_000);
+
+        assertTrue(voters.addIfAbsent(1L, 2L));
+        assertTrue(voters.addIfAbsent(2L, 1L));
+        assertTrue(voters.addIfAbsent(1L, 3L));
+        assertTrue(voters.addIfAbsent(3L, 2L));
+        assertEquals(4, voters.size());
+    }
+
+    @Test
+    void fingerprintNeverUsesTheEmptySlotMarker() {
+        assertEquals(1L, VoterSet.fingerprint(0L, 0L));
+        assertTrue(VoterSet.fingerprint(1L, 2L) != 0L);
+    }
+
+    @Test
+    void manyDistinctVotesAreAllAcceptedOnceWithinCapacity() {
+        VoterSet voters = new VoterSet(200_000);
+        for (long review = 1; review <= 100; review++) {
+            for (long client = 1; client <= 500; client++) {
+                assertTrue(voters.addIfAbsent(review, client));
+            }
+        }
+
+        assertEquals(50_000, voters.size());
+        for (long review = 1; review <= 100; review++) {
+            for (long client = 1; client <= 500; client++) {
+                assertFalse(voters.addIfAbsent(review, client));
+            }
+        }
+        assertEquals(50_000, voters.size());
+    }
+
+    @Test
+    void fullSegmentsAreClearedSoMemoryStaysBounded() {
+        // 16 segments de 64 entrées au minimum
+        VoterSet voters = new VoterSet(16);
+        for (long client = 1; client <= 20_000; client++) {
+            assertTrue(voters.addIfAbsent(1L, client));
+            assertTrue(voters.size() <= 16 * 64);
+        }
+
+        // Les votes oubliés au vidage sont de nouveau acceptés : la base tranche alors
+        int accepted = 0;
+        for (long client = 1; client <= 1_000; client++) {
+            if (voters.addIfAbsent(1L, client)) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted > 0);
+    }
+}
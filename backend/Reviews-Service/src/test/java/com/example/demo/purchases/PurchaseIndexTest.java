@@ -0,0 +1,136 @@
+package com.example.demo.purchases;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Index des achats livrés : insertion, première commande conservée, ids invalides,
+ * redimensionnement, collisions, filtre de Bloom et snapshot.
+ */
+class PurchaseIndexTest {
+
+    @Test
+    void findsRecordedPurchaseAndNothingElse() {
+        PurchaseIndex index = new PurchaseIndex();
+
+        assertTrue(index.add(1L, 10L, 100L));
+
+        assertEquals(100L, index.findOrderId(1L, 10L));
+        assertEquals(0L, index.findOrderId(1L, 11L));
+        assertEquals(0L, index.findOrderId(2L, 10L));
+        // (client, produit) n'est pas symétrique
+        assertEquals(0L, index.findOrderId(10L, 1L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void firstOrderIsKeptForAPair() {
+        PurchaseIndex index = new PurchaseIndex();
+        index.add(1L, 10L, 100L);
+
+        assertFalse(index.add(1L, 10L, 200L));
+        assertEquals(100L, index.findOrderId(1L, 10L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void nonPositiveIdsAreRejected() {
+        PurchaseIndex index = new PurchaseIndex();
+
+        assertFalse(index.add(0L, 10L, 100L));
+        assertFalse(index.add(1L, -10L, 100L));
+        assertFalse(index.add(1L, 10L, 0L));
+        assertEquals(0, index.size());
+        assertEquals(0L, index.findOrderId(0L, 10L));
+    }
+
+    @Test
+    void growsFromATinyTableWithoutLosingEntries() {
+        PurchaseIndex index = new PurchaseIndex(1);
+        long before = index.estimatedBytes();
+        for (long client = 1; client <= 300; client++) {
+            for (long product = 1; product <= 100; product++) {
+                assertTrue(index.add(client, product, client * 1_000 + product));
+            }
+        }
+
+        assertEquals(30_000, index.size());
+        assertTrue(index.estimatedBytes() > before);
+        for (long client = 1; client <= 300; client++) {
+            for (long product = 1; product <= 100; product++) {
+                assertEquals(client * 1_000 + product, index.findOrderId(client, product));
+            }
+            assertEquals(0L, index.findOrderId(client, 101L));
+        }
+    }
+
+    @Test
+    void unknownPairsAreNeverFoundDespiteBloomFalsePositives() {
+        PurchaseIndex index = new PurchaseIndex(10_000);
+        for (long i = 1; i <= 10_000; i++) {
+            index.add(i, i, i);
+        }
+        // Aucune de ces paires n'existe : toutes doivent répondre 0, faux positifs du filtre compris
+        for (long i = 1; i <= 10_000; i++) {
+            assertEquals(0L, index.findOrderId(i, i + 1));
+        }
+    }
+
+    @Test
+    void snapshotRoundTripKeepsEveryPurchase() throws IOException {
+        PurchaseIndex index = new PurchaseIndex(16);
+        for (long client = 1; client <= 50; client++) {
+            index.add(client, client % 7 + 1, client + 500);
+        }
+        index.add(3L, 99L, 42L);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        PurchaseIndex copy = PurchaseIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(index.size(), copy.size());
+        for (long client = 1; client <= 50; client++) {
+            assertEquals(client + 500, copy.findOrderId(client, client % 7 + 1));
+        }
+        assertEquals(42L, copy.findOrderId(3L, 99L));
+        assertEquals(0L, copy.findOrderId(3L, 100L));
+
+        // L'index relu reste inscriptible et se redimensionne normalement
+        for (long product = 1000; product < 1100; product++) {
+            assertTrue(copy.add(7L, product, product));
+        }
+        assertEquals(index.size() + 100, copy.size());
+        assertEquals(1050L, copy.findOrderId(7L, 1050L));
+    }
+
+    @Test
+    void emptySnapshotRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            new PurchaseIndex().writeTo(out);
+        }
+        PurchaseIndex copy = PurchaseIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(0, copy.size());
+        assertTrue(copy.add(1L, 2L, 3L));
+    }
+
+    @Test
+    void unknownSnapshotFormatIsRejected() {
+        byte[] garbage = new byte[] { 0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0 };
+        assertThrows(IOException.class,
+                () -> PurchaseIndex.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+}
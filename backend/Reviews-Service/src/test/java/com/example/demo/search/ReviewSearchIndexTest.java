@@ -0,0 +1,191 @@
+package com.example.demo.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Index de recherche des avis : analyse, fusion des postings sans filtre, parcours par
+ * produit, filtres de note, départage des ex aequo, compactage et snapshot.
+ */
+class ReviewSearchIndexTest {
+
+    private static final SearchFilter NO_FILTER = new SearchFilter(null, null, null);
+
+    @Test
+    void tokenizeFoldsCaseAndAccentsAndDropsStopWords() {
+        assertEquals(List.of("livraison", "rapide", "emballage", "soigne"),
+                ReviewSearchIndex.tokenize("Livraison TRÈS rapide, emballage soigné !"));
+        assertTrue(ReviewSearchIndex.tokenize("c'est a").isEmpty());
+        assertTrue(ReviewSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void reviewWithoutSearchableCommentIsNotIndexed() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.index(new SearchDocument(1L, 10L, 5, null));
+        index.index(new SearchDocument(2L, 10L, 5, "Très !"));
+
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void termFrequencyRanksAndRepeatedQueryTermsCountOnce() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.index(new SearchDocument(1L, 10L, 4, "solide mais bruyant"));
+        index.index(new SearchDocument(2L, 10L, 3, "bruyant bruyant vraiment"));
+        index.index(new SearchDocument(3L, 11L, 5, "silencieux et solide"));
+
+        SearchResult result = index.search("bruyant", NO_FILTER, 0, 10);
+        assertEquals(2, result.getTotalHits());
+        assertEquals(List.of(2L, 1L), ids(result));
+
+        assertEquals(result, index.search("bruyant bruyant", NO_FILTER, 0, 10));
+    }
+
+    @Test
+    void docsMatchingSeveralTermsAreCountedOnce() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.index(new SearchDocument(1L, 10L, 4, "solide mais bruyant"));
+        index.index(new SearchDocument(2L, 10L, 3, "bruyant vraiment"));
+        index.index(new SearchDocument(3L, 11L, 5, "silencieux et solide"));
+
+        SearchResult result = index.search("solide bruyant", NO_FILTER, 0, 10);
+
+        assertEquals(3, result.getTotalHits());
+        assertEquals(List.of(1L), ids(result).subList(0, 1));
+    }
+
+    @Test
+    void tiesGoToTheMostRecentReview() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        for (long id = 1; id <= 4; id++) {
+            index.index(new SearchDocument(id, 10L, 5, "parfait"));
+        }
+
+        assertEquals(List.of(4L, 3L), ids(index.search("parfait", NO_FILTER, 0, 2)));
+        assertEquals(List.of(2L, 1L), ids(index.search("parfait", NO_FILTER, 2, 2)));
+        assertTrue(index.search("parfait", NO_FILTER, 4, 2).getHits().isEmpty());
+    }
+
+    @Test
+    void productFilterScansOnlyThatProduct() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.index(new SearchDocument(1L, 10L, 4, "bon produit"));
+        index.index(new SearchDocument(2L, 11L, 4, "bon produit"));
+        index.index(new SearchDocument(3L, 10L, 2, "produit moyen"));
+        index.index(new SearchDocument(4L, 10L, 5, "excellent"));
+
+        SearchResult result = index.search("produit", new SearchFilter(10L, null, null), 0, 10);
+        assertEquals(2, result.getTotalHits());
+        assertEquals(List.of(1L, 3L), ids(result).stream().sorted().collect(Collectors.toList()));
+
+        assertEquals(0, index.search("produit", new SearchFilter(99L, null, null), 0, 10).getTotalHits());
+    }
+
+    @Test
+    void ratingFilterAppliesWithAndWithoutProduct() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.index(new SearchDocument(1L, 10L, 1, "décevant"));
+        index.index(new SearchDocument(2L, 10L, 3, "décevant"));
+        index.index(new SearchDocument(3L, 11L, 5, "décevant"));
+
+        assertEquals(List.of(3L, 2L), ids(index.search("decevant", new SearchFilter(null, 2, null), 0, 10)));
+        assertEquals(List.of(2L, 1L), ids(index.search("decevant", new SearchFilter(10L, null, 3), 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("decevant", new SearchFilter(10L, 2, 4), 0, 10)));
+    }
+
+    @Test
+    void reindexAndRemoveHideOldVersions() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.index(new SearchDocument(1L, 10L, 2, "fragile"));
+        index.index(new SearchDocument(2L, 10L, 4, "fragile aussi"));
+        index.index(new SearchDocument(1L, 10L, 4, "finalement robuste"));
+        index.remove(2L);
+        index.remove(42L); // inconnu : sans effet
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.search("fragile", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(0, index.search("fragile", new SearchFilter(10L, null, null), 0, 10).getTotalHits());
+        assertEquals(List.of(1L), ids(index.search("robuste", new SearchFilter(10L, null, null), 0, 10)));
+
+        // Un avis vidé de son commentaire sort de l'index
+        index.index(new SearchDocument(1L, 10L, 4, ""));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void compactionDropsDeletedDocsAndKeepsProductLists() {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        for (long id = 1; id <= 2000; id++) {
+            index.index(new SearchDocument(id, id % 2 == 0 ? 10L : 11L, 5, "correct ref" + id));
+        }
+        // Le compactage se déclenche au 1024e doc supprimé
+        for (long id = 1; id <= 1024; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(976, index.size());
+        assertEquals(1 + 976, index.termCount());
+        assertEquals(976, index.search("correct", NO_FILTER, 0, 10).getTotalHits());
+        assertEquals(488, index.search("correct", new SearchFilter(10L, null, null), 0, 10).getTotalHits());
+        assertEquals(List.of(2000L), ids(index.search("ref2000", new SearchFilter(10L, null, null), 0, 10)));
+
+        index.index(new SearchDocument(1500L, 10L, 5, "remplacé"));
+        assertEquals(487, index.search("correct", new SearchFilter(10L, null, null), 0, 10).getTotalHits());
+        assertEquals(List.of(1500L), ids(index.search("remplace", new SearchFilter(10L, null, null), 0, 10)));
+    }
+
+    @Test
+    void snapshotRoundTripKeepsDocsTermsAndProductLists() throws IOException {
+        ReviewSearchIndex index = new ReviewSearchIndex();
+        index.index(new SearchDocument(1L, 10L, 4, "solide mais bruyant"));
+        index.index(new SearchDocument(2L, 10L, 3, "bruyant bruyant vraiment"));
+        index.index(new SearchDocument(3L, 11L, 5, "silencieux et solide"));
+        index.index(new SearchDocument(4L, 11L, 1, "cassé"));
+        index.remove(4L);
+        index.index(new SearchDocument(1L, 10L, 5, "solide et discret"));
+
+        ReviewSearchIndex copy = ReviewSearchIndex.readFrom(roundTrip(index));
+
+        // Seuls les termes des avis vivants sont écrits
+        assertEquals(index.size(), copy.size());
+        assertEquals(5, copy.termCount());
+        assertEquals(index.search("solide bruyant", NO_FILTER, 0, 10), copy.search("solide bruyant", NO_FILTER, 0, 10));
+        assertEquals(List.of(1L), ids(copy.search("solide", new SearchFilter(10L, 5, null), 0, 10)));
+        assertEquals(0, copy.search("casse", NO_FILTER, 0, 10).getTotalHits());
+
+        // L'index relu accepte de nouvelles écritures, y compris sur un produit existant
+        copy.index(new SearchDocument(5L, 11L, 4, "solide"));
+        assertEquals(2, copy.search("solide", new SearchFilter(11L, null, null), 0, 10).getTotalHits());
+    }
+
+    @Test
+    void unknownSnapshotFormatIsRejected() {
+        byte[] garbage = new byte[] { 0, 0, 0, 1, 0, 0, 0, 1 };
+        assertThrows(IOException.class,
+                () -> ReviewSearchIndex.readFrom(new DataInputStream(new ByteArrayInputStream(garbage))));
+    }
+
+    private static List<Long> ids(SearchResult result) {
+        return result.getHits().stream().map(SearchHit::getReviewId).collect(Collectors.toList());
+    }
+
+    private static DataInputStream roundTrip(ReviewSearchIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
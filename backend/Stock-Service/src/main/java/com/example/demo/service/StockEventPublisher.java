@@ -0,0 +1,60 @@
+package com.example.demo.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.entities.Stock;
+import com.example.demo.events.StockChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publication des variations de quantité disponible (topic stock-changed), clé = productId :
+ * les messages d'un produit restent ordonnés et le catalogue peut ne garder que le dernier.
+ * Envoyé après commit uniquement, pour ne jamais annoncer un stock annulé par un rollback.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockEventPublisher {
+
+    public static final String STOCK_CHANGED_TOPIC = "stock-changed";
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    public void publishAfterCommit(Stock stock) {
+        StockChangedEvent event = StockChangedEvent.builder()
+                .productId(stock.getProductId())
+                .availableQuantity(stock.getAvailableQuantity())
+                .changedAt(LocalDateTime.now())
+                .build();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(StockChangedEvent event) {
+        log.debug("📤 Sending StockChangedEvent for productId: {} ({} available)",
+                event.getProductId(), event.getAvailableQuantity());
+        kafkaTemplate.send(STOCK_CHANGED_TOPIC, event.getProductId().toString(), event)
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.error("❌ Failed to send StockChangedEvent for productId {}: {}",
+                                event.getProductId(), ex.getMessage(), ex);
+                    }
+                });
+    }
+}
@@ -24,6 +24,7 @@ import java.util.stream.Collectors;
 public class StockService {
     
     private final StockRepository stockRepository;
+    private final StockEventPublisher stockEventPublisher;
     
     // Créer un nouveau stock pour un produit
     @Transactional
@@ -41,6 +42,7 @@ public class StockService {
                 .build();
         
         Stock saved = stockRepository.save(stock);
+        stockEventPublisher.publishAfterCommit(saved);
         log.info("Stock créé pour produit {}: {} unités", request.getProductId(), request.getQuantity());
         
         return mapToResponse(saved);
@@ -87,6 +89,7 @@ public class StockService {
         
         stock.reserve(request.getQuantity());
         Stock updated = stockRepository.save(stock);
+        stockEventPublisher.publishAfterCommit(updated);
         
         log.info("Stock réservé pour produit {}: {} unités", request.getProductId(), request.getQuantity());
         
@@ -119,6 +122,7 @@ public class StockService {
         
         stock.release(request.getQuantity());
         Stock updated = stockRepository.save(stock);
+        stockEventPublisher.publishAfterCommit(updated);
         
         log.info("Stock libéré pour produit {}: {} unités", request.getProductId(), request.getQuantity());
         return mapToResponse(updated);
@@ -131,6 +135,7 @@ public class StockService {
         
         stock.addStock(request.getQuantity());
         Stock updated = stockRepository.save(stock);
+        stockEventPublisher.publishAfterCommit(updated);
         
         log.info("Stock ajouté pour produit {}: {} unités", request.getProductId(), request.getQuantity());
         return mapToResponse(updated);
@@ -13,6 +13,8 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.example.demo.events.codec.BinaryEventSerializer;
+
 
 @Configuration
 public class KafkaProducerConfig {
@@ -25,7 +27,8 @@ public class KafkaProducerConfig {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // Binaire compact pour les événements du module event-schemas, JSON pour les autres
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, BinaryEventSerializer.class);
         
         // IMPORTANT : Ajouter les headers de type pour la désérialisation
         config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, true);
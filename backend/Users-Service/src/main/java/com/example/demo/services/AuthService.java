@@ -73,7 +73,7 @@ public class AuthService {
                 .userId(user.getId())
                 .email(user.getEmail())
                 .name(user.getName())
-                .role(role.getName())
+                .role(role.getName().name())
                 .registeredAt(LocalDateTime.now())
                 .build();
             eventPublisher.publishUserRegisteredEvent(event);
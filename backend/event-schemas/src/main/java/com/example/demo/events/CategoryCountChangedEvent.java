@@ -0,0 +1,19 @@
+package com.example.demo.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Déplacement d'un produit entre (catégorie, statut) ; ancien couple absent à la création, nouveau à la suppression
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryCountChangedEvent {
+    private Long oldCategoryId;
+    private String oldStatus;
+    private Long newCategoryId;
+    private String newStatus;
+    private String sourceInstance;
+}
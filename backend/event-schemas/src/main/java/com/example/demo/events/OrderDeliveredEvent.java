@@ -1,4 +1,8 @@
 package com.example.demo.events;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,4 +16,6 @@ public class OrderDeliveredEvent {
     private Long orderId;
     private Long clientId;
     private Long sellerId;
-}
\ No newline at end of file
+    private List<Long> productIds;
+    private LocalDateTime deliveredAt;
+}
@@ -1,7 +1,7 @@
 package com.example.demo.events;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,9 +12,10 @@ import lombok.NoArgsConstructor;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class ProductRejectedEvent {
-    private Long productId;
-    private String productName;
+public class OrderPlacedEvent {
+    private Long orderId;
+    private Long clientId;
     private Long sellerId;
-    private String rejectionReason;
-}
\ No newline at end of file
+    private List<Long> productIds;
+    private LocalDateTime placedAt;
+}
@@ -13,4 +13,4 @@ public class ProductApprovedEvent {
     private Long productId;
     private String productName;
     private Long sellerId;
-}
\ No newline at end of file
+}
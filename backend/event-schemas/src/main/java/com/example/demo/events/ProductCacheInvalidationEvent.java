@@ -1,4 +1,5 @@
 package com.example.demo.events;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,8 +9,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class ProductCreatedEvent {
+public class ProductCacheInvalidationEvent {
     private Long productId;
-    private String productName;
-    private Long sellerId;
-}
\ No newline at end of file
+    private String sourceInstance;
+}
@@ -1,5 +1,7 @@
 package com.example.demo.events;
 
+import java.math.BigDecimal;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,4 +15,5 @@ public class ProductCreatedEvent {
     private Long productId;
     private String productName;
     private Long sellerId;
-}
\ No newline at end of file
+    private BigDecimal price;
+}
@@ -1,4 +1,5 @@
 package com.example.demo.events;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,4 +14,4 @@ public class ProductRejectedEvent {
     private String productName;
     private Long sellerId;
     private String rejectionReason;
-}
\ No newline at end of file
+}
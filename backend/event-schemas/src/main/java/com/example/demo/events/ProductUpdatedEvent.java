@@ -1,4 +1,7 @@
 package com.example.demo.events;
+
+import java.math.BigDecimal;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,8 +11,10 @@ import lombok.NoArgsConstructor;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class ProductApprovedEvent {
+public class ProductUpdatedEvent {
     private Long productId;
     private String productName;
     private Long sellerId;
-}
\ No newline at end of file
+    private BigDecimal price;
+    private String status; // nom de ProductStatus
+}
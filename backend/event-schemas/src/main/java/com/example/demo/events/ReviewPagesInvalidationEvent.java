@@ -0,0 +1,17 @@
+package com.example.demo.events;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReviewPagesInvalidationEvent {
+    private List<Long> productIds;
+    private String sourceInstance;
+}
@@ -1,10 +1,11 @@
 package com.example.demo.events;
-import jakarta.persistence.*;
-import lombok.*;
 
 import java.time.LocalDateTime;
 
-import com.example.demo.enums.RoleType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
@@ -0,0 +1,18 @@
+package com.example.demo.events;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockChangedEvent {
+    private Long productId;
+    private Integer availableQuantity;
+    private LocalDateTime changedAt;
+}
@@ -1,10 +1,11 @@
 package com.example.demo.events;
-import jakarta.persistence.*;
-import lombok.*;
 
 import java.time.LocalDateTime;
 
-import com.example.demo.enums.RoleType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
@@ -18,4 +19,4 @@ public class UserProfileCompletedEvent {
     private String city;
     private String country;
     private LocalDateTime completedAt;
-}
\ No newline at end of file
+}
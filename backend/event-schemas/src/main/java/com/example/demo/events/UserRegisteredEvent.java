@@ -1,5 +1,7 @@
 package com.example.demo.events;
 
+import java.time.LocalDateTime;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +14,7 @@ import lombok.NoArgsConstructor;
 public class UserRegisteredEvent {
     private Long userId;
     private String email;
-    private String firstName;
-    private String lastName;
+    private String name;
+    private String role; // nom de RoleType
+    private LocalDateTime registeredAt;
 }
@@ -0,0 +1,44 @@
+package com.example.demo.events.codec;
+
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Désérialiseur Kafka des événements : décode les messages binaires (octet MAGIC)
+ * et délègue les autres au JsonDeserializer, configuré avec les mêmes propriétés
+ * (TRUSTED_PACKAGES, USE_TYPE_INFO_HEADERS). Les messages JSON encore présents
+ * dans les topics et les événements sans schéma binaire restent donc lisibles.
+ */
+public class BinaryEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonFallback = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonFallback.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (EventSchemas.isBinary(data)) {
+            return EventSchemas.decode(data);
+        }
+        return jsonFallback.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (EventSchemas.isBinary(data)) {
+            return EventSchemas.decode(data);
+        }
+        return jsonFallback.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonFallback.close();
+    }
+}
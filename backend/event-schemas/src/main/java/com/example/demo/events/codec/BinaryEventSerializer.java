@@ -0,0 +1,42 @@
+package com.example.demo.events.codec;
+
+import java.util.Map;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Sérialiseur Kafka des événements : encodage binaire pour les types enregistrés
+ * dans {@link EventSchemas}, JSON (avec en-têtes de type) pour les autres.
+ */
+public class BinaryEventSerializer implements Serializer<Object> {
+
+    private final JsonSerializer<Object> jsonFallback = new JsonSerializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonFallback.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (EventSchemas.supports(data.getClass())) {
+            return EventSchemas.encode(data);
+        }
+        return headers != null ? jsonFallback.serialize(topic, headers, data) : jsonFallback.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        jsonFallback.close();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.events.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lecture symétrique de {@link BinaryWriter}. Les octets restant après les champs
+ * connus (champs ajoutés par une version plus récente du schéma) sont ignorés.
+ */
+public final class BinaryReader {
+
+    private final byte[] data;
+    private int position;
+
+    public BinaryReader(byte[] data, int offset) {
+        this.data = data;
+        this.position = offset;
+    }
+
+    public long readRawVarint() {
+        long result = 0;
+        int shift = 0;
+        while (shift < 64) {
+            byte b = next();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+        throw new IllegalArgumentException("Varint malformé à la position " + position);
+    }
+
+    public Long readLong() {
+        if (next() == 0) {
+            return null;
+        }
+        long raw = readRawVarint();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public Integer readInt() {
+        Long value = readLong();
+        return value != null ? Math.toIntExact(value) : null;
+    }
+
+    public Boolean readBoolean() {
+        byte b = next();
+        return b == 0 ? null : b == 2;
+    }
+
+    public String readString() {
+        int length = (int) readRawVarint() - 1;
+        if (length < 0) {
+            return null;
+        }
+        ensureAvailable(length);
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public List<Long> readLongs() {
+        int count = (int) readRawVarint() - 1;
+        if (count < 0) {
+            return null;
+        }
+        ensureAvailable(count); // au moins un octet par élément
+        List<Long> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long raw = readRawVarint();
+            values.add((raw >>> 1) ^ -(raw & 1));
+        }
+        return values;
+    }
+
+    public BigDecimal readDecimal() {
+        int length = (int) readRawVarint() - 1;
+        if (length < 0) {
+            return null;
+        }
+        ensureAvailable(length);
+        BigInteger unscaled = new BigInteger(Arrays.copyOfRange(data, position, position + length));
+        position += length;
+        long rawScale = readRawVarint();
+        int scale = (int) ((rawScale >>> 1) ^ -(rawScale & 1));
+        return new BigDecimal(unscaled, scale);
+    }
+
+    public LocalDateTime readDateTime() {
+        Long millis = readLong();
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC) : null;
+    }
+
+    byte readRawByte() {
+        return next();
+    }
+
+    private byte next() {
+        ensureAvailable(1);
+        return data[position++];
+    }
+
+    private void ensureAvailable(int count) {
+        if (position + count > data.length) {
+            throw new IllegalArgumentException("Événement binaire tronqué");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.events.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Écriture des champs d'un événement : varints zigzag pour les entiers,
+ * chaînes UTF-8 préfixées par leur longueur, null encodé sur un octet au plus.
+ */
+public final class BinaryWriter {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+
+    public BinaryWriter writeRawVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+        return this;
+    }
+
+    public BinaryWriter writeLong(Long value) {
+        if (value == null) {
+            out.write(0);
+            return this;
+        }
+        out.write(1);
+        return writeRawVarint((value << 1) ^ (value >> 63));
+    }
+
+    public BinaryWriter writeInt(Integer value) {
+        return writeLong(value != null ? value.longValue() : null);
+    }
+
+    public BinaryWriter writeBoolean(Boolean value) {
+        out.write(value == null ? 0 : (value ? 2 : 1));
+        return this;
+    }
+
+    // Longueur + 1 : 0 signifie null, sans octet de présence séparé
+    public BinaryWriter writeString(String value) {
+        if (value == null) {
+            return writeRawVarint(0);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeRawVarint(bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+        return this;
+    }
+
+    public BinaryWriter writeDecimal(BigDecimal value) {
+        if (value == null) {
+            return writeRawVarint(0);
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeRawVarint(unscaled.length + 1L);
+        out.write(unscaled, 0, unscaled.length);
+        writeRawVarint(((long) value.scale() << 1) ^ (value.scale() >> 31));
+        return this;
+    }
+
+    // Horodatage local sérialisé tel quel (sans fuseau), précision milliseconde
+    public BinaryWriter writeDateTime(LocalDateTime value) {
+        return writeLong(value != null ? value.toInstant(ZoneOffset.UTC).toEpochMilli() : null);
+    }
+
+    // Nombre d'éléments + 1 (0 = null) puis varints zigzag ; éléments non null
+    public BinaryWriter writeLongs(List<Long> values) {
+        if (values == null) {
+            return writeRawVarint(0);
+        }
+        writeRawVarint(values.size() + 1L);
+        for (Long value : values) {
+            writeRawVarint((value << 1) ^ (value >> 63));
+        }
+        return this;
+    }
+
+    void writeRawByte(byte value) {
+        out.write(value);
+    }
+
+    public byte[] toByteArray() {
+        return out.toByteArray();
+    }
+}
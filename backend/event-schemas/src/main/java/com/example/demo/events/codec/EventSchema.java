@@ -0,0 +1,50 @@
+package com.example.demo.events.codec;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * Schéma versionné d'un type d'événement.
+ *
+ * Règle d'évolution : un champ n'est jamais retiré ni réordonné ; un nouveau champ
+ * est ajouté en fin d'écriture avec une version incrémentée, et sa lecture est
+ * conditionnée à {@code version >= n}. Un lecteur plus ancien ignore les octets en trop.
+ */
+public final class EventSchema<T> {
+
+    private final int typeId;
+    private final int version;
+    private final Class<T> type;
+    private final BiConsumer<BinaryWriter, T> writer;
+    private final BiFunction<BinaryReader, Integer, T> reader;
+
+    public EventSchema(int typeId, int version, Class<T> type,
+                       BiConsumer<BinaryWriter, T> writer,
+                       BiFunction<BinaryReader, Integer, T> reader) {
+        this.typeId = typeId;
+        this.version = version;
+        this.type = type;
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    public int getTypeId() {
+        return typeId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    void write(BinaryWriter out, Object event) {
+        writer.accept(out, type.cast(event));
+    }
+
+    T read(BinaryReader in, int writtenVersion) {
+        return reader.apply(in, writtenVersion);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.events.codec;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.events.CategoryCountChangedEvent;
+import com.example.demo.events.OrderDeliveredEvent;
+import com.example.demo.events.OrderPlacedEvent;
+import com.example.demo.events.ProductApprovedEvent;
+import com.example.demo.events.ProductCacheInvalidationEvent;
+import com.example.demo.events.ProductCreatedEvent;
+import com.example.demo.events.ProductDeletedEvent;
+import com.example.demo.events.ProductRejectedEvent;
+import com.example.demo.events.ProductUpdatedEvent;
+import com.example.demo.events.ReviewPagesInvalidationEvent;
+import com.example.demo.events.SellerRegisteredEvent;
+import com.example.demo.events.StockChangedEvent;
+import com.example.demo.events.UserProfileCompletedEvent;
+import com.example.demo.events.UserRegisteredEvent;
+
+/**
+ * Registre des schémas et format binaire des messages :
+ * [MAGIC][typeId varint][version varint][champs...].
+ *
+ * Les typeId sont définitifs : ne jamais réutiliser un identifiant retiré.
+ * Toute modification d'un événement doit être reportée ici et dans
+ * src/test/resources/event-schemas.lock (vérifié au build par EventSchemasTest).
+ */
+public final class EventSchemas {
+
+    public static final byte MAGIC = (byte) 0xE5;
+
+    public static final List<EventSchema<?>> ALL = List.of(
+            // ==================== PRODUITS (1-19) ====================
+            new EventSchema<>(1, 1, ProductCreatedEvent.class,
+                    (out, e) -> out.writeLong(e.getProductId()).writeString(e.getProductName())
+                            .writeLong(e.getSellerId()).writeDecimal(e.getPrice()),
+                    (in, v) -> ProductCreatedEvent.builder()
+                            .productId(in.readLong()).productName(in.readString())
+                            .sellerId(in.readLong()).price(in.readDecimal())
+                            .build()),
+            new EventSchema<>(2, 1, ProductUpdatedEvent.class,
+                    (out, e) -> out.writeLong(e.getProductId()).writeString(e.getProductName())
+                            .writeLong(e.getSellerId()).writeDecimal(e.getPrice()).writeString(e.getStatus()),
+                    (in, v) -> ProductUpdatedEvent.builder()
+                            .productId(in.readLong()).productName(in.readString())
+                            .sellerId(in.readLong()).price(in.readDecimal()).status(in.readString())
+                            .build()),
+            new EventSchema<>(3, 1, ProductApprovedEvent.class,
+                    (out, e) -> out.writeLong(e.getProductId()).writeString(e.getProductName())
+                            .writeLong(e.getSellerId()),
+                    (in, v) -> ProductApprovedEvent.builder()
+                            .productId(in.readLong()).productName(in.readString()).sellerId(in.readLong())
+                            .build()),
+            new EventSchema<>(4, 1, ProductRejectedEvent.class,
+                    (out, e) -> out.writeLong(e.getProductId()).writeString(e.getProductName())
+                            .writeLong(e.getSellerId()).writeString(e.getRejectionReason()),
+                    (in, v) -> ProductRejectedEvent.builder()
+                            .productId(in.readLong()).productName(in.readString())
+                            .sellerId(in.readLong()).rejectionReason(in.readString())
+                            .build()),
+            new EventSchema<>(5, 1, ProductDeletedEvent.class,
+                    (out, e) -> out.writeLong(e.getProductId()).writeString(e.getProductName())
+                            .writeLong(e.getSellerId()),
+                    (in, v) -> ProductDeletedEvent.builder()
+                            .productId(in.readLong()).productName(in.readString()).sellerId(in.readLong())
+                            .build()),
+            new EventSchema<>(6, 1, ProductCacheInvalidationEvent.class,
+                    (out, e) -> out.writeLong(e.getProductId()).writeString(e.getSourceInstance()),
+                    (in, v) -> ProductCacheInvalidationEvent.builder()
+                            .productId(in.readLong()).sourceInstance(in.readString())
+                            .build()),
+            new EventSchema<>(7, 1, CategoryCountChangedEvent.class,
+                    (out, e) -> out.writeLong(e.getOldCategoryId()).writeString(e.getOldStatus())
+                            .writeLong(e.getNewCategoryId()).writeString(e.getNewStatus())
+                            .writeString(e.getSourceInstance()),
+                    (in, v) -> CategoryCountChangedEvent.builder()
+                            .oldCategoryId(in.readLong()).oldStatus(in.readString())
+                            .newCategoryId(in.readLong()).newStatus(in.readString())
+                            .sourceInstance(in.readString())
+                            .build()),
+
+            // ==================== UTILISATEURS (20-39) ====================
+            new EventSchema<>(20, 1, UserRegisteredEvent.class,
+                    (out, e) -> out.writeLong(e.getUserId()).writeString(e.getEmail()).writeString(e.getName())
+                            .writeString(e.getRole()).writeDateTime(e.getRegisteredAt()),
+                    (in, v) -> UserRegisteredEvent.builder()
+                            .userId(in.readLong()).email(in.readString()).name(in.readString())
+                            .role(in.readString()).registeredAt(in.readDateTime())
+                            .build()),
+            new EventSchema<>(21, 1, SellerRegisteredEvent.class,
+                    (out, e) -> out.writeLong(e.getUserId()).writeString(e.getEmail()).writeString(e.getName())
+                            .writeDateTime(e.getRegisteredAt()),
+                    (in, v) -> SellerRegisteredEvent.builder()
+                            .userId(in.readLong()).email(in.readString()).name(in.readString())
+                            .registeredAt(in.readDateTime())
+                            .build()),
+            new EventSchema<>(22, 1, UserProfileCompletedEvent.class,
+                    (out, e) -> out.writeLong(e.getUserId()).writeString(e.getEmail()).writeString(e.getName())
+                            .writeString(e.getPhoneNumber()).writeString(e.getCity()).writeString(e.getCountry())
+                            .writeDateTime(e.getCompletedAt()),
+                    (in, v) -> UserProfileCompletedEvent.builder()
+                            .userId(in.readLong()).email(in.readString()).name(in.readString())
+                            .phoneNumber(in.readString()).city(in.readString()).country(in.readString())
+                            .completedAt(in.readDateTime())
+                            .build()),
+
+            // ==================== STOCK (40-59) ====================
+            new EventSchema<>(40, 1, StockChangedEvent.class,
+                    (out, e) -> out.writeLong(e.getProductId()).writeInt(e.getAvailableQuantity())
+                            .writeDateTime(e.getChangedAt()),
+                    (in, v) -> StockChangedEvent.builder()
+                            .productId(in.readLong()).availableQuantity(in.readInt())
+                            .changedAt(in.readDateTime())
+                            .build()),
+
+            // ==================== COMMANDES (60-79) ====================
+            new EventSchema<>(60, 1, OrderDeliveredEvent.class,
+                    (out, e) -> out.writeLong(e.getOrderId()).writeLong(e.getClientId()).writeLong(e.getSellerId())
+                            .writeLongs(e.getProductIds()).writeDateTime(e.getDeliveredAt()),
+                    (in, v) -> OrderDeliveredEvent.builder()
+                            .orderId(in.readLong()).clientId(in.readLong()).sellerId(in.readLong())
+                            .productIds(in.readLongs()).deliveredAt(in.readDateTime())
+                            .build()),
+            new EventSchema<>(61, 1, OrderPlacedEvent.class,
+                    (out, e) -> out.writeLong(e.getOrderId()).writeLong(e.getClientId()).writeLong(e.getSellerId())
+                            .writeLongs(e.getProductIds()).writeDateTime(e.getPlacedAt()),
+                    (in, v) -> OrderPlacedEvent.builder()
+                            .orderId(in.readLong()).clientId(in.readLong()).sellerId(in.readLong())
+                            .productIds(in.readLongs()).placedAt(in.readDateTime())
+                            .build()),
+
+            // ==================== AVIS (80-99) ====================
+            new EventSchema<>(80, 1, ReviewPagesInvalidationEvent.class,
+                    (out, e) -> out.writeLongs(e.getProductIds()).writeString(e.getSourceInstance()),
+                    (in, v) -> ReviewPagesInvalidationEvent.builder()
+                            .productIds(in.readLongs()).sourceInstance(in.readString())
+                            .build())
+    );
+
+    private static final Map<Class<?>, EventSchema<?>> BY_TYPE = new HashMap<>();
+    private static final Map<Integer, EventSchema<?>> BY_ID = new HashMap<>();
+
+    static {
+        for (EventSchema<?> schema : ALL) {
+            if (BY_ID.put(schema.getTypeId(), schema) != null || BY_TYPE.put(schema.getType(), schema) != null) {
+                throw new IllegalStateException("Schéma d'événement dupliqué: " + schema.getType().getName());
+            }
+        }
+    }
+
+    private EventSchemas() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return BY_TYPE.containsKey(type);
+    }
+
+    public static byte[] encode(Object event) {
+        EventSchema<?> schema = BY_TYPE.get(event.getClass());
+        if (schema == null) {
+            throw new IllegalArgumentException("Aucun schéma binaire pour " + event.getClass().getName());
+        }
+        BinaryWriter out = new BinaryWriter();
+        out.writeRawByte(MAGIC);
+        out.writeRawVarint(schema.getTypeId());
+        out.writeRawVarint(schema.getVersion());
+        schema.write(out, event);
+        return out.toByteArray();
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static Object decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new IllegalArgumentException("Message non binaire");
+        }
+        BinaryReader in = new BinaryReader(data, 0);
+        in.readRawByte();
+        int typeId = (int) in.readRawVarint();
+        int version = (int) in.readRawVarint();
+        EventSchema<?> schema = BY_ID.get(typeId);
+        if (schema == null) {
+            throw new IllegalArgumentException("Type d'événement inconnu: " + typeId);
+        }
+        return schema.read(in, version);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.events.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Garde-fou de build : un champ ajouté, retiré ou retypé dans un événement sans mise à jour
+ * de son schéma binaire (et du fichier event-schemas.lock) fait échouer la construction du module.
+ */
+class EventSchemasTest {
+
+    @Test
+    void schemasMatchLockFile() throws IOException {
+        String expected;
+        try (InputStream in = getClass().getResourceAsStream("/event-schemas.lock")) {
+            expected = new String(in.readAllBytes(), StandardCharsets.UTF_8).strip();
+        }
+        String actual = EventSchemas.ALL.stream().map(EventSchemasTest::fingerprint).collect(Collectors.joining("\n"));
+        assertEquals(expected, actual, "Schéma d'événement modifié : incrémenter la version, adapter le codec puis event-schemas.lock");
+    }
+
+    @Test
+    void everyFieldSurvivesRoundTrip() throws Exception {
+        for (EventSchema<?> schema : EventSchemas.ALL) {
+            Object populated = sample(schema.getType(), true);
+            assertEquals(populated, EventSchemas.decode(EventSchemas.encode(populated)), schema.getType().getSimpleName());
+
+            Object empty = sample(schema.getType(), false);
+            assertEquals(empty, EventSchemas.decode(EventSchemas.encode(empty)), schema.getType().getSimpleName());
+        }
+    }
+
+    @Test
+    void binaryIsSmallerThanJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        for (EventSchema<?> schema : EventSchemas.ALL) {
+            Object event = sample(schema.getType(), true);
+            int json = mapper.writeValueAsBytes(event).length;
+            int binary = EventSchemas.encode(event).length;
+            assertTrue(binary < json, schema.getType().getSimpleName() + ": " + binary + " >= " + json);
+        }
+    }
+
+    private static String fingerprint(EventSchema<?> schema) {
+        List<String> fields = new ArrayList<>();
+        for (Field field : schema.getType().getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field.getName() + ":" + field.getType().getSimpleName());
+            }
+        }
+        return schema.getTypeId() + " v" + schema.getVersion() + " " + schema.getType().getSimpleName()
+                + " " + String.join(",", fields);
+    }
+
+    private static Object sample(Class<?> type, boolean populated) throws Exception {
+        Object event = type.getDeclaredConstructor().newInstance();
+        if (!populated) {
+            return event;
+        }
+        long seed = 1;
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            Class<?> fieldType = field.getType();
+            seed++;
+            if (fieldType == Long.class) {
+                field.set(event, 1_000_000L * seed);
+            } else if (fieldType == Integer.class) {
+                field.set(event, (int) seed);
+            } else if (fieldType == Boolean.class) {
+                field.set(event, Boolean.TRUE);
+            } else if (fieldType == String.class) {
+                field.set(event, field.getName() + "-é-" + seed);
+            } else if (fieldType == BigDecimal.class) {
+                field.set(event, new BigDecimal("1299.9" + seed));
+            } else if (fieldType == List.class) {
+                field.set(event, List.of(seed, -seed, 1_000_000_000_000L * seed));
+            } else if (fieldType == LocalDateTime.class) {
+                field.set(event, LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_000_000));
+            } else {
+                throw new IllegalStateException("Type non supporté par le codec: " + type.getSimpleName() + "." + field.getName());
+            }
+        }
+        return event;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Les notifications existantes ont été numérotées par la colonne IDENTITY : la séquence
+ * notifications_seq est avancée au-delà du plus grand id avant le démarrage des consommateurs
+ * Kafka. Ne fait rien une fois la séquence en avance (redémarrages, autres instances).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class NotificationSequenceInitializer {
+
+    private static final String CREATE_SQL =
+            "CREATE SEQUENCE IF NOT EXISTS notifications_seq START WITH 1 INCREMENT BY 50";
+    private static final String ALIGN_SQL =
+            "SELECT setval('notifications_seq', (SELECT MAX(id) FROM notifications) + 100) " +
+            "WHERE (SELECT last_value FROM notifications_seq) <= (SELECT COALESCE(MAX(id), 0) FROM notifications)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequence() {
+        try {
+            jdbcTemplate.execute(CREATE_SQL);
+            jdbcTemplate.query(ALIGN_SQL, rs -> {
+                log.info("Sequence notifications_seq moved to {}", rs.getLong(1));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Unable to align notifications_seq: {}", e.getMessage());
+        }
+    }
+}
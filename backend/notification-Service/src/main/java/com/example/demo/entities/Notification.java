@@ -19,8 +19,11 @@ import com.example.demo.enums.NotificationType;
 @AllArgsConstructor
 public class Notification {
     
+    // Séquence réservée par blocs de 50 plutôt qu'IDENTITY : Hibernate peut alors regrouper
+    // les INSERT d'un saveAll en lots JDBC (voir NotificationSequenceInitializer)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
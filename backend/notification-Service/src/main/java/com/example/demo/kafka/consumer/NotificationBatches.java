@@ -0,0 +1,77 @@
+package com.example.demo.kafka.consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.util.StringUtils;
+
+import com.example.demo.dtos.NotificationRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Construction des notifications d'un lot d'événements (un poll Kafka).
+ * Un événement en erreur est journalisé et ignoré sans bloquer le reste du lot.
+ * Les notifications incomplètes sont écartées ici : le lot part en un seul saveAll,
+ * une ligne refusée par la base ferait échouer toutes les autres.
+ */
+@Slf4j
+final class NotificationBatches {
+
+    // Longueurs des colonnes de la table notifications
+    private static final int MAX_TITLE_LENGTH = 255;
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private NotificationBatches() {
+    }
+
+    static <E> List<NotificationRequest> collect(List<E> events,
+                                                 Function<E, List<NotificationRequest>> mapper,
+                                                 String eventName) {
+        List<NotificationRequest> requests = new ArrayList<>(events.size() * 2);
+        for (E event : events) {
+            // Valeur null : message non désérialisable (ErrorHandlingDeserializer)
+            if (event == null) {
+                log.warn("⚠️ Skipping undeserializable {}", eventName);
+                continue;
+            }
+            try {
+                for (NotificationRequest request : mapper.apply(event)) {
+                    String problem = validate(request);
+                    if (problem == null) {
+                        requests.add(request);
+                    } else {
+                        log.warn("⚠️ Skipping invalid notification from {} ({}): {}", eventName, problem, event);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("❌ Error handling {}: {}", eventName, e.getMessage(), e);
+            }
+        }
+        return requests;
+    }
+
+    // Mêmes règles que les contraintes de NotificationRequest et les colonnes NOT NULL de Notification
+    private static String validate(NotificationRequest request) {
+        if (request == null) {
+            return "null request";
+        }
+        if (request.getUserId() == null) {
+            return "missing userId";
+        }
+        if (!StringUtils.hasText(request.getUserRole())) {
+            return "missing userRole";
+        }
+        if (request.getType() == null) {
+            return "missing type";
+        }
+        if (!StringUtils.hasText(request.getTitle()) || request.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "missing or too long title";
+        }
+        if (!StringUtils.hasText(request.getMessage()) || request.getMessage().length() > MAX_MESSAGE_LENGTH) {
+            return "missing or too long message";
+        }
+        return null;
+    }
+}
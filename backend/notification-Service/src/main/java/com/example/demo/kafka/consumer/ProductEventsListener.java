@@ -3,6 +3,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
@@ -26,82 +27,86 @@ public class ProductEventsListener {
 
 
     @KafkaListener(topics = "product-created", groupId = "notification-service-group")
-    public void handleProductCreated(ProductCreatedEvent event) {
-        log.info("📬 Received ProductCreatedEvent for productId: {}", event.getProductId());
+    public void handleProductCreated(List<ProductCreatedEvent> events) {
+        log.info("📬 Received {} ProductCreatedEvent", events.size());
         
-        try {
-            // Créer la notification WebSocket
-            WebSocketNotification wsNotif = WebSocketNotification.builder()
-                    .type(NotificationType.NEW_PRODUCT_PENDING)
-                    .title("Nouveau produit à valider")
-                    .message(String.format(
-                        "Produit '%s' soumis par le vendeur ID %d", 
-                        event.getProductName(), 
-                        event.getSellerId()
-                    ))
-                    .metadata(String.format(
-                        "{\"productId\":%d,\"sellerId\":%d,\"productName\":\"%s\",\"action\":\"MODERATE_PRODUCT\"}", 
-                        event.getProductId(), 
-                        event.getSellerId(), 
-                        event.getProductName()
-                    ))
-                    .timestamp(LocalDateTime.now())
-                    .build();
-            
-            // Broadcast à tous les admins connectés
-            webSocketService.broadcastToRole("ADMIN", wsNotif);
-            
-            log.info("✅ Product creation broadcast to ADMIN role for product: {}", event.getProductId());
-            
-        } catch (Exception e) {
-            log.error("❌ Error handling ProductCreatedEvent: {}", e.getMessage(), e);
+        for (ProductCreatedEvent event : events) {
+            if (event == null) {
+                continue;
+            }
+            try {
+                // Créer la notification WebSocket
+                WebSocketNotification wsNotif = WebSocketNotification.builder()
+                        .type(NotificationType.NEW_PRODUCT_PENDING)
+                        .title("Nouveau produit à valider")
+                        .message(String.format(
+                            "Produit '%s' soumis par le vendeur ID %d", 
+                            event.getProductName(), 
+                            event.getSellerId()
+                        ))
+                        .metadata(String.format(
+                            "{\"productId\":%d,\"sellerId\":%d,\"productName\":\"%s\",\"action\":\"MODERATE_PRODUCT\"}", 
+                            event.getProductId(), 
+                            event.getSellerId(), 
+                            event.getProductName()
+                        ))
+                        .timestamp(LocalDateTime.now())
+                        .build();
+                
+                // Broadcast à tous les admins connectés (pas de persistance)
+                webSocketService.broadcastToRole("ADMIN", wsNotif);
+            } catch (Exception e) {
+                log.error("❌ Error handling ProductCreatedEvent: {}", e.getMessage(), e);
+            }
         }
+        log.info("✅ Product creation broadcast to ADMIN role for {} products", events.size());
     }
+
     @KafkaListener(topics = "product-approved", groupId = "notification-service-group")
-    public void handleProductApproved(ProductApprovedEvent event) {
-        log.info("📬 Received ProductApprovedEvent for productId: {}", event.getProductId());
-        
-        try {
-            // Notification pour SELLER
-            NotificationRequest sellerNotif = NotificationRequest.builder()
-                    .userId(event.getSellerId())
-                    .userRole("SELLER")
-                    .type(NotificationType.PRODUCT_APPROVED)
-                    .title("✅ Produit approuvé")
-                    .message(String.format("Félicitations! Votre produit '%s' a été approuvé et est maintenant visible publiquement.", 
-                            event.getProductName()))
-                    .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\"}", 
-                            event.getProductId(), event.getProductName()))
-                    .build();
-            
-            notificationService.createNotification(sellerNotif);
-            log.info("✅ Seller notification sent for approved product: {}", event.getProductId());
-        } catch (Exception e) {
-            log.error("❌ Error handling ProductApprovedEvent: {}", e.getMessage(), e);
-        }
+    public void handleProductApproved(List<ProductApprovedEvent> events) {
+        log.info("📬 Received {} ProductApprovedEvent", events.size());
+        int sent = notificationService.createNotifications(
+                NotificationBatches.collect(events, this::productApprovedNotifications, "ProductApprovedEvent"));
+        log.info("✅ {} seller notifications sent for approved products", sent);
     }
 
     @KafkaListener(topics = "product-rejected", groupId = "notification-service-group")
-    public void handleProductRejected(ProductRejectedEvent event) {
-        log.info("📬 Received ProductRejectedEvent for productId: {}", event.getProductId());
-        
-        try {
-            // Notification pour SELLER
-            NotificationRequest sellerNotif = NotificationRequest.builder()
-                    .userId(event.getSellerId())
-                    .userRole("SELLER")
-                    .type(NotificationType.PRODUCT_REJECTED)
-                    .title("❌ Produit rejeté")
-                    .message(String.format("Votre produit '%s' a été rejeté. Raison: %s", 
-                            event.getProductName(), event.getRejectionReason()))
-                    .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\",\"reason\":\"%s\"}", 
-                            event.getProductId(), event.getProductName(), event.getRejectionReason()))
-                    .build();
-            
-            notificationService.createNotification(sellerNotif);
-            log.info("✅ Seller notification sent for rejected product: {}", event.getProductId());
-        } catch (Exception e) {
-            log.error("❌ Error handling ProductRejectedEvent: {}", e.getMessage(), e);
-        }
+    public void handleProductRejected(List<ProductRejectedEvent> events) {
+        log.info("📬 Received {} ProductRejectedEvent", events.size());
+        int sent = notificationService.createNotifications(
+                NotificationBatches.collect(events, this::productRejectedNotifications, "ProductRejectedEvent"));
+        log.info("✅ {} seller notifications sent for rejected products", sent);
+    }
+
+    // ===== CONSTRUCTION DES NOTIFICATIONS =====
+
+    private List<NotificationRequest> productApprovedNotifications(ProductApprovedEvent event) {
+        // Notification pour SELLER
+        NotificationRequest sellerNotif = NotificationRequest.builder()
+                .userId(event.getSellerId())
+                .userRole("SELLER")
+                .type(NotificationType.PRODUCT_APPROVED)
+                .title("✅ Produit approuvé")
+                .message(String.format("Félicitations! Votre produit '%s' a été approuvé et est maintenant visible publiquement.", 
+                        event.getProductName()))
+                .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\"}", 
+                        event.getProductId(), event.getProductName()))
+                .build();
+        return List.of(sellerNotif);
+    }
+
+    private List<NotificationRequest> productRejectedNotifications(ProductRejectedEvent event) {
+        // Notification pour SELLER
+        NotificationRequest sellerNotif = NotificationRequest.builder()
+                .userId(event.getSellerId())
+                .userRole("SELLER")
+                .type(NotificationType.PRODUCT_REJECTED)
+                .title("❌ Produit rejeté")
+                .message(String.format("Votre produit '%s' a été rejeté. Raison: %s", 
+                        event.getProductName(), event.getRejectionReason()))
+                .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\",\"reason\":\"%s\"}", 
+                        event.getProductId(), event.getProductName(), event.getRejectionReason()))
+                .build();
+        return List.of(sellerNotif);
     }
-}
\ No newline at end of file
+}
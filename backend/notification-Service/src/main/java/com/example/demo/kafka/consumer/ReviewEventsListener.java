@@ -10,6 +10,8 @@ import com.example.demo.enums.NotificationType;
 import com.example.demo.events.ReviewCreatedEvent;
 import com.example.demo.service.NotificationService;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -17,38 +19,35 @@ public class ReviewEventsListener {
 
     private final NotificationService notificationService;
 
+    // Une erreur d'écriture du lot remonte au conteneur : le lot est rejoué, offsets non commités
     @KafkaListener(topics = "review-created", groupId = "notification-service-group")
-    public void handleReviewCreated(ReviewCreatedEvent event) {
-        log.info("📬 Received ReviewCreatedEvent for reviewId: {}, productId: {}, sellerId: {}", 
-                event.getReviewId(), event.getProductId(), event.getSellerId());
+    public void handleReviewCreated(List<ReviewCreatedEvent> events) {
+        log.info("📬 Received {} ReviewCreatedEvent", events.size());
+        int sent = notificationService.createNotifications(
+                NotificationBatches.collect(events, this::reviewCreatedNotifications, "ReviewCreatedEvent"));
+        log.info("✅ {} seller notifications sent for new reviews", sent);
+    }
+
+    // ===== CONSTRUCTION DES NOTIFICATIONS =====
+
+    private List<NotificationRequest> reviewCreatedNotifications(ReviewCreatedEvent event) {
+        // Créer les étoiles pour le rating
+        String ratingStars = "⭐".repeat(event.getRating());
         
-        try {
-            // Créer les étoiles pour le rating
-            String ratingStars = "⭐".repeat(event.getRating());
-            
-            // Notification pour le VENDEUR
-            NotificationRequest sellerNotif = NotificationRequest.builder()
-                    .userId(event.getSellerId()) // ID du vendeur
-                    .userRole("SELLER")
-                    .type(NotificationType.NEW_REVIEW)
-                    .title("Nouvel avis sur votre produit")
-                    .message(String.format("Votre produit a reçu %d étoiles %s", 
-                         event.getRating(), 
-                         ratingStars))
-                    .metadata(String.format("{\"productId\": %d, \"reviewId\": %d, \"rating\": %d}", 
-                         event.getProductId(), 
-                         event.getReviewId(), 
-                         event.getRating()))
-                    .build();
-            
-            notificationService.createNotification(sellerNotif);
-            log.info("✅ Seller notification sent for product: {}, review: {}", 
-                    event.getProductId(), event.getReviewId());
-            
-        } catch (Exception e) {
-            log.error("❌ Error processing ReviewCreatedEvent for review {}: {}", 
-                     event.getReviewId(), e.getMessage(), e);
-            throw new RuntimeException("Failed to process review creation notification", e);
-        }
+        // Notification pour le VENDEUR
+        NotificationRequest sellerNotif = NotificationRequest.builder()
+                .userId(event.getSellerId()) // ID du vendeur
+                .userRole("SELLER")
+                .type(NotificationType.NEW_REVIEW)
+                .title("Nouvel avis sur votre produit")
+                .message(String.format("Votre produit a reçu %d étoiles %s", 
+                     event.getRating(), 
+                     ratingStars))
+                .metadata(String.format("{\"productId\": %d, \"reviewId\": %d, \"rating\": %d}", 
+                     event.getProductId(), 
+                     event.getReviewId(), 
+                     event.getRating()))
+                .build();
+        return List.of(sellerNotif);
     }
-}
\ No newline at end of file
+}
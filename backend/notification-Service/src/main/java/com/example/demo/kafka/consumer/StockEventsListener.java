@@ -12,6 +12,8 @@ import com.example.demo.events.StockDepletedEvent;
 import com.example.demo.events.StockReservationFailedEvent;
 import com.example.demo.service.NotificationService;
 
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -20,74 +22,73 @@ public class StockEventsListener {
     private final NotificationService notificationService;
 
     @KafkaListener(topics = "low-stock", groupId = "notification-service-group")
-    public void handleLowStock(LowStockEvent event) {
-        log.info("📬 Received LowStockEvent for productId: {}", event.getProductId());
-        
-        try {
-            // Notification SELLER
-            NotificationRequest sellerNotif = NotificationRequest.builder()
-                    .userId(event.getSellerId())
-                    .userRole("SELLER")
-                    .type(NotificationType.LOW_STOCK)
-                    .title("⚠️ Alerte stock faible")
-                    .message(String.format("Stock faible pour '%s'. Stock actuel: %d unités (seuil: %d). Réapprovisionnez rapidement!", 
-                            event.getProductName(), event.getCurrentStock(), event.getThreshold()))
-                    .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\",\"currentStock\":%d,\"threshold\":%d}", 
-                            event.getProductId(), event.getProductName(), event.getCurrentStock(), event.getThreshold()))
-                    .build();
-            
-            notificationService.createNotification(sellerNotif);
-            log.info("✅ Seller notification sent for low stock product: {}", event.getProductId());
-        } catch (Exception e) {
-            log.error("❌ Error handling LowStockEvent: {}", e.getMessage(), e);
-        }
+    public void handleLowStock(List<LowStockEvent> events) {
+        log.info("📬 Received {} LowStockEvent", events.size());
+        int sent = notificationService.createNotifications(
+                NotificationBatches.collect(events, this::lowStockNotifications, "LowStockEvent"));
+        log.info("✅ {} seller notifications sent for low stock products", sent);
     }
 
     @KafkaListener(topics = "stock-depleted", groupId = "notification-service-group")
-    public void handleStockDepleted(StockDepletedEvent event) {
-        log.info("📬 Received StockDepletedEvent for productId: {}", event.getProductId());
-        
-        try {
-            // Notification SELLER
-            NotificationRequest sellerNotif = NotificationRequest.builder()
-                    .userId(event.getSellerId())
-                    .userRole("SELLER")
-                    .type(NotificationType.STOCK_DEPLETED)
-                    .title("🚨 Rupture de stock")
-                    .message(String.format("Rupture de stock pour '%s'. Le produit n'est plus disponible à la vente. Réapprovisionnez d'urgence!", 
-                            event.getProductName()))
-                    .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\"}", 
-                            event.getProductId(), event.getProductName()))
-                    .build();
-            
-            notificationService.createNotification(sellerNotif);
-            log.info("✅ Seller notification sent for depleted stock: {}", event.getProductId());
-        } catch (Exception e) {
-            log.error("❌ Error handling StockDepletedEvent: {}", e.getMessage(), e);
-        }
+    public void handleStockDepleted(List<StockDepletedEvent> events) {
+        log.info("📬 Received {} StockDepletedEvent", events.size());
+        int sent = notificationService.createNotifications(
+                NotificationBatches.collect(events, this::stockDepletedNotifications, "StockDepletedEvent"));
+        log.info("✅ {} seller notifications sent for depleted stock", sent);
     }
 
     @KafkaListener(topics = "stock-reservation-failed", groupId = "notification-service-group")
-    public void handleStockReservationFailed(StockReservationFailedEvent event) {
-        log.info("📬 Received StockReservationFailedEvent for orderId: {}", event.getOrderId());
-        
-        try {
-            // Notification CLIENT
-            NotificationRequest clientNotif = NotificationRequest.builder()
-                    .userId(event.getClientId())
-                    .userRole("CLIENT")
-                    .type(NotificationType.STOCK_RESERVATION_FAILED)
-                    .title("❌ Produit indisponible")
-                    .message(String.format("Le produit '%s' n'est plus disponible en quantité suffisante. Votre commande #%d a été annulée.", 
-                            event.getProductName(), event.getOrderId()))
-                    .metadata(String.format("{\"orderId\":%d,\"productId\":%d,\"productName\":\"%s\"}", 
-                            event.getOrderId(), event.getProductId(), event.getProductName()))
-                    .build();
-            
-            notificationService.createNotification(clientNotif);
-            log.info("✅ Client notification sent for failed stock reservation: {}", event.getOrderId());
-        } catch (Exception e) {
-            log.error("❌ Error handling StockReservationFailedEvent: {}", e.getMessage(), e);
-        }
+    public void handleStockReservationFailed(List<StockReservationFailedEvent> events) {
+        log.info("📬 Received {} StockReservationFailedEvent", events.size());
+        int sent = notificationService.createNotifications(
+                NotificationBatches.collect(events, this::stockReservationFailedNotifications, "StockReservationFailedEvent"));
+        log.info("✅ {} client notifications sent for failed stock reservations", sent);
+    }
+
+    // ===== CONSTRUCTION DES NOTIFICATIONS =====
+
+    private List<NotificationRequest> lowStockNotifications(LowStockEvent event) {
+        // Notification SELLER
+        NotificationRequest sellerNotif = NotificationRequest.builder()
+                .userId(event.getSellerId())
+                .userRole("SELLER")
+                .type(NotificationType.LOW_STOCK)
+                .title("⚠️ Alerte stock faible")
+                .message(String.format("Stock faible pour '%s'. Stock actuel: %d unités (seuil: %d). Réapprovisionnez rapidement!", 
+                        event.getProductName(), event.getCurrentStock(), event.getThreshold()))
+                .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\",\"currentStock\":%d,\"threshold\":%d}", 
+                        event.getProductId(), event.getProductName(), event.getCurrentStock(), event.getThreshold()))
+                .build();
+        return List.of(sellerNotif);
+    }
+
+    private List<NotificationRequest> stockDepletedNotifications(StockDepletedEvent event) {
+        // Notification SELLER
+        NotificationRequest sellerNotif = NotificationRequest.builder()
+                .userId(event.getSellerId())
+                .userRole("SELLER")
+                .type(NotificationType.STOCK_DEPLETED)
+                .title("🚨 Rupture de stock")
+                .message(String.format("Rupture de stock pour '%s'. Le produit n'est plus disponible à la vente. Réapprovisionnez d'urgence!", 
+                        event.getProductName()))
+                .metadata(String.format("{\"productId\":%d,\"productName\":\"%s\"}", 
+                        event.getProductId(), event.getProductName()))
+                .build();
+        return List.of(sellerNotif);
+    }
+
+    private List<NotificationRequest> stockReservationFailedNotifications(StockReservationFailedEvent event) {
+        // Notification CLIENT
+        NotificationRequest clientNotif = NotificationRequest.builder()
+                .userId(event.getClientId())
+                .userRole("CLIENT")
+                .type(NotificationType.STOCK_RESERVATION_FAILED)
+                .title("❌ Produit indisponible")
+                .message(String.format("Le produit '%s' n'est plus disponible en quantité suffisante. Votre commande #%d a été annulée.", 
+                        event.getProductName(), event.getOrderId()))
+                .metadata(String.format("{\"orderId\":%d,\"productId\":%d,\"productName\":\"%s\"}", 
+                        event.getOrderId(), event.getProductId(), event.getProductName()))
+                .build();
+        return List.of(clientNotif);
     }
-}
\ No newline at end of file
+}
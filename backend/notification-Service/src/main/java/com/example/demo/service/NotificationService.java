@@ -11,8 +11,11 @@ import com.example.demo.dtos.WebSocketNotification;
 import com.example.demo.entities.Notification;
 import com.example.demo.repositories.NotificationRepository;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +25,7 @@ public class NotificationService {
     
     private final NotificationRepository notificationRepository;
     private final WebSocketService webSocketService;
+    private final MeterRegistry meterRegistry;
     
     /**
      * Créer et envoyer une notification
@@ -32,33 +36,36 @@ public class NotificationService {
                 request.getUserId(), request.getType());
         
         // Sauvegarder en DB
-        Notification notification = Notification.builder()
-                .userId(request.getUserId())
-                .userRole(request.getUserRole())
-                .type(request.getType())
-                .title(request.getTitle())
-                .message(request.getMessage())
-                .metadata(request.getMetadata())
-                .isRead(false)
-                .build();
-        
-        notification = notificationRepository.save(notification);
+        Notification notification = notificationRepository.save(toEntity(request));
         
         // Envoyer via WebSocket en temps réel
-        WebSocketNotification wsNotif = WebSocketNotification.builder()
-                .id(notification.getId())
-                .type(notification.getType())
-                .title(notification.getTitle())
-                .message(notification.getMessage())
-                .metadata(notification.getMetadata())
-                .timestamp(notification.getCreatedAt())
-                .build();
-        
-        webSocketService.sendNotificationToUser(request.getUserId(), wsNotif);
+        webSocketService.sendNotificationToUser(request.getUserId(), toWebSocket(notification));
         
         return mapToResponse(notification);
     }
     
+    /**
+     * Créer un lot de notifications (un poll Kafka) : un seul saveAll, INSERT groupés en JDBC
+     * dans une transaction, puis envoi WebSocket une fois le lot commité
+     */
+    public int createNotifications(List<NotificationRequest> requests) {
+        if (requests.isEmpty()) {
+            return 0;
+        }
+        
+        long start = System.nanoTime();
+        List<Notification> notifications = notificationRepository.saveAll(
+                requests.stream().map(this::toEntity).collect(Collectors.toList()));
+        meterRegistry.timer("notifications.batch.persist").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        meterRegistry.summary("notifications.batch.size").record(notifications.size());
+        
+        notifications.forEach(notification ->
+                webSocketService.sendNotificationToUser(notification.getUserId(), toWebSocket(notification)));
+        
+        log.info("Created {} notifications in batch", notifications.size());
+        return notifications.size();
+    }
+    
     /**
      * Récupérer toutes les notifications d'un utilisateur
      */
@@ -126,6 +133,29 @@ public class NotificationService {
     
     // ===== HELPER METHODS =====
     
+    private Notification toEntity(NotificationRequest request) {
+        return Notification.builder()
+                .userId(request.getUserId())
+                .userRole(request.getUserRole())
+                .type(request.getType())
+                .title(request.getTitle())
+                .message(request.getMessage())
+                .metadata(request.getMetadata())
+                .isRead(false)
+                .build();
+    }
+    
+    private WebSocketNotification toWebSocket(Notification notification) {
+        return WebSocketNotification.builder()
+                .id(notification.getId())
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .metadata(notification.getMetadata())
+                .timestamp(notification.getCreatedAt())
+                .build();
+    }
+    
     private NotificationResponse mapToResponse(Notification notification) {
         return NotificationResponse.builder()
                 .id(notification.getId())
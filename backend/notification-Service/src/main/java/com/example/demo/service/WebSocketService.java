@@ -20,11 +20,12 @@ public class WebSocketService {
      */
     public void sendNotificationToUser(Long userId, WebSocketNotification notification) {
         String destination = "/user/" + userId + "/queue/notifications";
-        log.info("Sending notification to destination: {}", destination);
+        // debug : appelé pour chaque notification d'un lot Kafka
+        log.debug("Sending notification to destination: {}", destination);
         
         try {
             messagingTemplate.convertAndSend(destination, notification);
-            log.info("Notification sent successfully to user: {}", userId);
+            log.debug("Notification sent successfully to user: {}", userId);
         } catch (Exception e) {
             log.error("Failed to send notification to user {}: {}", userId, e.getMessage());
         }